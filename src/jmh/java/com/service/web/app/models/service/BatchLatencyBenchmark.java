@@ -0,0 +1,82 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.GraphResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tiempo de una única petición grande (lote de documentos) según el número de
+ * hilos que anotan sus chunks. Debe bajar casi en proporción a los hilos hasta
+ * saturar los núcleos.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="BatchLatencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class BatchLatencyBenchmark {
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "50" })
+	public int documents;
+
+	private ExecutorService chunkExecutor;
+	private KnowledgeGraphExtractor extractor;
+	private List<Discurs> batch;
+
+	@Setup
+	public void setUp() {
+		chunkExecutor = Executors.newFixedThreadPool(threads);
+		// Sin caché de chunks: cada iteración pasa por CoreNLP
+		ExtractionMetrics metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+		PipelinePool pipelinePool = new PipelinePool(threads, TimeUnit.MINUTES.toMillis(10), "full", metrics);
+		extractor = new KnowledgeGraphExtractor(pipelinePool, new ChunkCache(0, "", 1), new TextChunker(10, 4000),
+				new ChunkBatcher(1, 0, 1), chunkExecutor, threads, metrics, new NodeImportance("pagerank", 0.85, 50, 1e-6),
+				"");
+		List<Discurs> corpus = BenchmarkCorpus.request();
+		batch = new ArrayList<>();
+		for (int i = 0; i < documents; i++) {
+			Discurs source = corpus.get(i % corpus.size());
+			Discurs doc = new Discurs();
+			doc.setId("batch-" + i);
+			doc.setText(source.getText());
+			doc.setLang(source.getLang());
+			batch.add(doc);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		chunkExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public GraphResult batch() {
+		return extractor.extractTriplesFromDocuments(batch);
+	}
+}
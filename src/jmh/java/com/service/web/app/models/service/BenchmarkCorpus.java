@@ -0,0 +1,58 @@
+package com.service.web.app.models.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.service.web.app.models.entity.Discurs;
+
+/**
+ * Corpus fijo en español para los benchmarks: un discurso por línea de
+ * corpus/discursos-es.txt.
+ */
+final class BenchmarkCorpus {
+
+	private BenchmarkCorpus() {
+	}
+
+	static List<String> texts() {
+		try (InputStream input = BenchmarkCorpus.class.getClassLoader()
+				.getResourceAsStream("corpus/discursos-es.txt")) {
+			if (input == null) {
+				throw new IOException("No se encontró corpus/discursos-es.txt");
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+			List<String> texts = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) {
+					texts.add(line);
+				}
+			}
+			return texts;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Petición de /nlp/relations con todos los discursos del corpus.
+	 */
+	static List<Discurs> request() {
+		List<Discurs> documents = new ArrayList<>();
+		List<String> texts = texts();
+		for (int i = 0; i < texts.size(); i++) {
+			Discurs doc = new Discurs();
+			doc.setId("doc-" + (i + 1));
+			doc.setLang("es");
+			doc.setText(texts.get(i));
+			documents.add(doc);
+		}
+		return documents;
+	}
+}
@@ -0,0 +1,89 @@
+package com.service.web.app.models.service;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * División en chunks de 10 oraciones sobre el corpus repetido hasta formar
+ * documentos de distinto tamaño: TextChunker sobre String y sobre Reader
+ * frente a la antigua división con split/replaceAll (regexSplit).
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ChunkingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChunkingBenchmark {
+
+	// Veces que se repite el corpus completo en el documento
+	@Param({ "1", "50" })
+	public int copies;
+
+	private String text;
+	private TextChunker chunker;
+
+	@Setup
+	public void setUp() {
+		String corpus = String.join("\n", BenchmarkCorpus.texts());
+		text = String.join("\n", Collections.nCopies(copies, corpus));
+		chunker = new TextChunker(10, 4000);
+	}
+
+	@Benchmark
+	public void chunkerString(Blackhole blackhole) {
+		for (String chunk : chunker.chunks(text)) {
+			blackhole.consume(chunk);
+		}
+	}
+
+	@Benchmark
+	public void chunkerReader(Blackhole blackhole) {
+		for (String chunk : chunker.chunks(new StringReader(text))) {
+			blackhole.consume(chunk);
+		}
+	}
+
+	// La división anterior a TextChunker, como referencia
+	@Benchmark
+	public List<String> regexSplit() {
+		List<String> chunks = new ArrayList<>();
+		String[] sentences = text.split("(?<=[.!?])\\s+|[\n\r]+");
+		StringBuilder currentChunk = new StringBuilder();
+		int sentenceCount = 0;
+		for (String sentence : sentences) {
+			String trimmedSentence = sentence.trim();
+			String cleanedText = trimmedSentence.replaceAll("[\\n\\r]+", " ").trim();
+			if (!trimmedSentence.isEmpty()) {
+				currentChunk.append(cleanedText).append(" ");
+				if (++sentenceCount == 10) {
+					chunks.add(currentChunk.toString().trim());
+					currentChunk.setLength(0);
+					sentenceCount = 0;
+				}
+			}
+		}
+		if (currentChunk.length() > 0) {
+			chunks.add(currentChunk.toString().trim());
+		}
+		return chunks;
+	}
+}
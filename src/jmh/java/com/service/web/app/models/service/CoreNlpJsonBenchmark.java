@@ -0,0 +1,100 @@
+package com.service.web.app.models.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Lectura de una respuesta del servidor CoreNLP para un chunk (10 oraciones de
+ * 30 tokens, con todos los campos que devuelve el servidor): árbol de Map con
+ * ObjectMapper, como antes, frente a CoreNlpDocument en streaming.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CoreNlpJsonBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CoreNlpJsonBenchmark {
+
+	private static final String[] DEPENDENCIES = { "nsubj", "obj", "flat", "amod", "det", "case", "nmod" };
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private byte[] response;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(5);
+		StringBuilder json = new StringBuilder("{\"docId\":\"chunk\",\"sentences\":[");
+		for (int s = 0; s < 10; s++) {
+			if (s > 0)
+				json.append(',');
+			json.append("{\"index\":").append(s);
+			for (String graph : new String[] { "basicDependencies", "enhancedDependencies",
+					"enhancedPlusPlusDependencies" }) {
+				json.append(",\"").append(graph).append("\":[");
+				for (int t = 1; t <= 30; t++) {
+					if (t > 1)
+						json.append(',');
+					int governor = random.nextInt(31);
+					json.append("{\"dep\":\"").append(DEPENDENCIES[random.nextInt(DEPENDENCIES.length)])
+							.append("\",\"governor\":").append(governor).append(",\"governorGloss\":\"palabra")
+							.append(governor).append("\",\"dependent\":").append(t)
+							.append(",\"dependentGloss\":\"palabra").append(t).append("\"}");
+				}
+				json.append(']');
+			}
+			json.append(",\"openie\":[");
+			for (int o = 0; o < 5; o++) {
+				if (o > 0)
+					json.append(',');
+				json.append("{\"subject\":\"palabra").append(o).append("\",\"subjectSpan\":[0,1],")
+						.append("\"relation\":\"relacion").append(o).append("\",\"relationSpan\":[1,2],")
+						.append("\"object\":\"palabra").append(o + 5).append("\",\"objectSpan\":[2,3]}");
+			}
+			json.append("],\"kbp\":[],\"entitymentions\":[{\"docTokenBegin\":0,\"docTokenEnd\":1,")
+					.append("\"tokenBegin\":0,\"tokenEnd\":1,\"text\":\"palabra1\",\"characterOffsetBegin\":0,")
+					.append("\"characterOffsetEnd\":8,\"ner\":\"PERSON\",\"nerConfidences\":{\"PERSON\":0.98}}]")
+					.append(",\"tokens\":[");
+			for (int t = 1; t <= 30; t++) {
+				if (t > 1)
+					json.append(',');
+				json.append("{\"index\":").append(t).append(",\"word\":\"palabra").append(t)
+						.append("\",\"originalText\":\"palabra").append(t).append("\",\"lemma\":\"palabra")
+						.append(t).append("\",\"characterOffsetBegin\":").append(t * 9)
+						.append(",\"characterOffsetEnd\":").append(t * 9 + 8).append(",\"pos\":\"")
+						.append(t % 3 == 0 ? "VERB" : "NOUN").append("\",\"ner\":\"O\",\"speaker\":\"PER0\",")
+						.append("\"before\":\" \",\"after\":\" \"}");
+			}
+			json.append("]}");
+		}
+		json.append("]}");
+		response = json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Map<?, ?> objectMapperTree() throws Exception {
+		return mapper.readValue(new String(response, StandardCharsets.UTF_8), Map.class);
+	}
+
+	@Benchmark
+	public CoreNlpDocument streaming() throws Exception {
+		return CoreNlpDocument.parse(response);
+	}
+}
@@ -0,0 +1,70 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.stanford.nlp.coref.CorefCoreAnnotations;
+import edu.stanford.nlp.coref.data.CorefChain;
+import edu.stanford.nlp.pipeline.Annotation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * processCoreferences sobre las cadenas reales que produce CoreNLP para el
+ * corpus (se anotan una sola vez en el setup). La fusión en el grafo se mide en
+ * GraphPostProcessingBenchmark.mergeCoreferences.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CoreferenceBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CoreferenceBenchmark {
+
+	private KnowledgeGraphExtractor extractor;
+	private final List<Map<Integer, CorefChain>> corefChains = new ArrayList<>();
+
+	@Setup
+	public void setUp() {
+		ExtractionMetrics metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+		PipelinePool pipelinePool = new PipelinePool(1, TimeUnit.MINUTES.toMillis(10), "full", metrics);
+		TextChunker chunker = new TextChunker(10, 4000);
+		extractor = new KnowledgeGraphExtractor(pipelinePool, new ChunkCache(0, "", 1), chunker,
+				new ChunkBatcher(1, 0, 1), null, 1, metrics, new NodeImportance("pagerank", 0.85, 50, 1e-6), "");
+		for (String text : BenchmarkCorpus.texts()) {
+			for (String chunk : chunker.chunks(text)) {
+				Annotation document = new Annotation(chunk);
+				pipelinePool.annotate(document);
+				Map<Integer, CorefChain> chains = document.get(CorefCoreAnnotations.CorefChainAnnotation.class);
+				if (chains != null) {
+					corefChains.add(chains);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public ChunkExtraction processCoreferences() {
+		ChunkExtraction extraction = new ChunkExtraction();
+		for (Map<Integer, CorefChain> chains : corefChains) {
+			extractor.processCoreferences(chains, extraction);
+		}
+		return extraction;
+	}
+}
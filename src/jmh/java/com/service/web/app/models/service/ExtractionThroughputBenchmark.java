@@ -0,0 +1,72 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.GraphResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Prueba de carga de /nlp/relations: 8 clientes concurrentes lanzan la misma
+ * petición contra el extractor y se mide peticiones/segundo para cada tamaño
+ * del pool de pipelines. Con el extractor synchronized anterior el resultado
+ * era plano; ahora debe crecer con poolSize hasta saturar los núcleos.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ExtractionThroughputBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 1, time = 60)
+@Measurement(iterations = 3, time = 60)
+public class ExtractionThroughputBenchmark {
+
+	@Param({ "1", "2", "4", "8" })
+	public int poolSize;
+
+	private ExecutorService chunkExecutor;
+	private KnowledgeGraphExtractor extractor;
+	private List<Discurs> request;
+
+	@Setup
+	public void setUp() {
+		chunkExecutor = Executors.newFixedThreadPool(poolSize);
+		// Sin caché de chunks: cada iteración pasa por CoreNLP
+		ExtractionMetrics metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+		PipelinePool pipelinePool = new PipelinePool(poolSize, TimeUnit.MINUTES.toMillis(10), "full", metrics);
+		extractor = new KnowledgeGraphExtractor(pipelinePool, new ChunkCache(0, "", 1), new TextChunker(10, 4000),
+				new ChunkBatcher(1, 0, 1), chunkExecutor, poolSize, metrics, new NodeImportance("pagerank", 0.85, 50, 1e-6),
+				"");
+		request = BenchmarkCorpus.request();
+	}
+
+	@TearDown
+	public void tearDown() {
+		chunkExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public GraphResult relations() {
+		return extractor.extractTriplesFromDocuments(request);
+	}
+}
@@ -0,0 +1,76 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Operaciones del grafo acumulado: fusión de relaciones, limpieza de nodos
+ * aislados y fusión de correferencias (la parte de processCoreferences que
+ * depende del tamaño del grafo).
+ *
+ * Las tres operaciones modifican el grafo, así que cada invocación lo construye
+ * de nuevo. buildGraph mide solo esa construcción: restarla (tiempo por
+ * operación y B/op de -prof gc) da el coste de cada operación. Se hace así y no
+ * con @Setup(Level.Invocation) porque -prof gc contaría igualmente la memoria
+ * del setup.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="GraphPostProcessingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GraphPostProcessingBenchmark {
+
+	@Param({ "1000", "10000", "1000000" })
+	public int nodes;
+
+	private List<List<String>> chains;
+
+	@Setup
+	public void setUp() {
+		chains = SyntheticGraph.corefChains(nodes, nodes / 20, 11);
+	}
+
+	@Benchmark
+	public KnowledgeGraph buildGraph() {
+		return SyntheticGraph.build(nodes, 7);
+	}
+
+	@Benchmark
+	public KnowledgeGraph mergeSimilarRelations() {
+		KnowledgeGraph graph = SyntheticGraph.build(nodes, 7);
+		graph.mergeSimilarRelations();
+		return graph;
+	}
+
+	@Benchmark
+	public KnowledgeGraph cleanIsolatedNodes() {
+		KnowledgeGraph graph = SyntheticGraph.build(nodes, 7);
+		graph.cleanIsolatedNodes();
+		return graph;
+	}
+
+	@Benchmark
+	public KnowledgeGraph mergeCoreferences() {
+		KnowledgeGraph graph = SyntheticGraph.build(nodes, 7);
+		for (List<String> chain : chains) {
+			graph.mergeCoreferences(chain.get(0), chain.subList(1, chain.size()));
+		}
+		return graph;
+	}
+}
@@ -0,0 +1,64 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.service.web.app.models.entity.Document;
+import com.service.web.app.models.util.LenguageDetectorImpl;
+
+/**
+ * Latencia de NER por documento (detección de idioma + pipeline del idioma).
+ * Con el detector y las pipelines reutilizados debe estar en milisegundos;
+ * ejecutar con -prof gc para ver la asignación por documento.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="NerLatencyBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class NerLatencyBenchmark {
+
+	private NerServiceImpl nerService;
+	private List<String> texts;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		nerService = new NerServiceImpl();
+		texts = BenchmarkCorpus.texts();
+	}
+
+	@Benchmark
+	public String detectLanguage() {
+		return LenguageDetectorImpl.languageDetector(nextText());
+	}
+
+	@Benchmark
+	public List<Document> entities() {
+		Document document = new Document();
+		document.setText(nextText());
+		List<Document> request = new ArrayList<>();
+		request.add(document);
+		return nerService.entyByText(request);
+	}
+
+	private String nextText() {
+		next = (next + 1) % texts.size();
+		return texts.get(next);
+	}
+}
@@ -0,0 +1,125 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Búsqueda de la entidad contenedora (findParentEntity) con el índice de
+ * contención frente al recorrido lineal anterior, de 1k a 100k nodos.
+ * buildGraph mide la construcción completa del grafo con addNode.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="NodeLookupBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NodeLookupBenchmark {
+
+	// Sílabas consonante + vocal (+ coda opcional) para IDs con aspecto de español
+	private static final List<String> SYLLABLES = new ArrayList<>();
+	static {
+		for (char onset : "bcdfglmnprstv".toCharArray()) {
+			for (char vowel : "aeiou".toCharArray()) {
+				SYLLABLES.add("" + onset + vowel);
+				SYLLABLES.add("" + onset + vowel + "n");
+				SYLLABLES.add("" + onset + vowel + "s");
+			}
+		}
+	}
+
+	@Param({ "1000", "10000", "100000" })
+	public int nodes;
+
+	private List<String> ids;
+	private List<String> candidates;
+	private NodeContainmentIndex index;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(7);
+		Set<String> unique = new LinkedHashSet<>();
+		while (unique.size() < nodes) {
+			unique.add(randomId(random));
+		}
+		ids = new ArrayList<>(unique);
+		index = new NodeContainmentIndex();
+		ids.forEach(index::add);
+
+		// Mezcla de IDs existentes, fragmentos de IDs y términos nuevos
+		candidates = new ArrayList<>();
+		for (int i = 0; i < 1024; i++) {
+			String id = ids.get(random.nextInt(ids.size()));
+			switch (i % 3) {
+			case 0 -> candidates.add(id);
+			case 1 -> candidates.add(id.substring(0, Math.max(1, id.length() / 2)));
+			default -> candidates.add(randomId(random));
+			}
+		}
+	}
+
+	@Benchmark
+	public String indexedLookup() {
+		return index.findLongestRelated(nextCandidate());
+	}
+
+	@Benchmark
+	public String linearScan() {
+		String candidateId = nextCandidate();
+		return ids.stream()
+				.filter(existingId -> existingId.contains(candidateId) || candidateId.contains(existingId))
+				.max(Comparator.comparingInt(String::length))
+				.orElse(null);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 5)
+	public KnowledgeGraph buildGraph() {
+		KnowledgeGraph graph = new KnowledgeGraph();
+		for (String id : ids) {
+			graph.addNode(id, id, "Concepto", "doc-1");
+		}
+		return graph;
+	}
+
+	private String nextCandidate() {
+		next = (next + 1) & (candidates.size() - 1);
+		return candidates.get(next);
+	}
+
+	private static String randomId(Random random) {
+		StringBuilder id = new StringBuilder();
+		int words = 1 + random.nextInt(3);
+		for (int w = 0; w < words; w++) {
+			if (w > 0)
+				id.append(' ');
+			int syllables = 2 + random.nextInt(3);
+			for (int s = 0; s < syllables; s++) {
+				id.append(SYLLABLES.get(random.nextInt(SYLLABLES.size())));
+			}
+		}
+		return id.toString();
+	}
+}
@@ -0,0 +1,81 @@
+package com.service.web.app.models.service;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Centralidad sobre grafos sintéticos de 'nodes' nodos y 5 aristas por nodo
+ * (con 1M de nodos, 5M de aristas). Los destinos se concentran en pocos nodos
+ * como en los grafos reales (unos pocos conceptos reciben casi todo).
+ *
+ * pageRank mide el tiempo hasta converger con la configuración por defecto
+ * (0.85, 50 iteraciones, tolerancia 1e-6); al preparar se imprime cuántas
+ * iteraciones hace. build mide el paso a CSR, que va incluido en cada
+ * extracción.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PageRankBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PageRankBenchmark {
+
+	@Param({ "100000", "1000000" })
+	public int nodes;
+
+	private int[] sources;
+	private int[] targets;
+	private GraphCentrality centrality;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(13);
+		int edges = nodes * 5;
+		sources = new int[edges];
+		targets = new int[edges];
+		for (int e = 0; e < edges; e++) {
+			sources[e] = random.nextInt(nodes);
+			double skew = random.nextDouble();
+			targets[e] = (int) (nodes * skew * skew * skew);
+		}
+		centrality = new GraphCentrality(nodes, sources, targets);
+		centrality.pageRank(0.85, 50, 1e-6);
+		System.out.printf("%nPageRank con %d nodos y %d aristas: %d iteraciones%n", nodes, edges,
+				centrality.iterations());
+	}
+
+	@Benchmark
+	public GraphCentrality build() {
+		return new GraphCentrality(nodes, sources, targets);
+	}
+
+	@Benchmark
+	public double[] pageRank() {
+		return centrality.pageRank(0.85, 50, 1e-6);
+	}
+
+	@Benchmark
+	public double[] degree() {
+		return centrality.degree();
+	}
+
+	@Benchmark
+	public double[] betweenness32Samples() {
+		return centrality.betweenness(32, 17);
+	}
+}
@@ -0,0 +1,90 @@
+package com.service.web.app.models.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latencia de /nlp/relations sobre el corpus con cada perfil de anotadores.
+ * Como medida de calidad, al preparar cada perfil se imprime cuántos nodos y
+ * aristas obtiene y qué parte de las aristas de full encuentra también.
+ * fast y balanced deben quedar varias veces por debajo de full.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ProfileBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 3, time = 30)
+public class ProfileBenchmark {
+
+	@Param({ "fast", "balanced", "full" })
+	public String profile;
+
+	private ExecutorService chunkExecutor;
+	private KnowledgeGraphExtractor extractor;
+	private AnnotatorProfile selected;
+	private List<Discurs> request;
+
+	@Setup
+	public void setUp() {
+		chunkExecutor = Executors.newFixedThreadPool(1);
+		// Sin caché de chunks: cada iteración pasa por CoreNLP
+		ExtractionMetrics metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+		PipelinePool pipelinePool = new PipelinePool(1, TimeUnit.MINUTES.toMillis(10), "full", metrics);
+		extractor = new KnowledgeGraphExtractor(pipelinePool, new ChunkCache(0, "", 1), new TextChunker(10, 4000),
+				new ChunkBatcher(1, 0, 1), chunkExecutor, 1, metrics, new NodeImportance("pagerank", 0.85, 50, 1e-6), "");
+		selected = AnnotatorProfile.parse(profile);
+		request = BenchmarkCorpus.request();
+
+		GraphResult result = extractor.extractTriplesFromDocuments(request, selected);
+		Set<String> reference = edgeKeys(extractor.extractTriplesFromDocuments(request, AnnotatorProfile.FULL));
+		Set<String> found = edgeKeys(result);
+		found.retainAll(reference);
+		System.out.printf("%nPerfil %s: %d nodos, %d aristas, %d de las %d aristas de full (%.0f%%)%n", profile,
+				result.getNodes().size(), result.getEdges().size(), found.size(), reference.size(),
+				reference.isEmpty() ? 100.0 : 100.0 * found.size() / reference.size());
+	}
+
+	@TearDown
+	public void tearDown() {
+		chunkExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public GraphResult relations() {
+		return extractor.extractTriplesFromDocuments(request, selected);
+	}
+
+	private static Set<String> edgeKeys(GraphResult result) {
+		Set<String> keys = new HashSet<>();
+		for (Edge edge : result.getEdges()) {
+			keys.add(edge.getSource() + '\t' + edge.getRelationship() + '\t' + edge.getTarget());
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,87 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.GraphResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Documentos/segundo con documentos cortos (una oración del corpus de hasta
+ * 280 caracteres, como un tweet) según cuántos chunks se anotan por lote:
+ * maxChunks = 1 es anotar cada chunk por separado, como antes de ChunkBatcher.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ShortDocumentBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 1, time = 60)
+@Measurement(iterations = 3, time = 60)
+public class ShortDocumentBenchmark {
+
+	private static final int DOCUMENTS = 200;
+
+	@Param({ "1", "8", "16", "32" })
+	public int maxChunks;
+
+	private ExecutorService chunkExecutor;
+	private KnowledgeGraphExtractor extractor;
+	private List<Discurs> request;
+
+	@Setup
+	public void setUp() {
+		chunkExecutor = Executors.newFixedThreadPool(4);
+		// Sin caché de chunks: cada iteración pasa por CoreNLP
+		ExtractionMetrics metrics = new ExtractionMetrics(new SimpleMeterRegistry());
+		PipelinePool pipelinePool = new PipelinePool(4, TimeUnit.MINUTES.toMillis(10), "full", metrics);
+		TextChunker chunker = new TextChunker(1, 280);
+		extractor = new KnowledgeGraphExtractor(pipelinePool, new ChunkCache(0, "", 1), chunker,
+				new ChunkBatcher(maxChunks, 8000, 1), chunkExecutor, 4, metrics,
+				new NodeImportance("pagerank", 0.85, 50, 1e-6), "");
+
+		List<String> sentences = new ArrayList<>();
+		for (String text : BenchmarkCorpus.texts()) {
+			chunker.chunks(text).forEach(sentences::add);
+		}
+		request = new ArrayList<>();
+		for (int i = 0; i < DOCUMENTS; i++) {
+			Discurs doc = new Discurs();
+			doc.setId("tweet-" + (i + 1));
+			doc.setLang("es");
+			doc.setText(sentences.get(i % sentences.size()));
+			request.add(doc);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		chunkExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(DOCUMENTS)
+	public GraphResult relations() {
+		return extractor.extractTriplesFromDocuments(request);
+	}
+}
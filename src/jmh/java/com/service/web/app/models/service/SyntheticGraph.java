@@ -0,0 +1,59 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Grafo sintético reproducible para los benchmarks de post-procesado.
+ * Los IDs tienen ancho fijo para que ninguno contenga a otro (addNode no los
+ * fusiona) y la semilla es fija para comparar ejecuciones.
+ */
+final class SyntheticGraph {
+
+	private static final String[] RELATIONS = { "es", "tiene", "defender", "gobernar", "de", "en", "contra" };
+
+	private SyntheticGraph() {
+	}
+
+	static String nodeId(int i) {
+		String digits = Integer.toString(i);
+		return "n" + "0000000".substring(Math.min(7, digits.length())) + digits;
+	}
+
+	/**
+	 * Grafo con 'nodes' nodos y unas 3 aristas por nodo; una parte de las aristas
+	 * repite (origen, destino) con otra relación y un 20 % de nodos queda aislado.
+	 */
+	static KnowledgeGraph build(int nodes, long seed) {
+		Random random = new Random(seed);
+		KnowledgeGraph graph = new KnowledgeGraph();
+		for (int i = 0; i < nodes; i++) {
+			graph.addNode(nodeId(i), nodeId(i), i % 3 == 0 ? "PERSON" : "Concepto", "doc-" + (i % 50));
+		}
+		int connected = (int) (nodes * 0.8);
+		for (int e = 0; e < nodes * 3; e++) {
+			int source = random.nextInt(connected);
+			int target = random.nextInt(connected);
+			graph.addEdge(nodeId(source), nodeId(target), RELATIONS[random.nextInt(RELATIONS.length)]);
+		}
+		return graph;
+	}
+
+	/**
+	 * Cadenas de correferencia: representante y menciones existentes en el grafo.
+	 */
+	static List<List<String>> corefChains(int nodes, int chains, long seed) {
+		Random random = new Random(seed);
+		List<List<String>> result = new ArrayList<>();
+		for (int c = 0; c < chains; c++) {
+			List<String> chain = new ArrayList<>();
+			int mentions = 2 + random.nextInt(4);
+			for (int m = 0; m < mentions; m++) {
+				chain.add(nodeId(random.nextInt(nodes)));
+			}
+			result.add(chain);
+		}
+		return result;
+	}
+}
@@ -1,5 +1,13 @@
 package com.service.web.app;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -10,4 +18,29 @@ public class AppConfig {
     public RestTemplate registerRestTemplate() {
         return new RestTemplate();
     }
-}
\ No newline at end of file
+
+    // Hilos que anotan en paralelo los chunks de una extracción
+    @Bean(name = "chunkExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService chunkExecutor(@Value("${nlp.extraction.threads:4}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "nlp-chunk-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Trabajos de /nlp/jobs: pocos hilos y cola acotada; si se llena, execute()
+    // lanza RejectedExecutionException y el controlador responde 429
+    @Bean(name = "jobExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor(@Value("${nlp.jobs.workers:2}") int workers,
+            @Value("${nlp.jobs.queue-capacity:16}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "nlp-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
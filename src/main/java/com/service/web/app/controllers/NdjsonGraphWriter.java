@@ -0,0 +1,104 @@
+package com.service.web.app.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.Node;
+import com.service.web.app.models.service.GraphEventListener;
+
+/**
+ * Escribe los eventos del grafo como NDJSON, un objeto por línea:
+ * {"event":"node","node":{...}}, {"event":"edge","edge":{...}},
+ * {"event":"node-removed","id":...}, {"event":"edge-removed","edge":{...}},
+ * {"event":"complete","nodes":N,"edges":M} o {"event":"error","message":...}.
+ * Vacía la salida tras cada chunk para que el cliente reciba el avance.
+ */
+class NdjsonGraphWriter implements GraphEventListener {
+
+	private final Gson gson = new Gson();
+	private final Writer out;
+
+	NdjsonGraphWriter(OutputStream output) {
+		this.out = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void onNode(Node node) {
+		JsonObject event = event("node");
+		event.add("node", gson.toJsonTree(node));
+		write(event);
+	}
+
+	@Override
+	public void onEdge(Edge edge) {
+		JsonObject event = event("edge");
+		event.add("edge", gson.toJsonTree(edge));
+		write(event);
+	}
+
+	@Override
+	public void onNodeRemoved(String nodeId) {
+		JsonObject event = event("node-removed");
+		event.addProperty("id", nodeId);
+		write(event);
+	}
+
+	@Override
+	public void onEdgeRemoved(String source, String target, String relationship) {
+		JsonObject event = event("edge-removed");
+		event.add("edge", gson.toJsonTree(new Edge(source, target, relationship)));
+		write(event);
+	}
+
+	@Override
+	public void onChunkApplied() {
+		flush();
+	}
+
+	@Override
+	public void onComplete(int nodes, int edges) {
+		JsonObject event = event("complete");
+		event.addProperty("nodes", nodes);
+		event.addProperty("edges", edges);
+		write(event);
+		flush();
+	}
+
+	void onError(String message) {
+		JsonObject event = event("error");
+		event.addProperty("message", message);
+		write(event);
+		flush();
+	}
+
+	private static JsonObject event(String type) {
+		JsonObject event = new JsonObject();
+		event.addProperty("event", type);
+		return event;
+	}
+
+	// Un fallo de escritura (cliente desconectado) aborta la extracción
+	private void write(JsonObject event) {
+		try {
+			gson.toJson(event, out);
+			out.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void flush() {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
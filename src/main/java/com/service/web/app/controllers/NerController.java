@@ -1,24 +1,41 @@
 package com.service.web.app.controllers;
 
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity.HeadersBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.google.gson.Gson;
 import com.service.web.app.models.entity.Document;
 import com.service.web.app.models.entity.GraphResult;
 import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.ExtractionJob;
 import com.service.web.app.models.entity.Relations;
+import com.service.web.app.models.service.AnnotationCache;
+import com.service.web.app.models.service.AnnotatorProfile;
+import com.service.web.app.models.service.CorpusService;
+import com.service.web.app.models.service.ExtractionJobService;
 import com.service.web.app.models.service.Extractor;
 import com.service.web.app.models.service.GraphKnow;
 import com.service.web.app.models.service.INerService;
@@ -28,37 +45,263 @@ import com.service.web.app.models.service.INerService;
 
 public class NerController {
 
+	private static final Logger log = LoggerFactory.getLogger(NerController.class);
+
+	// Máximo de resultados de una consulta sobre el corpus
+	private static final int MAX_QUERY_RESULTS = 10000;
+
 	@Autowired
 	private INerService nerServcie;
 
 	@Autowired
 	private Extractor extract;
 
+	@Autowired
+	private ExtractionJobService jobs;
+
+	@Autowired
+	private AnnotationCache annotationCache;
+
+	@Autowired
+	private CorpusService corpus;
+
 	/*
 	 * @Autowired
 	 * private GraphKnow graph;
 	 */
 
+	/**
+	 * Grafo de relaciones de los documentos. Con ?profile=fast|balanced|full se
+	 * eligen los anotadores (fast y balanced no hacen coref; fast tampoco KBP);
+	 * sin él, nlp.pipeline.default-profile.
+	 */
 	@PostMapping("/relations")
-	public ResponseEntity<String> extract(@RequestBody List<Discurs> doc) {
+	public ResponseEntity<String> extract(@RequestBody List<Discurs> doc,
+			@RequestParam(required = false) String profile) {
 		// List<Relations> rel = null;
 		GraphResult rel = null;
 		if (doc.size() > 0) {
-			System.out.println(doc.size());
+			AnnotatorProfile selected;
+			try {
+				selected = profile(profile);
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+			log.debug("Petición de relaciones con {} documentos", doc.size());
 			// Recibir del front solo los textos de cada disurso
 
-			rel = extract.extractTriplesFromDocuments(doc);
+			rel = selected == null ? extract.extractTriplesFromDocuments(doc)
+					: extract.extractTriplesFromDocuments(doc, selected);
 			if (rel == null) {
 				return ResponseEntity.badRequest().build();
 			}
 
-			System.out.println("TERMINO RELATIONS");
+			log.debug("Relaciones extraídas");
 			return ResponseEntity.ok(new Gson().toJson(rel));
 		}
 
 		return ResponseEntity.badRequest().build();
 	}
 
+	/**
+	 * Aciertos y fallos de la caché de chunks.
+	 */
+	@GetMapping("/cache")
+	public ResponseEntity<String> cacheStats() {
+		return ResponseEntity.ok(new Gson().toJson(annotationCache.stats()));
+	}
+
+	/**
+	 * Versión en streaming de /relations: devuelve NDJSON con los nodos y aristas
+	 * a medida que se procesa cada chunk y, al final, las correcciones de fusión,
+	 * importancia y limpieza (ver NdjsonGraphWriter).
+	 */
+	@PostMapping("/relations/stream")
+	public ResponseEntity<?> extractStream(@RequestBody List<Discurs> doc,
+			@RequestParam(required = false) String profile) {
+		if (doc.isEmpty()) {
+			return ResponseEntity.badRequest().build();
+		}
+		AnnotatorProfile selected;
+		try {
+			selected = profile(profile);
+		} catch (IllegalArgumentException e) {
+			// Mismo mensaje que /relations, /jobs/relations y /corpus/documents
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		StreamingResponseBody body = output -> {
+			NdjsonGraphWriter writer = new NdjsonGraphWriter(output);
+			try {
+				if (selected == null) {
+					extract.streamTriplesFromDocuments(doc, writer);
+				} else {
+					extract.streamTriplesFromDocuments(doc, selected, writer);
+				}
+			} catch (UncheckedIOException e) {
+				throw e.getCause(); // Cliente desconectado: no hay a quién avisar
+			} catch (RuntimeException e) {
+				log.error("Error en la extracción en streaming", e);
+				writer.onError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	/**
+	 * Versión asíncrona de /relations para lotes grandes: encola la extracción y
+	 * responde 202 con el trabajo. 429 si la cola de trabajos está llena.
+	 */
+	@PostMapping("/jobs/relations")
+	public ResponseEntity<String> submitJob(@RequestBody List<Discurs> doc,
+			@RequestParam(required = false) String profile) {
+		if (doc.isEmpty()) {
+			return ResponseEntity.badRequest().build();
+		}
+		AnnotatorProfile selected;
+		try {
+			selected = profile(profile);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		try {
+			ExtractionJob job = jobs.submit(doc, selected);
+			return ResponseEntity.accepted().location(URI.create("/nlp/jobs/" + job.getId()))
+					.body(new Gson().toJson(job));
+		} catch (RejectedExecutionException e) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30")
+					.body("Cola de trabajos llena, reintentar más tarde");
+		}
+	}
+
+	@GetMapping("/jobs/{id}")
+	public ResponseEntity<String> jobStatus(@PathVariable String id) {
+		ExtractionJob job = jobs.get(id);
+		if (job == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(new Gson().toJson(job));
+	}
+
+	/**
+	 * Resultado del trabajo: 200 con el grafo si terminó, 202 con el estado si
+	 * sigue en curso y 500 con el estado si falló.
+	 */
+	@GetMapping("/jobs/{id}/result")
+	public ResponseEntity<String> jobResult(@PathVariable String id) {
+		ExtractionJob job = jobs.get(id);
+		if (job == null) {
+			return ResponseEntity.notFound().build();
+		}
+		switch (job.getStatus()) {
+		case DONE:
+			return ResponseEntity.ok(new Gson().toJson(job.getResult()));
+		case FAILED:
+			return ResponseEntity.internalServerError().body(new Gson().toJson(job));
+		default:
+			return ResponseEntity.accepted().body(new Gson().toJson(job));
+		}
+	}
+
+	/**
+	 * Añade los documentos al grafo del corpus (o los sustituye si ya estaban) y
+	 * devuelve su tamaño. Solo se anotan los documentos recibidos.
+	 */
+	@PostMapping("/corpus/documents")
+	public ResponseEntity<String> addToCorpus(@RequestBody List<Discurs> doc,
+			@RequestParam(required = false) String profile) {
+		if (doc.isEmpty() || doc.stream().anyMatch(d -> d.getId() == null || d.getId().isBlank())) {
+			return ResponseEntity.badRequest().body("Cada documento necesita un id");
+		}
+		AnnotatorProfile selected;
+		try {
+			selected = profile(profile);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+		return ResponseEntity.ok(new Gson().toJson(corpus.addDocuments(doc, selected)));
+	}
+
+	@DeleteMapping("/corpus/documents/{id}")
+	public ResponseEntity<String> removeFromCorpus(@PathVariable String id) {
+		if (!corpus.removeDocument(id)) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(new Gson().toJson(corpus.stats()));
+	}
+
+	@GetMapping("/corpus")
+	public ResponseEntity<String> corpusStats() {
+		return ResponseEntity.ok(new Gson().toJson(corpus.stats()));
+	}
+
+	@GetMapping("/corpus/graph")
+	public ResponseEntity<String> corpusGraph() {
+		return ResponseEntity.ok(new Gson().toJson(corpus.graph()));
+	}
+
+	// --- Consultas sobre el corpus (índices secundarios, sin volcar el grafo) ---
+
+	@GetMapping("/corpus/nodes/top")
+	public ResponseEntity<String> topNodes(@RequestParam(defaultValue = "20") int k) {
+		if (k < 1 || k > MAX_QUERY_RESULTS) {
+			return ResponseEntity.badRequest().body("k debe estar entre 1 y " + MAX_QUERY_RESULTS);
+		}
+		return ResponseEntity.ok(new Gson().toJson(corpus.topNodes(k)));
+	}
+
+	@GetMapping("/corpus/nodes")
+	public ResponseEntity<String> nodesByType(@RequestParam String type,
+			@RequestParam(defaultValue = "100") int limit) {
+		return ResponseEntity.ok(new Gson().toJson(corpus.nodesByType(type, clampLimit(limit))));
+	}
+
+	/**
+	 * Vecindario de un nodo a 'hops' saltos (1 a 3), con como mucho 'limit' nodos.
+	 */
+	@GetMapping("/corpus/neighbourhood")
+	public ResponseEntity<String> neighbourhood(@RequestParam String node,
+			@RequestParam(defaultValue = "1") int hops, @RequestParam(defaultValue = "500") int limit) {
+		if (hops < 1 || hops > 3) {
+			return ResponseEntity.badRequest().body("hops debe estar entre 1 y 3");
+		}
+		GraphResult result = corpus.neighbourhood(node, hops, clampLimit(limit));
+		if (result == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(new Gson().toJson(result));
+	}
+
+	/**
+	 * Aristas con esa relación (?relationship=) o que aporta un documento
+	 * (?document=).
+	 */
+	@GetMapping("/corpus/edges")
+	public ResponseEntity<String> edges(@RequestParam(required = false) String relationship,
+			@RequestParam(required = false) String document, @RequestParam(defaultValue = "100") int limit) {
+		if ((relationship == null) == (document == null)) {
+			return ResponseEntity.badRequest().body("Indicar relationship o document");
+		}
+		if (relationship != null) {
+			// Las relaciones se guardan en minúsculas (ver KnowledgeGraph.addEdge)
+			String normalized = relationship.toLowerCase().trim();
+			return ResponseEntity.ok(new Gson().toJson(corpus.edgesByRelationship(normalized, clampLimit(limit))));
+		}
+		List<Edge> edges = corpus.edgesByDocument(document, clampLimit(limit));
+		if (edges == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(new Gson().toJson(edges));
+	}
+
+	private static int clampLimit(int limit) {
+		return Math.max(1, Math.min(limit, MAX_QUERY_RESULTS));
+	}
+
+	// Perfil pedido en ?profile=, o null si no se indicó (perfil por defecto)
+	private static AnnotatorProfile profile(String name) {
+		return name == null || name.isBlank() ? null : AnnotatorProfile.parse(name);
+	}
+
 	/* @PostMapping("/ner")
 	public ResponseEntity<List<Document>> entities(@RequestBody List<Document> document) {
 		List<Document> entity = null;
@@ -0,0 +1,47 @@
+package com.service.web.app.models.entity;
+
+/**
+ * Estadísticas de la caché de chunks (GET /nlp/cache).
+ */
+public class CacheStats {
+	long memoryHits;
+	long diskHits;
+	long misses;
+	double hitRate; // (memoryHits + diskHits) / consultas
+	int size;
+	int maxEntries;
+
+	public CacheStats(long memoryHits, long diskHits, long misses, int size, int maxEntries) {
+		this.memoryHits = memoryHits;
+		this.diskHits = diskHits;
+		this.misses = misses;
+		long lookups = memoryHits + diskHits + misses;
+		this.hitRate = lookups == 0 ? 0.0 : (double) (memoryHits + diskHits) / lookups;
+		this.size = size;
+		this.maxEntries = maxEntries;
+	}
+
+	public long getMemoryHits() {
+		return memoryHits;
+	}
+
+	public long getDiskHits() {
+		return diskHits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+}
@@ -0,0 +1,28 @@
+package com.service.web.app.models.entity;
+
+/**
+ * Tamaño del grafo del corpus incremental (/nlp/corpus).
+ */
+public class CorpusStats {
+	int documents;
+	int nodes;
+	int edges;
+
+	public CorpusStats(int documents, int nodes, int edges) {
+		this.documents = documents;
+		this.nodes = nodes;
+		this.edges = edges;
+	}
+
+	public int getDocuments() {
+		return documents;
+	}
+
+	public int getNodes() {
+		return nodes;
+	}
+
+	public int getEdges() {
+		return edges;
+	}
+}
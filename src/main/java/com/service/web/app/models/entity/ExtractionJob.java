@@ -0,0 +1,82 @@
+package com.service.web.app.models.entity;
+
+/**
+ * Trabajo asíncrono de extracción de relaciones (POST /nlp/jobs/relations).
+ * Lo actualiza el hilo que ejecuta la extracción y lo leen las consultas de
+ * estado, por eso los campos mutables son volatile.
+ */
+public class ExtractionJob {
+
+	public enum Status {
+		QUEUED, RUNNING, DONE, FAILED
+	}
+
+	private final String id;
+	private final int documents;
+	private final long submittedAt;
+	private volatile Status status = Status.QUEUED;
+	private volatile long startedAt;
+	private volatile long finishedAt;
+	private volatile String error;
+	// No forma parte del estado serializado: se obtiene en /result
+	private transient volatile GraphResult result;
+
+	public ExtractionJob(String id, int documents) {
+		this.id = id;
+		this.documents = documents;
+		this.submittedAt = System.currentTimeMillis();
+	}
+
+	public void start() {
+		this.startedAt = System.currentTimeMillis();
+		this.status = Status.RUNNING;
+	}
+
+	public void complete(GraphResult result) {
+		this.result = result;
+		this.finishedAt = System.currentTimeMillis();
+		this.status = Status.DONE;
+	}
+
+	public void fail(String error) {
+		this.error = error;
+		this.finishedAt = System.currentTimeMillis();
+		this.status = Status.FAILED;
+	}
+
+	public boolean isFinished() {
+		return status == Status.DONE || status == Status.FAILED;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public int getDocuments() {
+		return documents;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public long getSubmittedAt() {
+		return submittedAt;
+	}
+
+	public long getStartedAt() {
+		return startedAt;
+	}
+
+	public long getFinishedAt() {
+		return finishedAt;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public GraphResult getResult() {
+		return result;
+	}
+}
@@ -0,0 +1,10 @@
+package com.service.web.app.models.service;
+
+import com.service.web.app.models.entity.CacheStats;
+
+public interface AnnotationCache {
+	/**
+	 * Aciertos (memoria y disco), fallos y ocupación de la caché de chunks.
+	 */
+	public CacheStats stats();
+}
@@ -0,0 +1,60 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Conjuntos de anotadores de CoreNLP que se pueden pedir en cada extracción
+ * (?profile= en /nlp/relations). Cada perfil tiene sus propias pipelines
+ * precargadas en el PipelinePool.
+ *
+ * FULL es la configuración completa. BALANCED quita la correferencia, la
+ * etapa más cara. FAST quita además KBP y se queda con NER, dependencias y
+ * OpenIE. Sin coref, OpenIE no puede resolver correferencias y se desactiva
+ * openie.resolve_coref. Ver ProfileBenchmark para la comparación de
+ * latencia y aristas obtenidas.
+ */
+public enum AnnotatorProfile {
+
+	FAST("tokenize,ssplit,mwt,pos,lemma,depparse,ner,natlog,openie", false),
+	BALANCED("tokenize,ssplit,mwt,pos,lemma,depparse,ner,kbp,natlog,openie", false),
+	FULL("tokenize,ssplit,mwt,pos,lemma,depparse,ner,kbp,coref,natlog,openie", true);
+
+	private final String annotators;
+	private final boolean coref;
+
+	AnnotatorProfile(String annotators, boolean coref) {
+		this.annotators = annotators;
+		this.coref = coref;
+	}
+
+	String annotators() {
+		return annotators;
+	}
+
+	boolean hasCoref() {
+		return coref;
+	}
+
+	/**
+	 * Nombre del perfil tal como se pide en la API ("fast", "balanced", "full").
+	 */
+	public String id() {
+		return name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Perfil con ese nombre, sin distinguir mayúsculas. IllegalArgumentException
+	 * si no existe.
+	 */
+	public static AnnotatorProfile parse(String name) {
+		for (AnnotatorProfile profile : values()) {
+			if (profile.name().equalsIgnoreCase(name.trim())) {
+				return profile;
+			}
+		}
+		throw new IllegalArgumentException("Perfil de anotadores desconocido: " + name + " (válidos: "
+				+ Arrays.stream(values()).map(AnnotatorProfile::id).collect(Collectors.joining(", ")) + ")");
+	}
+}
@@ -0,0 +1,92 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agrupa chunks consecutivos en lotes que se anotan juntos con una sola
+ * pipeline (ver KnowledgeGraphExtractor).
+ *
+ * Con documentos cortos (tweets, párrafos sueltos) cada chunk es poca cosa y
+ * anotarlo por separado cuesta sobre todo la tarea, el préstamo de la pipeline
+ * y la preparación de cada anotador. Un lote junta hasta maxChunks chunks
+ * seguidos, de uno o varios documentos, mientras la suma de sus caracteres no
+ * pase de maxChars; un chunk que por sí solo no cabe va en un lote propio, así
+ * que los chunks largos se anotan igual que antes.
+ *
+ * Cada chunk sigue siendo su propia Annotation dentro del lote: no se mezclan
+ * oraciones, coref ni triples de documentos distintos.
+ *
+ * Configuración: nlp.batch.max-chunks (1 = sin lotes), nlp.batch.max-chars y
+ * nlp.batch.threads (hilos de CoreNLP por lote).
+ */
+@Component
+class ChunkBatcher {
+
+	private final int maxChunks;
+	private final int maxChars;
+	private final int threads;
+
+	ChunkBatcher(@Value("${nlp.batch.max-chunks:16}") int maxChunks,
+			@Value("${nlp.batch.max-chars:2000}") int maxChars, @Value("${nlp.batch.threads:1}") int threads) {
+		if (maxChunks < 1) {
+			throw new IllegalArgumentException("nlp.batch.max-chunks debe ser al menos 1");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("nlp.batch.threads debe ser al menos 1");
+		}
+		this.maxChunks = maxChunks;
+		this.maxChars = maxChars;
+		this.threads = threads;
+	}
+
+	// Hilos con los que CoreNLP anota cada lote
+	int threads() {
+		return threads;
+	}
+
+	/**
+	 * Lotes de los elementos en su orden original, generados bajo demanda.
+	 *
+	 * @param length caracteres de cada elemento
+	 */
+	<T> Iterator<List<T>> batches(Iterator<T> items, ToIntFunction<T> length) {
+		return new Iterator<List<T>>() {
+			// Primer elemento del siguiente lote (el que no cupo en el anterior)
+			private T next;
+
+			@Override
+			public boolean hasNext() {
+				return next != null || items.hasNext();
+			}
+
+			@Override
+			public List<T> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				List<T> batch = new ArrayList<>();
+				T first = next != null ? next : items.next();
+				next = null;
+				batch.add(first);
+				int chars = length.applyAsInt(first);
+				while (batch.size() < maxChunks && items.hasNext()) {
+					T item = items.next();
+					int itemChars = length.applyAsInt(item);
+					if (chars + itemChars > maxChars) {
+						next = item;
+						break;
+					}
+					batch.add(item);
+					chars += itemChars;
+				}
+				return batch;
+			}
+		};
+	}
+}
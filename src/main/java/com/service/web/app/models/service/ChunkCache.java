@@ -0,0 +1,291 @@
+package com.service.web.app.models.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.service.web.app.models.entity.CacheStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caché de extracciones por chunk, direccionada por contenido.
+ *
+ * La clave es el SHA-256 de la configuración de la pipeline y del texto del
+ * chunk, así que un texto repetido con la misma configuración no vuelve a pasar
+ * por CoreNLP. Se guarda la ChunkExtraction (triples y menciones ya extraídos),
+ * nunca la Annotation.
+ *
+ * - Memoria: LRU acotada a nlp.cache.max-entries chunks (0 la desactiva).
+ * - Disco (opcional, nlp.cache.disk-dir): un fichero por clave. Sobrevive a los
+ * reinicios; lo que se lee de disco vuelve a la LRU. Acotado a
+ * nlp.cache.disk-max-entries ficheros: al pasarse, cada put borra los que más
+ * tiempo llevan sin escribirse ni leerse de disco (al arrancar, por fecha de
+ * modificación). Al leer solo se admiten
+ * las clases de ChunkExtraction, NodeInfo, ArrayList y String (DISK_FILTER):
+ * cualquier otra clase en un fichero del directorio se rechaza antes de
+ * instanciarla.
+ *
+ * Aciertos, fallos y tamaño se publican también como métricas (nlp.cache.*).
+ */
+@Component
+class ChunkCache implements AnnotationCache, MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(ChunkCache.class);
+
+	// Cambiar si cambia el formato de ChunkExtraction: invalida lo guardado en disco
+	private static final String FORMAT_VERSION = "2";
+
+	// Lista blanca de clases al deserializar, con límites de tamaño y profundidad.
+	// java.lang.Object solo casa con el Object[] que ArrayList valida al leerse
+	// (Object no es Serializable, no puede venir como objeto)
+	private static final ObjectInputFilter DISK_FILTER = ObjectInputFilter.Config.createFilter(
+			"maxdepth=20;maxrefs=1000000;maxbytes=67108864;maxarray=1000000;"
+					+ "com.service.web.app.models.service.ChunkExtraction;"
+					+ "com.service.web.app.models.service.ChunkExtraction$*;"
+					+ "com.service.web.app.models.service.NodeInfo;java.util.ArrayList;java.lang.String;"
+					+ "java.lang.Object;!*");
+
+	private final int maxEntries;
+	private final Path diskDir;
+	private final int diskMaxEntries;
+	private final Map<String, ChunkExtraction> memory;
+	// Claves con fichero en disco, de la menos a la más usada
+	private final LinkedHashMap<String, Boolean> diskKeys = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final LongAdder memoryHits = new LongAdder();
+	private final LongAdder diskHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	ChunkCache(@Value("${nlp.cache.max-entries:10000}") int maxEntries,
+			@Value("${nlp.cache.disk-dir:}") String diskDir,
+			@Value("${nlp.cache.disk-max-entries:100000}") int diskMaxEntries) {
+		if (diskMaxEntries < 1) {
+			throw new IllegalArgumentException("nlp.cache.disk-max-entries debe ser al menos 1");
+		}
+		this.maxEntries = maxEntries;
+		this.diskDir = diskDir == null || diskDir.isBlank() ? null : Paths.get(diskDir);
+		this.diskMaxEntries = diskMaxEntries;
+		this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ChunkExtraction> eldest) {
+				return size() > ChunkCache.this.maxEntries;
+			}
+		};
+		if (this.diskDir != null) {
+			try {
+				Files.createDirectories(this.diskDir);
+			} catch (IOException e) {
+				throw new IllegalStateException("No se pudo crear nlp.cache.disk-dir: " + diskDir, e);
+			}
+			loadDiskKeys();
+		}
+	}
+
+	/**
+	 * Extracción guardada para este texto y configuración, o null.
+	 */
+	ChunkExtraction get(String configuration, String text) {
+		if (!isEnabled())
+			return null;
+		String key = key(configuration, text);
+		ChunkExtraction cached;
+		synchronized (memory) {
+			cached = memory.get(key);
+		}
+		if (cached != null) {
+			memoryHits.increment();
+			return cached;
+		}
+		cached = readFromDisk(key);
+		if (cached != null) {
+			diskHits.increment();
+			synchronized (memory) {
+				memory.put(key, cached);
+			}
+			return cached;
+		}
+		misses.increment();
+		return null;
+	}
+
+	void put(String configuration, String text, ChunkExtraction extraction) {
+		if (!isEnabled())
+			return;
+		String key = key(configuration, text);
+		synchronized (memory) {
+			memory.put(key, extraction);
+		}
+		writeToDisk(key, extraction);
+	}
+
+	@Override
+	public CacheStats stats() {
+		int size;
+		synchronized (memory) {
+			size = memory.size();
+		}
+		return new CacheStats(memoryHits.sum(), diskHits.sum(), misses.sum(), size, maxEntries);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("nlp.cache.gets", memoryHits, LongAdder::sum).tag("result", "memory-hit")
+				.description("Consultas a la caché de chunks").register(registry);
+		FunctionCounter.builder("nlp.cache.gets", diskHits, LongAdder::sum).tag("result", "disk-hit")
+				.description("Consultas a la caché de chunks").register(registry);
+		FunctionCounter.builder("nlp.cache.gets", misses, LongAdder::sum).tag("result", "miss")
+				.description("Consultas a la caché de chunks").register(registry);
+		Gauge.builder("nlp.cache.size", this, cache -> cache.stats().getSize())
+				.description("Chunks en la caché de memoria").register(registry);
+		Gauge.builder("nlp.cache.disk.size", this, ChunkCache::diskSize)
+				.description("Chunks en la caché de disco").register(registry);
+	}
+
+	// Ficheros en la caché de disco
+	int diskSize() {
+		synchronized (diskKeys) {
+			return diskKeys.size();
+		}
+	}
+
+	private boolean isEnabled() {
+		return maxEntries > 0 || diskDir != null;
+	}
+
+	private ChunkExtraction readFromDisk(String key) {
+		if (diskDir == null)
+			return null;
+		synchronized (diskKeys) {
+			// Marca la clave como usada; sin clave no hay fichero
+			if (diskKeys.get(key) == null)
+				return null;
+		}
+		Path file = diskFile(key);
+		try (InputStream input = Files.newInputStream(file);
+				ObjectInputStream objects = new ObjectInputStream(input)) {
+			objects.setObjectInputFilter(DISK_FILTER);
+			return (ChunkExtraction) objects.readObject();
+		} catch (NoSuchFileException e) {
+			// Desalojado por otro hilo entre la consulta del índice y la lectura
+			return null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// Fichero corrupto o de otra versión: se trata como fallo de caché
+			log.warn("No se pudo leer la caché de disco {}: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeToDisk(String key, ChunkExtraction extraction) {
+		if (diskDir == null)
+			return;
+		Path file = diskFile(key);
+		try {
+			Files.createDirectories(file.getParent());
+			// Escribir en un temporal y renombrar: nunca se lee un fichero a medias
+			Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+			try (OutputStream output = Files.newOutputStream(tmp);
+					ObjectOutputStream objects = new ObjectOutputStream(output)) {
+				objects.writeObject(extraction);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("No se pudo escribir la caché de disco {}: {}", file, e.getMessage());
+			return;
+		}
+		List<String> evicted = new ArrayList<>();
+		synchronized (diskKeys) {
+			diskKeys.put(key, Boolean.TRUE);
+			Iterator<String> eldest = diskKeys.keySet().iterator();
+			while (diskKeys.size() > diskMaxEntries) {
+				evicted.add(eldest.next());
+				eldest.remove();
+			}
+		}
+		for (String evictedKey : evicted) {
+			try {
+				Files.deleteIfExists(diskFile(evictedKey));
+			} catch (IOException e) {
+				log.warn("No se pudo borrar la caché de disco {}: {}", diskFile(evictedKey), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Índice inicial del disco: los ficheros existentes, de más antiguo a más
+	 * reciente. Si ya hay más de nlp.cache.disk-max-entries, el primer put
+	 * borra los que sobran.
+	 */
+	private void loadDiskKeys() {
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(diskDir, 2)) {
+			files = walk.filter(file -> file.getFileName().toString().endsWith(".bin"))
+					.sorted(Comparator.comparing(ChunkCache::lastModified)).collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new IllegalStateException("No se pudo leer nlp.cache.disk-dir: " + diskDir, e);
+		}
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			diskKeys.put(name.substring(0, name.length() - ".bin".length()), Boolean.TRUE);
+		}
+		log.info("Caché de disco en {}: {} chunks", diskDir, diskKeys.size());
+	}
+
+	private static long lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private Path diskFile(String key) {
+		return diskDir.resolve(key.substring(0, 2)).resolve(key + ".bin");
+	}
+
+	private static String key(String configuration, String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(FORMAT_VERSION.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(64);
+			for (byte b : digest.digest()) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
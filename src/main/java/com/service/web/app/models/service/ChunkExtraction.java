@@ -0,0 +1,368 @@
+package com.service.web.app.models.service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado parcial de un chunk: las operaciones sobre el grafo que produjo su
+ * anotación, en el mismo orden en que las haría el recorrido secuencial.
+ *
+ * Se genera en paralelo (una por chunk) y no guarda la Annotation de CoreNLP.
+ * Las decisiones que dependen del grafo ya acumulado (si un nodo existe, a qué
+ * ID resuelve un span, entidades contenedoras, correferencias) no se toman al
+ * anotar sino al aplicar el chunk con {@link #applyTo}, que se llama en el
+ * orden original de los chunks. Así el grafo final es idéntico al secuencial.
+ *
+ * Es serializable para la caché de chunks en disco (ChunkCache) y no se
+ * modifica al aplicarse, así que una misma instancia se puede reutilizar.
+ */
+class ChunkExtraction implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<CorefGroup> corefGroups = new ArrayList<>();
+	private final List<List<Step>> sentences = new ArrayList<>();
+
+	void addCorefGroup(String representative, List<String> mentionIds) {
+		corefGroups.add(new CorefGroup(representative, mentionIds));
+	}
+
+	/**
+	 * Abre una nueva oración; los pasos siguientes comparten su mapa local
+	 * (IDs combinados por amod).
+	 */
+	void startSentence() {
+		sentences.add(new ArrayList<>());
+	}
+
+	void addStep(Step step) {
+		sentences.get(sentences.size() - 1).add(step);
+	}
+
+	/**
+	 * Reproduce el chunk sobre el grafo acumulado de la petición.
+	 */
+	void applyTo(KnowledgeGraph graph, String docId) {
+		for (CorefGroup group : corefGroups) {
+			graph.mergeCoreferences(group.representative, group.mentionIds);
+		}
+		for (List<Step> steps : sentences) {
+			// Mapa temporal para esta oración: ID original -> ID combinado (por amod)
+			Map<String, String> localWordIdToCombinedId = new HashMap<>();
+			for (Step step : steps) {
+				step.apply(graph, docId, localWordIdToCombinedId);
+			}
+		}
+	}
+
+	// --- Referencias a nodos resueltas contra el grafo al aplicar ---
+
+	/**
+	 * Span de tokens (sujeto u objeto de un triple). Equivale a
+	 * resolveSpanToNodeId: reutiliza el nodo del texto completo si ya existe, si
+	 * no crea el nodo descrito por info.
+	 */
+	static class SpanRef implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final String textId;
+		final NodeInfo info;
+
+		SpanRef(String textId, NodeInfo info) {
+			this.textId = textId;
+			this.info = info;
+		}
+
+		String resolve(KnowledgeGraph graph, String docId) {
+			if (graph.containsNode(textId)) {
+				graph.addDocumentId(textId, docId);
+				return textId;
+			}
+			if (info != null) {
+				graph.addNode(info.id, info.name, info.type, docId);
+				return info.id;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Palabra del grafo de dependencias. Equivale a resolveWordToNodeId: prueba el
+	 * texto, después el lema y si no existe ninguno crea el nodo de info.
+	 */
+	static class WordRef implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final String textId;
+		final String lemmaId;
+		final NodeInfo info;
+
+		WordRef(String textId, String lemmaId, NodeInfo info) {
+			this.textId = textId;
+			this.lemmaId = lemmaId;
+			this.info = info;
+		}
+
+		String resolve(KnowledgeGraph graph, String docId) {
+			if (graph.containsNode(textId)) {
+				graph.addDocumentId(textId, docId);
+				return textId;
+			}
+			if (graph.containsNode(lemmaId)) {
+				graph.addDocumentId(lemmaId, docId);
+				return lemmaId;
+			}
+			if (info != null) {
+				graph.addNode(info.id, info.name, info.type, docId);
+				return info.id;
+			}
+			return null;
+		}
+	}
+
+	private static String resolve(WordRef ref, KnowledgeGraph graph, String docId) {
+		return ref == null ? null : ref.resolve(graph, docId);
+	}
+
+	// --- Pasos ---
+
+	interface Step extends Serializable {
+		void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId);
+	}
+
+	private static class CorefGroup implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final String representative;
+		final List<String> mentionIds;
+
+		CorefGroup(String representative, List<String> mentionIds) {
+			this.representative = representative;
+			// ArrayList: la caché de disco solo admite esta lista (ver ChunkCache)
+			this.mentionIds = new ArrayList<>(mentionIds);
+		}
+	}
+
+	/** Nodo directo (menciones NER). */
+	static class AddNode implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final String id;
+		final String name;
+		final String type;
+
+		AddNode(String id, String name, String type) {
+			this.id = id;
+			this.name = name;
+			this.type = type;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			graph.addNode(id, name, type, docId);
+		}
+	}
+
+	/** Triple de KBP u OpenIE con la relación ya normalizada. */
+	static class SpanTriple implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final SpanRef subject;
+		final SpanRef object;
+		final String relation;
+
+		SpanTriple(SpanRef subject, SpanRef object, String relation) {
+			this.subject = subject;
+			this.object = object;
+			this.relation = relation;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			String subjOriginalId = subject.resolve(graph, docId);
+			String objOriginalId = object.resolve(graph, docId);
+			if (subjOriginalId == null || objOriginalId == null)
+				return;
+
+			String subjFinalId = localWordIdToCombinedId.getOrDefault(subjOriginalId, subjOriginalId);
+			String objFinalId = localWordIdToCombinedId.getOrDefault(objOriginalId, objOriginalId);
+			if (subjFinalId.equals(objFinalId))
+				return; // Evitar auto-referencias
+
+			graph.addEdge(subjFinalId, objFinalId, relation);
+		}
+	}
+
+	/** Combinación adjetivo + sustantivo (amod). */
+	static class AmodCombination implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final String combinedId;
+		final String combinedText;
+		final String type;
+		final String govId;
+		final String depId;
+
+		AmodCombination(String combinedId, String combinedText, String type, String govId, String depId) {
+			this.combinedId = combinedId;
+			this.combinedText = combinedText;
+			this.type = type;
+			this.govId = govId;
+			this.depId = depId;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			graph.addNode(combinedId, combinedText, type, docId); // Usar tipo del sustantivo
+			localWordIdToCombinedId.put(govId, combinedId);
+			localWordIdToCombinedId.put(depId, combinedId);
+		}
+	}
+
+	/** Arista entre dos palabras (SVO, NMOD, APPOS). */
+	static class WordRelation implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final WordRef source;
+		final WordRef target;
+		final String relation;
+
+		WordRelation(WordRef source, WordRef target, String relation) {
+			this.source = source;
+			this.target = target;
+			this.relation = relation;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			String sourceOriginalId = resolve(source, graph, docId);
+			String targetOriginalId = resolve(target, graph, docId);
+			if (sourceOriginalId == null || targetOriginalId == null)
+				return;
+
+			String sourceFinalId = localWordIdToCombinedId.getOrDefault(sourceOriginalId, sourceOriginalId);
+			String targetFinalId = localWordIdToCombinedId.getOrDefault(targetOriginalId, targetOriginalId);
+			if (!sourceFinalId.equals(targetFinalId)) {
+				graph.addEdge(sourceFinalId, targetFinalId, relation);
+			}
+		}
+	}
+
+	/** Cópula + complemento, con sus complementos oblicuos. */
+	static class CopulaRelation implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final WordRef subject;
+		final WordRef complement;
+		final String baseRelation;
+		final List<WordRef> obliques = new ArrayList<>();
+		final List<String> obliqueRelations = new ArrayList<>();
+
+		CopulaRelation(WordRef subject, WordRef complement, String baseRelation) {
+			this.subject = subject;
+			this.complement = complement;
+			this.baseRelation = baseRelation;
+		}
+
+		void addOblique(WordRef oblique, String relation) {
+			obliques.add(oblique);
+			obliqueRelations.add(relation);
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			String subjOriginalId = resolve(subject, graph, docId);
+			String complementOriginalId = resolve(complement, graph, docId);
+			if (subjOriginalId == null || complementOriginalId == null)
+				return;
+
+			String subjFinalId = localWordIdToCombinedId.getOrDefault(subjOriginalId, subjOriginalId);
+			String complementFinalId = localWordIdToCombinedId.getOrDefault(complementOriginalId, complementOriginalId);
+			graph.addEdge(subjFinalId, complementFinalId, baseRelation);
+
+			for (int i = 0; i < obliques.size(); i++) {
+				String oblOriginalId = resolve(obliques.get(i), graph, docId);
+				if (oblOriginalId == null)
+					continue;
+				String oblFinalId = localWordIdToCombinedId.getOrDefault(oblOriginalId, oblOriginalId);
+				if (subjFinalId.equals(oblFinalId))
+					continue; // Evitar auto-relación
+				graph.addEdge(subjFinalId, oblFinalId, obliqueRelations.get(i));
+			}
+		}
+	}
+
+	/** Cláusula relativa (acl:relcl) en sus dos direcciones. */
+	static class RelativeClauseRelation implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final WordRef modifiedEntity;
+		final String relativeVerbLemma;
+		// Caso 1: la entidad es sujeto del verbo relativo
+		final List<WordRef> relObjects = new ArrayList<>();
+		// Caso 2: la entidad es objeto del verbo relativo
+		final List<WordRef> relSubjects = new ArrayList<>();
+
+		RelativeClauseRelation(WordRef modifiedEntity, String relativeVerbLemma) {
+			this.modifiedEntity = modifiedEntity;
+			this.relativeVerbLemma = relativeVerbLemma;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			String modifiedEntityOriginalId = resolve(modifiedEntity, graph, docId);
+			if (modifiedEntityOriginalId == null)
+				return;
+			String modifiedEntityFinalId = localWordIdToCombinedId.getOrDefault(modifiedEntityOriginalId,
+					modifiedEntityOriginalId);
+			if (relativeVerbLemma == null || relativeVerbLemma.isBlank())
+				return;
+
+			for (WordRef relObjWord : relObjects) {
+				String relObjOriginalId = resolve(relObjWord, graph, docId);
+				if (relObjOriginalId == null)
+					continue;
+				String relObjFinalId = localWordIdToCombinedId.getOrDefault(relObjOriginalId, relObjOriginalId);
+				if (!modifiedEntityFinalId.equals(relObjFinalId)) {
+					graph.addEdge(modifiedEntityFinalId, relObjFinalId, relativeVerbLemma);
+				}
+			}
+			for (WordRef relSubjWord : relSubjects) {
+				String relSubjOriginalId = resolve(relSubjWord, graph, docId);
+				if (relSubjOriginalId == null)
+					continue;
+				String relSubjFinalId = localWordIdToCombinedId.getOrDefault(relSubjOriginalId, relSubjOriginalId);
+				if (!relSubjFinalId.equals(modifiedEntityFinalId)) {
+					graph.addEdge(modifiedEntityFinalId, relSubjFinalId, "es " + relativeVerbLemma + " por");
+				}
+			}
+		}
+	}
+
+	/** Concepto (sustantivo sin NER) que solo se añade si aún no existe. */
+	static class ConceptFallback implements Step {
+		private static final long serialVersionUID = 1L;
+
+		final String conceptId;
+		final String normalizedTextId;
+		final String conceptText;
+
+		ConceptFallback(String conceptId, String normalizedTextId, String conceptText) {
+			this.conceptId = conceptId;
+			this.normalizedTextId = normalizedTextId;
+			this.conceptText = conceptText;
+		}
+
+		@Override
+		public void apply(KnowledgeGraph graph, String docId, Map<String, String> localWordIdToCombinedId) {
+			if (conceptId != null && !conceptId.isBlank() && !graph.containsNode(conceptId)) {
+				if (normalizedTextId == null || !graph.containsNode(normalizedTextId)) {
+					graph.addNode(conceptId, conceptText, "Concepto", docId);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,337 @@
+package com.service.web.app.models.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Respuesta JSON del servidor CoreNLP leída en una sola pasada con el parser
+ * en streaming de Jackson, sin construir el árbol de Map/List.
+ *
+ * Solo se guardan los campos que usa GraphExtractorService, en columnas por
+ * oración: tokens por posición (índice del token - 1), dependencias
+ * enhancedPlusPlus, menciones de entidades y triples de OpenIE y KBP. El resto
+ * de campos se salta sin decodificarlo.
+ */
+final class CoreNlpDocument {
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final List<Sentence> sentences = new ArrayList<>();
+
+	private CoreNlpDocument() {
+	}
+
+	List<Sentence> sentences() {
+		return sentences;
+	}
+
+	static CoreNlpDocument parse(byte[] json) throws IOException {
+		try (JsonParser parser = JSON.createParser(json)) {
+			CoreNlpDocument document = new CoreNlpDocument();
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				JsonToken value = parser.nextToken();
+				if ("sentences".equals(field) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						document.sentences.add(Sentence.parse(parser));
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return document;
+		}
+	}
+
+	/**
+	 * Una oración. Los tokens se consultan por posición (0..tokenCount-1) o por
+	 * índice de CoreNLP (1..tokenCount, 0 = ROOT) en las dependencias.
+	 */
+	static final class Sentence {
+
+		// Tokens por posición
+		private final List<String> words = new ArrayList<>();
+		private final List<String> lemmas = new ArrayList<>();
+		private final List<String> tags = new ArrayList<>();
+		private final List<String> ners = new ArrayList<>();
+		// Primer lema de cada palabra (obtenerLemmaDeTexto)
+		private final Map<String, String> lemmaByWord = new HashMap<>();
+
+		// Dependencias enhancedPlusPlus, en el orden de la respuesta
+		private final List<String> dependencyTypes = new ArrayList<>();
+		private final IntList governors = new IntList();
+		private final IntList dependents = new IntList();
+		private final List<String> governorGlosses = new ArrayList<>();
+		private final List<String> dependentGlosses = new ArrayList<>();
+
+		// Menciones: texto y tipo NER
+		private final List<String> mentionTexts = new ArrayList<>();
+		private final List<String> mentionTypes = new ArrayList<>();
+		// Triples (sujeto, relación, objeto) consecutivos
+		private final List<String> openie = new ArrayList<>();
+		private final List<String> kbp = new ArrayList<>();
+
+		private Sentence() {
+		}
+
+		int tokenCount() {
+			return words.size();
+		}
+
+		String word(int position) {
+			return words.get(position);
+		}
+
+		String lemma(int position) {
+			return lemmas.get(position);
+		}
+
+		String pos(int position) {
+			return tags.get(position);
+		}
+
+		String ner(int position) {
+			return ners.get(position);
+		}
+
+		/**
+		 * POS del token con ese índice de CoreNLP (null para ROOT o fuera de rango).
+		 */
+		String posOfIndex(int index) {
+			return index >= 1 && index <= tags.size() ? tags.get(index - 1) : null;
+		}
+
+		String wordOfIndex(int index) {
+			return index >= 1 && index <= words.size() ? words.get(index - 1) : null;
+		}
+
+		/**
+		 * Lema del primer token cuya palabra es exactamente el texto, o el propio
+		 * texto si no hay ninguno.
+		 */
+		String lemmaOf(String text) {
+			return lemmaByWord.getOrDefault(text, text);
+		}
+
+		int dependencyCount() {
+			return dependencyTypes.size();
+		}
+
+		String dependencyType(int dependency) {
+			return dependencyTypes.get(dependency);
+		}
+
+		int governor(int dependency) {
+			return governors.get(dependency);
+		}
+
+		int dependent(int dependency) {
+			return dependents.get(dependency);
+		}
+
+		String governorGloss(int dependency) {
+			return governorGlosses.get(dependency);
+		}
+
+		String dependentGloss(int dependency) {
+			return dependentGlosses.get(dependency);
+		}
+
+		int mentionCount() {
+			return mentionTexts.size();
+		}
+
+		String mentionText(int mention) {
+			return mentionTexts.get(mention);
+		}
+
+		String mentionType(int mention) {
+			return mentionTypes.get(mention);
+		}
+
+		int openieCount() {
+			return openie.size() / 3;
+		}
+
+		String openieSubject(int triple) {
+			return openie.get(triple * 3);
+		}
+
+		String openieRelation(int triple) {
+			return openie.get(triple * 3 + 1);
+		}
+
+		String openieObject(int triple) {
+			return openie.get(triple * 3 + 2);
+		}
+
+		int kbpCount() {
+			return kbp.size() / 3;
+		}
+
+		String kbpSubject(int triple) {
+			return kbp.get(triple * 3);
+		}
+
+		String kbpRelation(int triple) {
+			return kbp.get(triple * 3 + 1);
+		}
+
+		String kbpObject(int triple) {
+			return kbp.get(triple * 3 + 2);
+		}
+
+		// El parser está en el START_OBJECT de la oración
+		private static Sentence parse(JsonParser parser) throws IOException {
+			Sentence sentence = new Sentence();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				JsonToken value = parser.nextToken();
+				if (value != JsonToken.START_ARRAY) {
+					parser.skipChildren();
+					continue;
+				}
+				switch (field) {
+				case "tokens":
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						sentence.parseToken(parser);
+					break;
+				case "enhancedPlusPlusDependencies":
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						sentence.parseDependency(parser);
+					break;
+				case "entitymentions":
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						sentence.parseMention(parser);
+					break;
+				case "openie":
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						parseTriple(parser, sentence.openie);
+					break;
+				case "kbp":
+					while (parser.nextToken() == JsonToken.START_OBJECT)
+						parseTriple(parser, sentence.kbp);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			for (int position = 0; position < sentence.words.size(); position++) {
+				String word = sentence.words.get(position);
+				if (word != null)
+					sentence.lemmaByWord.putIfAbsent(word, sentence.lemmas.get(position));
+			}
+			return sentence;
+		}
+
+		private void parseToken(JsonParser parser) throws IOException {
+			String word = null, lemma = null, pos = null, ner = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				switch (field) {
+				case "word":
+					word = parser.getValueAsString();
+					break;
+				case "lemma":
+					lemma = parser.getValueAsString();
+					break;
+				case "pos":
+					pos = parser.getValueAsString();
+					break;
+				case "ner":
+					ner = parser.getValueAsString();
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			words.add(word);
+			lemmas.add(lemma);
+			tags.add(pos);
+			ners.add(ner);
+		}
+
+		private void parseDependency(JsonParser parser) throws IOException {
+			String type = null, governorGloss = null, dependentGloss = null;
+			int governor = -1, dependent = -1;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				switch (field) {
+				case "dep":
+					type = parser.getValueAsString();
+					break;
+				case "governor":
+					governor = parser.getValueAsInt(-1);
+					break;
+				case "governorGloss":
+					governorGloss = parser.getValueAsString();
+					break;
+				case "dependent":
+					dependent = parser.getValueAsInt(-1);
+					break;
+				case "dependentGloss":
+					dependentGloss = parser.getValueAsString();
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			dependencyTypes.add(type);
+			governors.add(governor);
+			dependents.add(dependent);
+			governorGlosses.add(governorGloss);
+			dependentGlosses.add(dependentGloss);
+		}
+
+		private void parseMention(JsonParser parser) throws IOException {
+			String text = null, ner = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				if ("text".equals(field))
+					text = parser.getValueAsString();
+				else if ("ner".equals(field))
+					ner = parser.getValueAsString();
+				else
+					parser.skipChildren();
+			}
+			mentionTexts.add(text);
+			mentionTypes.add(ner);
+		}
+
+		private static void parseTriple(JsonParser parser, List<String> triples) throws IOException {
+			String subject = null, relation = null, object = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				if ("subject".equals(field))
+					subject = parser.getValueAsString();
+				else if ("relation".equals(field))
+					relation = parser.getValueAsString();
+				else if ("object".equals(field))
+					object = parser.getValueAsString();
+				else
+					parser.skipChildren();
+			}
+			triples.add(subject);
+			triples.add(relation);
+			triples.add(object);
+		}
+	}
+
+	private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+		if (actual != expected) {
+			throw new IOException("Respuesta de CoreNLP inesperada: " + actual + " en lugar de " + expected);
+		}
+	}
+}
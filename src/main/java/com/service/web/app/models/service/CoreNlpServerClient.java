@@ -0,0 +1,115 @@
+package com.service.web.app.models.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cliente de uno o varios servidores CoreNLP (StanfordCoreNLPServer).
+ *
+ * Un único HttpClient de la JDK para todas las peticiones: mantiene las
+ * conexiones abiertas (keep-alive) en lugar de abrir una por chunk. Cada
+ * intento va al siguiente servidor de la lista (round-robin), así que un
+ * reintento cae en otro servidor. Las propiedades se codifican en la URL una
+ * sola vez, al construir el cliente.
+ *
+ * Se reintentan los errores de red, los timeouts y las respuestas 5xx (el
+ * servidor responde 503 con la cola llena), con espera exponencial; un 4xx
+ * falla sin reintentar. Cuántas peticiones hay en vuelo lo decide quien llama
+ * (maxInFlight, ver GraphExtractorService).
+ */
+final class CoreNlpServerClient {
+
+	private static final Logger log = LoggerFactory.getLogger(CoreNlpServerClient.class);
+
+	private static final long BACKOFF_MS = 100;
+
+	private final HttpClient http;
+	private final List<String> servers = new ArrayList<>();
+	private final List<URI> endpoints = new ArrayList<>();
+	private final AtomicInteger nextServer = new AtomicInteger();
+	private final int maxInFlight;
+	private final Duration timeout;
+	private final int maxRetries;
+
+	/**
+	 * @param serverUrls  servidores, p. ej. http://localhost:9000
+	 * @param properties  propiedades de CoreNLP en JSON (anotadores, modelos...)
+	 * @param maxInFlight chunks que se envían a la vez
+	 * @param timeout     de conexión y de cada intento
+	 * @param maxRetries  reintentos por chunk (0 = ninguno)
+	 */
+	CoreNlpServerClient(List<String> serverUrls, String properties, int maxInFlight, Duration timeout,
+			int maxRetries) {
+		if (serverUrls.isEmpty()) {
+			throw new IllegalArgumentException("Hace falta al menos un servidor CoreNLP");
+		}
+		String encoded = URLEncoder.encode(properties, StandardCharsets.UTF_8);
+		for (String url : serverUrls) {
+			String server = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+			servers.add(server);
+			endpoints.add(URI.create(server + "/?properties=" + encoded));
+		}
+		this.maxInFlight = Math.max(1, maxInFlight);
+		this.timeout = timeout;
+		this.maxRetries = Math.max(0, maxRetries);
+		this.http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(timeout).build();
+	}
+
+	int maxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Anota el texto en algún servidor y devuelve el JSON de la respuesta (UTF-8,
+	 * sin decodificar: ver CoreNlpDocument). Si fallan todos los intentos, el
+	 * futuro termina con una IOException.
+	 */
+	CompletableFuture<byte[]> annotate(String text) {
+		return attempt(text, 0);
+	}
+
+	private CompletableFuture<byte[]> attempt(String text, int attempt) {
+		int server = Math.floorMod(nextServer.getAndIncrement(), endpoints.size());
+		HttpRequest request = HttpRequest.newBuilder(endpoints.get(server)).timeout(timeout)
+				.header("Content-Type", "text/plain; charset=UTF-8")
+				.POST(HttpRequest.BodyPublishers.ofString(text, StandardCharsets.UTF_8)).build();
+		return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+				.handle((response, error) -> {
+					if (error == null && response.statusCode() / 100 == 2)
+						return CompletableFuture.completedFuture(response.body());
+					Throwable cause = error instanceof CompletionException && error.getCause() != null
+							? error.getCause()
+							: error;
+					String reason = cause != null ? cause.toString() : "HTTP " + response.statusCode();
+					boolean retryable = cause != null || response.statusCode() >= 500;
+					if (!retryable || attempt >= maxRetries) {
+						return CompletableFuture.<byte[]>failedFuture(new IOException(
+								"CoreNLP en " + servers.get(server) + " falló tras " + (attempt + 1)
+										+ " intentos: " + reason,
+								cause));
+					}
+					log.warn("CoreNLP en {}: {}; reintento {} de {}", servers.get(server), reason, attempt + 1,
+							maxRetries);
+					return CompletableFuture
+							.runAsync(() -> {
+							}, CompletableFuture.delayedExecutor(BACKOFF_MS << attempt, TimeUnit.MILLISECONDS))
+							.thenCompose(ignored -> attempt(text, attempt + 1));
+				}).thenCompose(Function.identity());
+	}
+}
@@ -0,0 +1,419 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Grafo de un corpus que crece documento a documento (ver CorpusService).
+ *
+ * Cada documento aporta su propio grafo tal como queda tras aplicar sus
+ * chunks (con sus correferencias ya fusionadas), pero sin importancia,
+ * limpieza ni fusión de relaciones. El corpus es la suma de esas aportaciones:
+ * - frecuencia de un nodo: suma de sus frecuencias en cada documento;
+ * - documentos: los que lo aportan;
+ * - tipo y nombre: se combinan en orden de llegada, como en addNode (NER antes
+ *   que Concepto, el nombre más largo);
+ * - relaciones de un par (origen, destino): todas las de los documentos,
+ *   unidas con '|' como en mergeSimilarRelations.
+ *
+ * Importancia (log1p de la frecuencia) y limpieza (se ocultan los nodos sin
+ * aristas con frecuencia < 2) dependen solo del propio nodo, así que añadir o
+ * quitar un documento cuesta lo que sus nodos y aristas, no lo que el corpus.
+ * A diferencia de una extracción por lotes, la contención de entidades y las
+ * correferencias no cruzan documentos: por eso cada aportación se puede quitar
+ * sin rehacer las demás.
+ *
+ * Para las consultas (top por importancia, vecindario, por tipo, por relación
+ * o por documento) se mantienen índices secundarios que se actualizan en cada
+ * alta o baja, de modo que ninguna recorre el corpus entero.
+ *
+ * No es thread-safe: CorpusService serializa las modificaciones.
+ */
+class CorpusGraph {
+
+	// Nodos y aristas que aportó cada documento, para poder restarlos
+	private final Map<String, DocumentGraph> documents = new LinkedHashMap<>();
+	// Nodos (y extremos de aristas) por ID, en orden de creación
+	private final Map<String, CorpusNode> nodes = new LinkedHashMap<>();
+	// Par (origen, destino) -> relación -> número de documentos que la aportan
+	private final Map<NodePair, Map<String, Integer>> relations = new LinkedHashMap<>();
+	private int visibleNodes;
+
+	// Índices secundarios de los nodos visibles: por importancia (frecuencia)
+	// descendente y por tipo NER
+	private final NavigableSet<CorpusNode> byImportance = new TreeSet<>(
+			Comparator.comparingInt((CorpusNode node) -> node.frequency).reversed().thenComparing(node -> node.id));
+	private final Map<String, Set<CorpusNode>> byType = new HashMap<>();
+	// Relación (sin fusionar) -> pares que la tienen
+	private final Map<String, Set<NodePair>> byRelation = new HashMap<>();
+
+	boolean containsDocument(String documentId) {
+		return documents.containsKey(documentId);
+	}
+
+	/**
+	 * Suma al corpus el grafo de un documento (sin post-procesar). Si el documento
+	 * ya estaba, su aportación anterior se sustituye.
+	 */
+	void addDocument(String documentId, GraphResult documentGraph) {
+		removeDocument(documentId);
+		List<Node> documentNodes = documentGraph.getNodes();
+		List<Edge> documentEdges = documentGraph.getEdges();
+		DocumentGraph contribution = new DocumentGraph(documentNodes.size(), documentEdges.size());
+		for (Node node : documentNodes) {
+			CorpusNode corpusNode = node(node.getId());
+			if (corpusNode.contributions.isEmpty()) {
+				// Nodo nuevo (o solo extremo hasta ahora): pasa al final del orden
+				nodes.remove(corpusNode.id);
+				nodes.put(corpusNode.id, corpusNode);
+			}
+			boolean wasVisible = unindex(corpusNode);
+			NodeContribution added = new NodeContribution(node.getName(), node.getType(), node.getFrequency());
+			corpusNode.contributions.put(documentId, added);
+			corpusNode.frequency += added.frequency;
+			corpusNode.combine(added);
+			reindex(corpusNode, wasVisible);
+			contribution.nodeIds.add(node.getId());
+		}
+		for (Edge edge : documentEdges) {
+			NodePair pair = new NodePair(edge.getSource(), edge.getTarget());
+			Map<String, Integer> pairRelations = relations.get(pair);
+			if (pairRelations == null) {
+				pairRelations = new LinkedHashMap<>(2);
+				relations.put(pair, pairRelations);
+				link(pair.source, pair);
+				link(pair.target, pair);
+			}
+			if (pairRelations.merge(edge.getRelationship(), 1, Integer::sum) == 1)
+				byRelation.computeIfAbsent(edge.getRelationship(), r -> new LinkedHashSet<>()).add(pair);
+			contribution.edges.add(edge);
+		}
+		documents.put(documentId, contribution);
+	}
+
+	/**
+	 * Resta del corpus la aportación del documento. Devuelve false si no estaba.
+	 */
+	boolean removeDocument(String documentId) {
+		DocumentGraph contribution = documents.remove(documentId);
+		if (contribution == null)
+			return false;
+		for (Edge edge : contribution.edges) {
+			NodePair pair = new NodePair(edge.getSource(), edge.getTarget());
+			Map<String, Integer> pairRelations = relations.get(pair);
+			if (pairRelations.merge(edge.getRelationship(), -1, Integer::sum) == 0) {
+				pairRelations.remove(edge.getRelationship());
+				removeFromIndex(byRelation, edge.getRelationship(), pair);
+			}
+			if (pairRelations.isEmpty()) {
+				relations.remove(pair);
+				unlink(pair.source, pair);
+				unlink(pair.target, pair);
+			}
+		}
+		for (String id : contribution.nodeIds) {
+			CorpusNode corpusNode = nodes.get(id);
+			boolean wasVisible = unindex(corpusNode);
+			NodeContribution removed = corpusNode.contributions.remove(documentId);
+			corpusNode.frequency -= removed.frequency;
+			// Tipo y nombre se recalculan con lo que aportan los demás documentos
+			corpusNode.name = null;
+			corpusNode.type = null;
+			corpusNode.contributions.values().forEach(corpusNode::combine);
+			reindex(corpusNode, wasVisible);
+			discardIfUnused(corpusNode);
+		}
+		return true;
+	}
+
+	/**
+	 * Aportación de cada documento, en orden de llegada, tal como se recibió en
+	 * addDocument (para reescribirla compactada en el CorpusStore).
+	 */
+	void forEachDocument(BiConsumer<String, GraphResult> action) {
+		documents.forEach((documentId, contribution) -> {
+			List<Node> documentNodes = new ArrayList<>(contribution.nodeIds.size());
+			for (String id : contribution.nodeIds) {
+				NodeContribution node = nodes.get(id).contributions.get(documentId);
+				Node copy = new Node(id, node.name, node.type, documentId);
+				copy.setFrequency(node.frequency);
+				documentNodes.add(copy);
+			}
+			action.accept(documentId, new GraphResult(documentNodes, contribution.edges));
+		});
+	}
+
+	int documentCount() {
+		return documents.size();
+	}
+
+	// Nodos que aparecen en el grafo (los que sobreviven a la limpieza)
+	int nodeCount() {
+		return visibleNodes;
+	}
+
+	// Aristas del grafo: una por par (origen, destino) con las relaciones fusionadas
+	int edgeCount() {
+		return relations.size();
+	}
+
+	/**
+	 * Grafo del corpus con importancia, limpieza y fusión de relaciones aplicadas.
+	 */
+	GraphResult toGraphResult() {
+		List<Node> nodeList = new ArrayList<>(visibleNodes);
+		for (CorpusNode corpusNode : nodes.values()) {
+			if (corpusNode.isVisible())
+				nodeList.add(corpusNode.toNode());
+		}
+		List<Edge> edgeList = new ArrayList<>(relations.size());
+		relations.forEach((pair, pairRelations) -> edgeList
+				.add(new Edge(pair.source, pair.target, String.join("|", pairRelations.keySet()))));
+		return new GraphResult(nodeList, edgeList);
+	}
+
+	/**
+	 * Los k nodos de mayor importancia (a igual importancia, por ID).
+	 */
+	List<Node> topNodes(int k) {
+		List<Node> top = new ArrayList<>(Math.min(k, visibleNodes));
+		for (CorpusNode corpusNode : byImportance) {
+			if (top.size() >= k)
+				break;
+			top.add(corpusNode.toNode());
+		}
+		return top;
+	}
+
+	/**
+	 * Nodos a como mucho 'hops' aristas del nodo (en cualquier sentido), hasta
+	 * maxNodes, con las aristas entre ellos. null si el nodo no está en el grafo.
+	 */
+	GraphResult neighbourhood(String id, int hops, int maxNodes) {
+		CorpusNode start = nodes.get(id);
+		if (start == null || !start.isVisible())
+			return null;
+		Set<CorpusNode> reached = new LinkedHashSet<>();
+		reached.add(start);
+		List<CorpusNode> frontier = List.of(start);
+		for (int hop = 0; hop < hops && !frontier.isEmpty() && reached.size() < maxNodes; hop++) {
+			List<CorpusNode> next = new ArrayList<>();
+			for (CorpusNode corpusNode : frontier) {
+				for (NodePair pair : corpusNode.pairs) {
+					CorpusNode other = nodes.get(pair.source.equals(corpusNode.id) ? pair.target : pair.source);
+					if (reached.size() < maxNodes && reached.add(other))
+						next.add(other);
+				}
+			}
+			frontier = next;
+		}
+		List<Node> nodeList = new ArrayList<>(reached.size());
+		Set<NodePair> pairs = new LinkedHashSet<>();
+		for (CorpusNode corpusNode : reached) {
+			// Los extremos que no son nodos (sin aportaciones) solo salen en las aristas
+			if (corpusNode.isVisible())
+				nodeList.add(corpusNode.toNode());
+			for (NodePair pair : corpusNode.pairs) {
+				if (reached.contains(nodes.get(pair.source)) && reached.contains(nodes.get(pair.target)))
+					pairs.add(pair);
+			}
+		}
+		return new GraphResult(nodeList, toEdges(pairs, Integer.MAX_VALUE));
+	}
+
+	List<Node> nodesByType(String type, int limit) {
+		List<Node> result = new ArrayList<>();
+		for (CorpusNode corpusNode : byType.getOrDefault(type, Set.of())) {
+			if (result.size() >= limit)
+				break;
+			result.add(corpusNode.toNode());
+		}
+		return result;
+	}
+
+	/**
+	 * Aristas (con las relaciones ya fusionadas) entre cuyas relaciones está esta.
+	 */
+	List<Edge> edgesByRelationship(String relationship, int limit) {
+		return toEdges(byRelation.getOrDefault(relationship, Set.of()), limit);
+	}
+
+	/**
+	 * Aristas que aporta el documento, o null si no está en el corpus.
+	 */
+	List<Edge> edgesByDocument(String documentId, int limit) {
+		DocumentGraph contribution = documents.get(documentId);
+		if (contribution == null)
+			return null;
+		Set<NodePair> pairs = new LinkedHashSet<>();
+		for (Edge edge : contribution.edges)
+			pairs.add(new NodePair(edge.getSource(), edge.getTarget()));
+		return toEdges(pairs, limit);
+	}
+
+	private List<Edge> toEdges(Collection<NodePair> pairs, int limit) {
+		List<Edge> edgeList = new ArrayList<>(Math.min(pairs.size(), limit));
+		for (NodePair pair : pairs) {
+			if (edgeList.size() >= limit)
+				break;
+			edgeList.add(new Edge(pair.source, pair.target, String.join("|", relations.get(pair).keySet())));
+		}
+		return edgeList;
+	}
+
+	private CorpusNode node(String id) {
+		return nodes.computeIfAbsent(id, CorpusNode::new);
+	}
+
+	private void link(String id, NodePair pair) {
+		CorpusNode corpusNode = node(id);
+		boolean wasVisible = unindex(corpusNode);
+		corpusNode.pairs.add(pair);
+		reindex(corpusNode, wasVisible);
+	}
+
+	private void unlink(String id, NodePair pair) {
+		CorpusNode corpusNode = nodes.get(id);
+		boolean wasVisible = unindex(corpusNode);
+		corpusNode.pairs.remove(pair);
+		reindex(corpusNode, wasVisible);
+		discardIfUnused(corpusNode);
+	}
+
+	// Saca el nodo de los índices antes de cambiar su frecuencia, tipo o aristas
+	// (el orden del TreeSet depende de la frecuencia). Devuelve si era visible.
+	private boolean unindex(CorpusNode corpusNode) {
+		if (!corpusNode.isVisible())
+			return false;
+		byImportance.remove(corpusNode);
+		removeFromIndex(byType, corpusNode.type, corpusNode);
+		return true;
+	}
+
+	private void reindex(CorpusNode corpusNode, boolean wasVisible) {
+		boolean visible = corpusNode.isVisible();
+		if (visible) {
+			byImportance.add(corpusNode);
+			byType.computeIfAbsent(corpusNode.type, t -> new LinkedHashSet<>()).add(corpusNode);
+		}
+		if (visible != wasVisible)
+			visibleNodes += visible ? 1 : -1;
+	}
+
+	private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+		Set<V> values = index.get(key);
+		if (values != null && values.remove(value) && values.isEmpty())
+			index.remove(key);
+	}
+
+	private void discardIfUnused(CorpusNode corpusNode) {
+		if (corpusNode.pairs.isEmpty() && corpusNode.contributions.isEmpty())
+			nodes.remove(corpusNode.id);
+	}
+
+	// Lo que aportó un documento: IDs de sus nodos y sus aristas
+	private static class DocumentGraph {
+		final List<String> nodeIds;
+		final List<Edge> edges;
+
+		DocumentGraph(int nodes, int edges) {
+			this.nodeIds = new ArrayList<>(nodes);
+			this.edges = new ArrayList<>(edges);
+		}
+	}
+
+	// Nombre, tipo y frecuencia de un nodo en un documento
+	private static class NodeContribution {
+		final String name;
+		final String type;
+		final int frequency;
+
+		NodeContribution(String name, String type, int frequency) {
+			this.name = name;
+			this.type = type;
+			this.frequency = frequency;
+		}
+	}
+
+	private static class CorpusNode {
+		final String id;
+		// Documento -> su aportación, en orden de llegada
+		final Map<String, NodeContribution> contributions = new LinkedHashMap<>(2);
+		String name;
+		String type;
+		int frequency;
+		// Pares (origen, destino) en los que participa
+		final Set<NodePair> pairs = new LinkedHashSet<>(4);
+
+		CorpusNode(String id) {
+			this.id = id;
+		}
+
+		// Mismos criterios que KnowledgeGraph.addNode: NER sobre Concepto y el
+		// nombre más largo
+		void combine(NodeContribution contribution) {
+			if (type == null || "Concepto".equals(type) && contribution.type != null
+					&& !"Concepto".equals(contribution.type)) {
+				type = contribution.type;
+			}
+			if (name == null || contribution.name != null && contribution.name.length() > name.length()) {
+				name = contribution.name;
+			}
+		}
+
+		// Igual que cleanIsolatedNodes: fuera los nodos sin aristas y frecuencia < 2
+		boolean isVisible() {
+			return !contributions.isEmpty() && (!pairs.isEmpty() || frequency >= 2);
+		}
+
+		Node toNode() {
+			Iterator<String> documentIds = contributions.keySet().iterator();
+			Node node = new Node(id, name, type, documentIds.next());
+			documentIds.forEachRemaining(node::addDocumentId);
+			node.setFrequency(frequency);
+			node.setImportance(Math.log1p(frequency));
+			return node;
+		}
+	}
+
+	private static final class NodePair {
+		final String source;
+		final String target;
+
+		NodePair(String source, String target) {
+			this.source = source;
+			this.target = target;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof NodePair))
+				return false;
+			NodePair other = (NodePair) o;
+			return source.equals(other.source) && target.equals(other.target);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(source, target);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+
+import com.service.web.app.models.entity.CorpusStats;
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+public interface CorpusService {
+	/**
+	 * Extrae cada documento y lo suma al grafo del corpus (sustituyendo su versión
+	 * anterior si ya estaba). profile null = perfil por defecto.
+	 */
+	public CorpusStats addDocuments(List<Discurs> documents, AnnotatorProfile profile);
+
+	/**
+	 * Quita del grafo del corpus lo que aportó el documento. false si no estaba.
+	 */
+	public boolean removeDocument(String documentId);
+
+	/**
+	 * Grafo actual del corpus, con importancia, limpieza y relaciones fusionadas.
+	 */
+	public GraphResult graph();
+
+	public CorpusStats stats();
+
+	/**
+	 * Los k nodos más importantes del corpus.
+	 */
+	public List<Node> topNodes(int k);
+
+	/**
+	 * Nodos a como mucho 'hops' saltos del nodo (hasta maxNodes) y las aristas
+	 * entre ellos. null si el nodo no está en el corpus.
+	 */
+	public GraphResult neighbourhood(String nodeId, int hops, int maxNodes);
+
+	public List<Node> nodesByType(String type, int limit);
+
+	public List<Edge> edgesByRelationship(String relationship, int limit);
+
+	/**
+	 * Aristas que aporta el documento. null si no está en el corpus.
+	 */
+	public List<Edge> edgesByDocument(String documentId, int limit);
+}
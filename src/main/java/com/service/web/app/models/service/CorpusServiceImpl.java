@@ -0,0 +1,137 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.service.web.app.models.entity.CorpusStats;
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Grafo del corpus que se mantiene entre peticiones (/nlp/corpus). Añadir un
+ * documento solo anota ese documento: la anotación va fuera del cerrojo y
+ * después su grafo se suma al del corpus (ver CorpusGraph).
+ *
+ * Con nlp.corpus.dir, cada cambio se escribe en el CorpusStore antes de
+ * aplicarse y el corpus se recarga de disco al arrancar.
+ */
+@Service
+class CorpusServiceImpl implements CorpusService {
+
+	private static final Logger log = LoggerFactory.getLogger(CorpusServiceImpl.class);
+
+	private final KnowledgeGraphExtractor extractor;
+	private final CorpusStore store;
+	private final CorpusGraph corpus = new CorpusGraph();
+	// Lecturas del grafo en paralelo; altas y bajas de una en una
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	CorpusServiceImpl(KnowledgeGraphExtractor extractor, CorpusStore store) {
+		this.extractor = extractor;
+		this.store = store;
+		if (store.isEnabled()) {
+			long start = System.nanoTime();
+			long records = store.load(corpus::addDocument, corpus::removeDocument);
+			log.info("Corpus cargado de disco en {} ms: {} documentos, {} nodos, {} aristas ({} registros)",
+					(System.nanoTime() - start) / 1_000_000, corpus.documentCount(), corpus.nodeCount(),
+					corpus.edgeCount(), records);
+			// Más de la mitad de los registros son altas sustituidas o bajas
+			if (records > 2L * corpus.documentCount() + 100) {
+				store.compact(corpus);
+			}
+		}
+	}
+
+	@Override
+	public CorpusStats addDocuments(List<Discurs> documents, AnnotatorProfile profile) {
+		for (Discurs document : documents) {
+			GraphResult documentGraph = extractor.extractDocumentGraph(document, profile);
+			lock.writeLock().lock();
+			try {
+				store.appendAdd(document.getId(), documentGraph);
+				corpus.addDocument(document.getId(), documentGraph);
+			} finally {
+				lock.writeLock().unlock();
+			}
+			log.info("Documento {} añadido al corpus: {} nodos, {} aristas", document.getId(),
+					documentGraph.getNodes().size(), documentGraph.getEdges().size());
+		}
+		return stats();
+	}
+
+	@Override
+	public boolean removeDocument(String documentId) {
+		lock.writeLock().lock();
+		try {
+			if (!corpus.containsDocument(documentId))
+				return false;
+			store.appendRemove(documentId);
+			return corpus.removeDocument(documentId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public GraphResult graph() {
+		lock.readLock().lock();
+		try {
+			return corpus.toGraphResult();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public CorpusStats stats() {
+		lock.readLock().lock();
+		try {
+			return new CorpusStats(corpus.documentCount(), corpus.nodeCount(), corpus.edgeCount());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Node> topNodes(int k) {
+		return read(() -> corpus.topNodes(k));
+	}
+
+	@Override
+	public GraphResult neighbourhood(String nodeId, int hops, int maxNodes) {
+		return read(() -> corpus.neighbourhood(nodeId, hops, maxNodes));
+	}
+
+	@Override
+	public List<Node> nodesByType(String type, int limit) {
+		return read(() -> corpus.nodesByType(type, limit));
+	}
+
+	@Override
+	public List<Edge> edgesByRelationship(String relationship, int limit) {
+		return read(() -> corpus.edgesByRelationship(relationship, limit));
+	}
+
+	@Override
+	public List<Edge> edgesByDocument(String documentId, int limit) {
+		return read(() -> corpus.edgesByDocument(documentId, limit));
+	}
+
+	// Consulta bajo el cerrojo de lectura (en paralelo con otras consultas)
+	private <T> T read(Supplier<T> query) {
+		lock.readLock().lock();
+		try {
+			return query.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
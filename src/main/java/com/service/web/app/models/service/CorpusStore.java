@@ -0,0 +1,331 @@
+package com.service.web.app.models.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Registro de cambios en disco del grafo del corpus (nlp.corpus.dir; vacío =
+ * solo en memoria), para no tener que volver a extraer tras un reinicio.
+ *
+ * Cada alta o baja de documento se añade al final del segmento actual
+ * (corpus-NNNNNNNN.seg) antes de aplicarse en memoria, y al llenarse
+ * nlp.corpus.segment-bytes se empieza otro. Al arrancar se leen los segmentos
+ * una vez, en orden, y sus registros se reproducen sobre CorpusGraph. Un
+ * registro incompleto o corrupto al final de un segmento (caída a mitad de
+ * escritura) se descarta y el segmento se trunca ahí.
+ *
+ * El disco no es una vía de lectura: las consultas se sirven siempre del
+ * CorpusGraph en memoria, así que el corpus tiene que caber en el heap.
+ *
+ * Formato: cabecera MAGIC y registros [tipo:1][longitud:4][datos][crc32:4].
+ * ADD: docId, nodos (id, nombre, tipo, frecuencia) y aristas (origen, destino,
+ * relación); REMOVE: docId. Las cadenas van como longitud + UTF-8 (-1 = null).
+ *
+ * Si al cargar hay muchos más registros que documentos vivos, se reescriben
+ * los vivos en un segmento nuevo y se borran los anteriores (compact).
+ */
+@Component
+class CorpusStore {
+
+	private static final Logger log = LoggerFactory.getLogger(CorpusStore.class);
+
+	// "KGC1": cambiar si cambia el formato de los registros
+	private static final int MAGIC = 0x4B474331;
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+	private static final int RECORD_OVERHEAD = 1 + 4 + 4;
+
+	private final Path dir;
+	private final long segmentBytes;
+	private final boolean fsync;
+
+	private FileChannel segment;
+	private int segmentNumber;
+	private long records;
+
+	CorpusStore(@Value("${nlp.corpus.dir:}") String dir,
+			@Value("${nlp.corpus.segment-bytes:67108864}") long segmentBytes,
+			@Value("${nlp.corpus.fsync:false}") boolean fsync) {
+		if (segmentBytes < 1024 || segmentBytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("nlp.corpus.segment-bytes debe estar entre 1 KB y 2 GB");
+		}
+		this.dir = dir == null || dir.isBlank() ? null : Paths.get(dir);
+		this.segmentBytes = segmentBytes;
+		this.fsync = fsync;
+		if (this.dir != null) {
+			try {
+				Files.createDirectories(this.dir);
+			} catch (IOException e) {
+				throw new IllegalStateException("No se pudo crear nlp.corpus.dir: " + dir, e);
+			}
+		}
+	}
+
+	boolean isEnabled() {
+		return dir != null;
+	}
+
+	/**
+	 * Reproduce todos los registros guardados, en orden. Devuelve cuántos leyó.
+	 */
+	synchronized long load(BiConsumer<String, GraphResult> onAdd, Consumer<String> onRemove) {
+		if (dir == null)
+			return 0;
+		records = 0;
+		try {
+			for (Path file : segments()) {
+				records += replay(file, onAdd, onRemove);
+				segmentNumber = Math.max(segmentNumber, number(file));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo leer el corpus de " + dir, e);
+		}
+		return records;
+	}
+
+	// Registros leídos o escritos en los segmentos actuales
+	synchronized long records() {
+		return records;
+	}
+
+	synchronized void appendAdd(String documentId, GraphResult documentGraph) {
+		if (dir == null)
+			return;
+		append(ADD, encodeAdd(documentId, documentGraph));
+	}
+
+	synchronized void appendRemove(String documentId) {
+		if (dir == null)
+			return;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(bytes)) {
+			writeString(data, documentId);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		append(REMOVE, bytes.toByteArray());
+	}
+
+	/**
+	 * Reescribe solo los documentos vivos en un segmento nuevo y borra los
+	 * anteriores. Si se cae a medias, la carga lee los viejos y después las altas
+	 * repetidas del nuevo, que sustituyen a las mismas: el resultado es igual.
+	 */
+	synchronized void compact(CorpusGraph corpus) {
+		if (dir == null)
+			return;
+		try {
+			List<Path> old = segments();
+			closeSegment();
+			openSegment(segmentNumber + 1);
+			records = 0;
+			corpus.forEachDocument(
+					(documentId, documentGraph) -> append(ADD, encodeAdd(documentId, documentGraph)));
+			segment.force(true);
+			for (Path file : old) {
+				Files.delete(file);
+			}
+			log.info("Corpus compactado: {} documentos en {}", corpus.documentCount(), segmentFile(segmentNumber));
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo compactar el corpus en " + dir, e);
+		}
+	}
+
+	@PreDestroy
+	synchronized void close() {
+		try {
+			closeSegment();
+		} catch (IOException e) {
+			log.warn("No se pudo cerrar el segmento del corpus: {}", e.getMessage());
+		}
+	}
+
+	private void append(byte type, byte[] payload) {
+		ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		record.put(type).putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+		try {
+			if (segment == null || segment.size() > 4 && segment.size() + record.remaining() > segmentBytes) {
+				closeSegment();
+				openSegment(segmentNumber + 1);
+			}
+			while (record.hasRemaining()) {
+				segment.write(record);
+			}
+			if (fsync)
+				segment.force(false);
+			records++;
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo escribir en el corpus de " + dir, e);
+		}
+	}
+
+	private void openSegment(int number) throws IOException {
+		Path file = segmentFile(number);
+		segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		segmentNumber = number;
+		if (segment.size() == 0) {
+			segment.write(ByteBuffer.allocate(4).putInt(MAGIC).flip());
+		}
+	}
+
+	private void closeSegment() throws IOException {
+		if (segment != null) {
+			segment.close();
+			segment = null;
+		}
+	}
+
+	private long replay(Path file, BiConsumer<String, GraphResult> onAdd, Consumer<String> onRemove)
+			throws IOException {
+		long count = 0;
+		long validEnd;
+		long size;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			size = channel.size();
+			if (size < 4) {
+				validEnd = 0;
+			} else {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+				if (buffer.getInt() != MAGIC) {
+					throw new IOException("Segmento con formato desconocido: " + file);
+				}
+				validEnd = buffer.position();
+				while (buffer.remaining() >= RECORD_OVERHEAD) {
+					byte type = buffer.get();
+					int length = buffer.getInt();
+					if (length < 0 || length > buffer.remaining() - 4 || type != ADD && type != REMOVE)
+						break;
+					ByteBuffer payload = buffer.slice().limit(length);
+					CRC32 crc = new CRC32();
+					crc.update(payload.duplicate());
+					buffer.position(buffer.position() + length);
+					if ((int) crc.getValue() != buffer.getInt())
+						break;
+					if (type == ADD) {
+						String documentId = readString(payload);
+						onAdd.accept(documentId, decodeGraph(payload, documentId));
+					} else {
+						onRemove.accept(readString(payload));
+					}
+					validEnd = buffer.position();
+					count++;
+				}
+			}
+		}
+		if (validEnd < size) {
+			// Cola incompleta o corrupta (caída a mitad de escritura): se descarta
+			log.warn("Segmento {}: se descartan {} bytes finales no válidos", file, size - validEnd);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(validEnd);
+				if (validEnd == 0)
+					channel.write(ByteBuffer.allocate(4).putInt(MAGIC).flip());
+			}
+		}
+		return count;
+	}
+
+	private static byte[] encodeAdd(String documentId, GraphResult documentGraph) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream data = new DataOutputStream(bytes)) {
+			writeString(data, documentId);
+			data.writeInt(documentGraph.getNodes().size());
+			for (Node node : documentGraph.getNodes()) {
+				writeString(data, node.getId());
+				writeString(data, node.getName());
+				writeString(data, node.getType());
+				data.writeInt(node.getFrequency());
+			}
+			data.writeInt(documentGraph.getEdges().size());
+			for (Edge edge : documentGraph.getEdges()) {
+				writeString(data, edge.getSource());
+				writeString(data, edge.getTarget());
+				writeString(data, edge.getRelationship());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static GraphResult decodeGraph(ByteBuffer payload, String documentId) {
+		int nodeCount = payload.getInt();
+		List<Node> nodes = new ArrayList<>(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = new Node(readString(payload), readString(payload), readString(payload), documentId);
+			node.setFrequency(payload.getInt());
+			nodes.add(node);
+		}
+		int edgeCount = payload.getInt();
+		List<Edge> edges = new ArrayList<>(edgeCount);
+		for (int i = 0; i < edgeCount; i++) {
+			edges.add(new Edge(readString(payload), readString(payload), readString(payload)));
+		}
+		return new GraphResult(nodes, edges);
+	}
+
+	private static void writeString(DataOutputStream data, String value) throws IOException {
+		if (value == null) {
+			data.writeInt(-1);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(utf8.length);
+		data.write(utf8);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0)
+			return null;
+		byte[] utf8 = new byte[length];
+		buffer.get(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(file -> file.getFileName().toString().matches("corpus-\\d{8}\\.seg")).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private Path segmentFile(int number) {
+		return dir.resolve(String.format("corpus-%08d.seg", number));
+	}
+
+	private static int number(Path segmentFile) {
+		String name = segmentFile.getFileName().toString();
+		return Integer.parseInt(name.substring("corpus-".length(), name.length() - ".seg".length()));
+	}
+}
@@ -0,0 +1,210 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+
+/**
+ * Aristas de un KnowledgeGraph con índices de adyacencia por origen y destino.
+ *
+ * Los extremos son índices de nodo y la relación un índice de la tabla de
+ * relaciones (ver NodeStore y StringTable): cada arista son tres int en arrays
+ * paralelos, sin objetos Edge. Cada arista ocupa una posición fija (slot) en
+ * orden de inserción; los índices guardan, por nodo, los slots de sus aristas
+ * salientes y entrantes. Redirigir las aristas de un nodo (fusión de
+ * correferencias) solo toca las aristas de ese nodo y no todo el grafo.
+ *
+ * Cambiar un extremo quita la arista de la tabla hash y la vuelve a poner en
+ * el mismo slot (el orden de salida no cambia). Si la nueva ya existía o queda
+ * como auto-referencia, se descarta, igual que en addEdge.
+ */
+class EdgeStore {
+
+	private static final int REMOVED = -1;
+	private static final IntList EMPTY = new IntList(1);
+
+	private int[] sources = new int[16];
+	private int[] targets = new int[16];
+	private int[] relations = new int[16];
+	private int slotCount;
+	private int size;
+	// Tabla hash (origen, destino, relación) -> slot + 1 (0 = libre)
+	private int[] table = new int[32];
+	// Nodo -> slots de sus aristas
+	private IntList[] outgoing = new IntList[16];
+	private IntList[] incoming = new IntList[16];
+
+	/**
+	 * Añade la arista si no existe ya. Devuelve su slot, o -1 si era un duplicado.
+	 */
+	int add(int source, int target, int relation) {
+		if (find(source, target, relation) >= 0)
+			return -1;
+		if (slotCount == sources.length) {
+			int capacity = slotCount * 2;
+			sources = Arrays.copyOf(sources, capacity);
+			targets = Arrays.copyOf(targets, capacity);
+			relations = Arrays.copyOf(relations, capacity);
+		}
+		int slot = slotCount++;
+		sources[slot] = REMOVED;
+		put(slot, source, target, relation);
+		return slot;
+	}
+
+	/**
+	 * Slot de la arista, o -1 si no está.
+	 */
+	int find(int source, int target, int relation) {
+		int mask = table.length - 1;
+		for (int pos = hash(source, target, relation) & mask;; pos = (pos + 1) & mask) {
+			int entry = table[pos] - 1;
+			if (entry < 0)
+				return -1;
+			if (sources[entry] == source && targets[entry] == target && relations[entry] == relation)
+				return entry;
+		}
+	}
+
+	boolean isLive(int slot) {
+		return sources[slot] != REMOVED;
+	}
+
+	int source(int slot) {
+		return sources[slot];
+	}
+
+	int target(int slot) {
+		return targets[slot];
+	}
+
+	int relation(int slot) {
+		return relations[slot];
+	}
+
+	// Número de slots usados hasta ahora (incluidos los vacíos)
+	int slotCount() {
+		return slotCount;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean hasEdges(int node) {
+		return !adjacency(outgoing, node).isEmpty() || !adjacency(incoming, node).isEmpty();
+	}
+
+	/**
+	 * Redirige a toNode todas las aristas que salen de fromNode o llegan a él.
+	 * Coste proporcional al grado de fromNode. Se recorren en orden de slot: si
+	 * dos quedan iguales, se conserva la más antigua.
+	 */
+	void redirect(int fromNode, int toNode) {
+		IntList out = adjacency(outgoing, fromNode);
+		IntList in = adjacency(incoming, fromNode);
+		int[] touched = new int[out.size() + in.size()];
+		for (int i = 0; i < out.size(); i++)
+			touched[i] = out.get(i);
+		for (int i = 0; i < in.size(); i++)
+			touched[out.size() + i] = in.get(i);
+		Arrays.sort(touched);
+		for (int i = 0; i < touched.length; i++) {
+			int slot = touched[i];
+			if (i > 0 && touched[i - 1] == slot)
+				continue; // Arista de fromNode a sí mismo (no debería haberlas)
+			int source = sources[slot] == fromNode ? toNode : sources[slot];
+			int target = targets[slot] == fromNode ? toNode : targets[slot];
+			replace(slot, source, target, relations[slot]);
+		}
+	}
+
+	/**
+	 * Sustituye la arista del slot. Si la nueva es una auto-referencia o ya existe
+	 * en otro slot, el slot se queda vacío.
+	 */
+	void replace(int slot, int source, int target, int relation) {
+		remove(slot);
+		if (source == target || find(source, target, relation) >= 0)
+			return;
+		put(slot, source, target, relation);
+	}
+
+	/**
+	 * Vacía el slot. Devuelve false si ya estaba vacío.
+	 */
+	boolean remove(int slot) {
+		if (sources[slot] == REMOVED)
+			return false;
+		unlink(slot);
+		adjacency(outgoing, sources[slot]).removeValue(slot);
+		adjacency(incoming, targets[slot]).removeValue(slot);
+		sources[slot] = REMOVED;
+		targets[slot] = REMOVED;
+		size--;
+		return true;
+	}
+
+	// El slot debe estar vacío
+	private void put(int slot, int source, int target, int relation) {
+		if ((size + 1) * 2 > table.length)
+			rehash(table.length * 2);
+		sources[slot] = source;
+		targets[slot] = target;
+		relations[slot] = relation;
+		size++;
+		link(slot);
+		outgoing = index(outgoing, source, slot);
+		incoming = index(incoming, target, slot);
+	}
+
+	private void link(int slot) {
+		int mask = table.length - 1;
+		int pos = hash(sources[slot], targets[slot], relations[slot]) & mask;
+		while (table[pos] != 0)
+			pos = (pos + 1) & mask;
+		table[pos] = slot + 1;
+	}
+
+	// Borrado en sondeo lineal: se desplazan hacia atrás las entradas siguientes
+	// que quedarían inalcanzables, sin dejar marcas de borrado
+	private void unlink(int slot) {
+		int mask = table.length - 1;
+		int gap = hash(sources[slot], targets[slot], relations[slot]) & mask;
+		while (table[gap] != slot + 1)
+			gap = (gap + 1) & mask;
+		for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+			int entry = table[next] - 1;
+			int home = hash(sources[entry], targets[entry], relations[entry]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				table[gap] = table[next];
+				gap = next;
+			}
+		}
+		table[gap] = 0;
+	}
+
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (sources[slot] != REMOVED)
+				link(slot);
+		}
+	}
+
+	private static IntList[] index(IntList[] index, int node, int slot) {
+		if (node >= index.length)
+			index = Arrays.copyOf(index, Math.max(node + 1, index.length * 2));
+		if (index[node] == null)
+			index[node] = new IntList(2);
+		index[node].add(slot);
+		return index;
+	}
+
+	private static IntList adjacency(IntList[] index, int node) {
+		IntList slots = node < index.length ? index[node] : null;
+		return slots != null ? slots : EMPTY;
+	}
+
+	private static int hash(int source, int target, int relation) {
+		return StringTable.mix((source * 31 + target) * 31 + relation);
+	}
+}
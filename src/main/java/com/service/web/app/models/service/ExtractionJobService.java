@@ -0,0 +1,24 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.ExtractionJob;
+
+public interface ExtractionJobService {
+	/**
+	 * Encola la extracción del lote y devuelve el trabajo sin esperar a que termine.
+	 * Lanza RejectedExecutionException si la cola de trabajos está llena.
+	 */
+	public ExtractionJob submit(List<Discurs> documents);
+
+	/**
+	 * Igual que submit, anotando con las pipelines del perfil indicado.
+	 */
+	public ExtractionJob submit(List<Discurs> documents, AnnotatorProfile profile);
+
+	/**
+	 * Trabajo con ese ID, o null si no existe o ya se descartó.
+	 */
+	public ExtractionJob get(String jobId);
+}
@@ -0,0 +1,86 @@
+package com.service.web.app.models.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.ExtractionJob;
+
+/**
+ * Ejecuta las extracciones de /nlp/jobs en el pool acotado "jobExecutor".
+ * Los trabajos terminados se guardan en memoria durante
+ * nlp.jobs.retention-minutes para que el cliente recoja el resultado.
+ */
+@Service
+class ExtractionJobServiceImpl implements ExtractionJobService {
+
+	private static final Logger log = LoggerFactory.getLogger(ExtractionJobServiceImpl.class);
+
+	private final Extractor extractor;
+	private final ExecutorService jobExecutor;
+	private final long retentionMs;
+	private final Map<String, ExtractionJob> jobs = new ConcurrentHashMap<>();
+
+	ExtractionJobServiceImpl(Extractor extractor, @Qualifier("jobExecutor") ExecutorService jobExecutor,
+			@Value("${nlp.jobs.retention-minutes:60}") long retentionMinutes) {
+		this.extractor = extractor;
+		this.jobExecutor = jobExecutor;
+		this.retentionMs = TimeUnit.MINUTES.toMillis(retentionMinutes);
+	}
+
+	@Override
+	public ExtractionJob submit(List<Discurs> documents) {
+		return submit(documents, null);
+	}
+
+	// profile null = perfil por defecto del extractor
+	@Override
+	public ExtractionJob submit(List<Discurs> documents, AnnotatorProfile profile) {
+		evictExpired();
+		ExtractionJob job = new ExtractionJob(UUID.randomUUID().toString(), documents.size());
+		jobs.put(job.getId(), job);
+		try {
+			jobExecutor.execute(() -> run(job, documents, profile));
+		} catch (RejectedExecutionException e) {
+			// Cola llena: el trabajo no llega a existir
+			jobs.remove(job.getId());
+			throw e;
+		}
+		return job;
+	}
+
+	@Override
+	public ExtractionJob get(String jobId) {
+		evictExpired();
+		return jobs.get(jobId);
+	}
+
+	private void run(ExtractionJob job, List<Discurs> documents, AnnotatorProfile profile) {
+		job.start();
+		log.info("Trabajo {}: iniciando extracción de {} documentos", job.getId(), documents.size());
+		try {
+			job.complete(profile == null ? extractor.extractTriplesFromDocuments(documents)
+					: extractor.extractTriplesFromDocuments(documents, profile));
+			log.info("Trabajo {}: terminado", job.getId());
+		} catch (Exception e) {
+			log.error("Trabajo {}: error en la extracción", job.getId(), e);
+			job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+		}
+	}
+
+	private void evictExpired() {
+		long limit = System.currentTimeMillis() - retentionMs;
+		jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < limit);
+	}
+}
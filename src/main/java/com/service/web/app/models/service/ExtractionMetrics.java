@@ -0,0 +1,115 @@
+package com.service.web.app.models.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de la extracción, publicadas por Actuator en /actuator/prometheus.
+ *
+ * - nlp.annotator{annotator}: tiempo de cada anotador de CoreNLP (tokenize,
+ * depparse, coref, openie...) dentro de pipeline.annotate.
+ * - nlp.extraction.phase{phase}: tiempo de cada fase propia: annotate (la
+ * pipeline completa), coref, kbp, openie, dependencies, concepts, apply
+ * (reproducir el chunk en el grafo), importance, cleanup y merge-relations.
+ * - nlp.chunks{source}: chunks procesados, anotados por CoreNLP o sacados de la
+ * caché.
+ * - nlp.graph.nodes / nlp.graph.edges: nodos y aristas de los grafos devueltos.
+ * - nlp.extraction.request: tiempo de cada extracción completa.
+ * - nlp.startup.time, nlp.startup.first-request: arranque de la aplicación y
+ * latencia de la primera extracción (0 hasta que ocurren).
+ * - nlp.startup.warmup{profile}: calentamiento de cada perfil (PipelineWarmup).
+ *
+ * Los timers publican histograma para calcular percentiles en Prometheus.
+ */
+@Component
+class ExtractionMetrics {
+
+	static final String PHASE_ANNOTATE = "annotate";
+	static final String PHASE_COREF = "coref";
+	static final String PHASE_KBP = "kbp";
+	static final String PHASE_OPENIE = "openie";
+	static final String PHASE_DEPENDENCIES = "dependencies";
+	static final String PHASE_CONCEPTS = "concepts";
+	static final String PHASE_APPLY = "apply";
+	static final String PHASE_IMPORTANCE = "importance";
+	static final String PHASE_CLEANUP = "cleanup";
+	static final String PHASE_MERGE_RELATIONS = "merge-relations";
+
+	private static final Logger log = LoggerFactory.getLogger(ExtractionMetrics.class);
+
+	private final MeterRegistry registry;
+	private final Map<String, Timer> annotatorTimers = new ConcurrentHashMap<>();
+	private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>();
+	private final Counter annotatedChunks;
+	private final Counter cachedChunks;
+	private final Counter nodes;
+	private final Counter edges;
+	private final Timer requests;
+	private final AtomicLong startupMs = new AtomicLong();
+	private final AtomicLong firstRequestNanos = new AtomicLong();
+
+	ExtractionMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.annotatedChunks = Counter.builder("nlp.chunks").tag("source", "corenlp")
+				.description("Chunks anotados con CoreNLP").register(registry);
+		this.cachedChunks = Counter.builder("nlp.chunks").tag("source", "cache")
+				.description("Chunks servidos desde la caché").register(registry);
+		this.nodes = Counter.builder("nlp.graph.nodes").description("Nodos de los grafos devueltos")
+				.register(registry);
+		this.edges = Counter.builder("nlp.graph.edges").description("Aristas de los grafos devueltos")
+				.register(registry);
+		this.requests = Timer.builder("nlp.extraction.request").description("Tiempo de cada extracción completa")
+				.publishPercentileHistogram().register(registry);
+		TimeGauge.builder("nlp.startup.time", startupMs, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+				.description("Tiempo hasta que la aplicación está lista").register(registry);
+		TimeGauge.builder("nlp.startup.first-request", firstRequestNanos, TimeUnit.NANOSECONDS, AtomicLong::doubleValue)
+				.description("Latencia de la primera extracción tras arrancar").register(registry);
+	}
+
+	Timer annotator(String name) {
+		return annotatorTimers.computeIfAbsent(name, key -> Timer.builder("nlp.annotator").tag("annotator", key)
+				.description("Tiempo de cada anotador de CoreNLP").publishPercentileHistogram().register(registry));
+	}
+
+	void recordPhase(String phase, long nanos) {
+		phaseTimers.computeIfAbsent(phase, key -> Timer.builder("nlp.extraction.phase").tag("phase", key)
+				.description("Tiempo de cada fase de la extracción").publishPercentileHistogram().register(registry))
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void chunkProcessed(boolean fromCache) {
+		(fromCache ? cachedChunks : annotatedChunks).increment();
+	}
+
+	void graphReturned(int nodeCount, int edgeCount) {
+		nodes.increment(nodeCount);
+		edges.increment(edgeCount);
+	}
+
+	void requestCompleted(long nanos) {
+		requests.record(nanos, TimeUnit.NANOSECONDS);
+		if (firstRequestNanos.compareAndSet(0, Math.max(1, nanos))) {
+			log.info("Primera extracción tras arrancar: {} ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+		}
+	}
+
+	void startupCompleted(long millis) {
+		startupMs.set(millis);
+	}
+
+	void warmupCompleted(String profile, long nanos) {
+		Timer.builder("nlp.startup.warmup").tag("profile", profile).description("Calentamiento de cada perfil")
+				.register(registry).record(nanos, TimeUnit.NANOSECONDS);
+	}
+}
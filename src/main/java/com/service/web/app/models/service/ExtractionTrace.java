@@ -0,0 +1,57 @@
+package com.service.web.app.models.service;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Trazas detalladas de un chunk (menciones, triples KBP y OpenIE).
+ *
+ * Por defecto se escriben a nivel TRACE y solo si ese nivel está activo para
+ * el logger. Con nlp.trace.doc-id se escriben a INFO, pero solo las del
+ * documento elegido: así se sigue un documento concreto en producción sin
+ * inundar el log con el resto.
+ *
+ * El nivel se decide una vez por chunk. Con las trazas apagadas, log(...) no
+ * formatea nada: los argumentos se pasan tal cual y SLF4J solo llama a su
+ * toString si el mensaje se escribe.
+ */
+final class ExtractionTrace {
+
+	// Clave del MDC con el documento que se está procesando
+	static final String MDC_DOC_ID = "docId";
+
+	private final Logger log;
+	private final Level level;
+	private final boolean enabled;
+
+	private ExtractionTrace(Logger log, Level level) {
+		this.log = log;
+		this.level = level;
+		this.enabled = log.isEnabledForLevel(level);
+	}
+
+	/**
+	 * Trazas de un chunk del documento docId. tracedDocId es el documento elegido
+	 * con nlp.trace.doc-id (vacío si no hay ninguno).
+	 */
+	static ExtractionTrace forDocument(Logger log, String docId, String tracedDocId) {
+		boolean traced = !tracedDocId.isEmpty() && tracedDocId.equals(docId);
+		return new ExtractionTrace(log, traced ? Level.INFO : Level.TRACE);
+	}
+
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	void log(String format, Object argument) {
+		if (enabled) {
+			log.atLevel(level).log(format, argument);
+		}
+	}
+
+	void log(String format, Object first, Object second) {
+		if (enabled) {
+			log.atLevel(level).log(format, first, second);
+		}
+	}
+}
@@ -15,4 +15,25 @@ public interface Extractor {
 	public String extractTriples(List<String> doc);
 
 	public GraphResult extractTriplesFromDocuments(List<Discurs> documents);
+
+	/**
+	 * Con las pipelines del perfil indicado. Un extractor con una sola
+	 * configuración de anotadores (p. ej. el remoto) ignora el perfil.
+	 */
+	public default GraphResult extractTriplesFromDocuments(List<Discurs> documents, AnnotatorProfile profile) {
+		return extractTriplesFromDocuments(documents);
+	}
+
+	/**
+	 * Emite el grafo al listener. Sin una implementación propia no hay eventos
+	 * por chunk: el grafo completo llega al final, seguido de onComplete.
+	 */
+	public default void streamTriplesFromDocuments(List<Discurs> documents, GraphEventListener listener) {
+		new GraphEventStream(listener).finish(extractTriplesFromDocuments(documents));
+	}
+
+	public default void streamTriplesFromDocuments(List<Discurs> documents, AnnotatorProfile profile,
+			GraphEventListener listener) {
+		new GraphEventStream(listener).finish(extractTriplesFromDocuments(documents, profile));
+	}
 }
@@ -0,0 +1,251 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Centralidad de nodos sobre un grafo dirigido dado como arrays de enteros
+ * (nodos 0..n-1, arista i = sources[i] -> targets[i]).
+ *
+ * Al construirlo se pasa el grafo a CSR (aristas agrupadas por nodo en un
+ * único int[] con offsets), sin objetos por nodo ni por arista. Los
+ * recorridos se reparten por bloques de nodos en el ForkJoinPool común a
+ * partir de PARALLEL_THRESHOLD nodos; las sumas se hacen por bloque y luego
+ * en orden, así que el resultado no depende del número de hilos.
+ *
+ * - pageRank: iteración de potencia con nodos sin salida repartidos entre
+ *   todos, hasta maxIterations o hasta que la diferencia L1 entre dos
+ *   iteraciones baje de tolerance.
+ * - degree: (entrada + salida) / (n - 1).
+ * - betweenness: Brandes desde una muestra de orígenes, escalado a n.
+ */
+final class GraphCentrality {
+
+	static final int PARALLEL_THRESHOLD = 1 << 14;
+	private static final int BLOCK = 4096;
+
+	private final int nodeCount;
+	// Aristas entrantes de v: inSources[inOffsets[v] .. inOffsets[v + 1])
+	private final int[] inOffsets;
+	private final int[] inSources;
+	// Aristas salientes de v: outTargets[outOffsets[v] .. outOffsets[v + 1])
+	private final int[] outOffsets;
+	private final int[] outTargets;
+	private int iterations;
+
+	GraphCentrality(int nodeCount, int[] sources, int[] targets) {
+		this.nodeCount = nodeCount;
+		this.inOffsets = new int[nodeCount + 1];
+		this.outOffsets = new int[nodeCount + 1];
+		this.inSources = new int[sources.length];
+		this.outTargets = new int[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			outOffsets[sources[i] + 1]++;
+			inOffsets[targets[i] + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			outOffsets[v + 1] += outOffsets[v];
+			inOffsets[v + 1] += inOffsets[v];
+		}
+		int[] outFill = Arrays.copyOf(outOffsets, nodeCount);
+		int[] inFill = Arrays.copyOf(inOffsets, nodeCount);
+		for (int i = 0; i < sources.length; i++) {
+			outTargets[outFill[sources[i]]++] = targets[i];
+			inSources[inFill[targets[i]]++] = sources[i];
+		}
+	}
+
+	int nodeCount() {
+		return nodeCount;
+	}
+
+	// Iteraciones que hizo el último pageRank
+	int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * PageRank de cada nodo (suman 1).
+	 */
+	double[] pageRank(double damping, int maxIterations, double tolerance) {
+		int n = nodeCount;
+		iterations = 0;
+		if (n == 0)
+			return new double[0];
+		double[] rank = new double[n];
+		double[] next = new double[n];
+		double[] contribution = new double[n];
+		Arrays.fill(rank, 1.0 / n);
+		while (iterations < maxIterations) {
+			double[] current = rank;
+			// Lo que reparte cada nodo por arista; los sin salida lo reparten a todos
+			double dangling = sumBlocks(block -> {
+				double sum = 0;
+				for (int v = block * BLOCK, end = Math.min(n, v + BLOCK); v < end; v++) {
+					int outDegree = outOffsets[v + 1] - outOffsets[v];
+					if (outDegree == 0) {
+						contribution[v] = 0;
+						sum += current[v];
+					} else {
+						contribution[v] = current[v] / outDegree;
+					}
+				}
+				return sum;
+			});
+			double base = (1 - damping) / n + damping * dangling / n;
+			double[] updated = next;
+			double delta = sumBlocks(block -> {
+				double sum = 0;
+				for (int v = block * BLOCK, end = Math.min(n, v + BLOCK); v < end; v++) {
+					double incoming = 0;
+					for (int j = inOffsets[v]; j < inOffsets[v + 1]; j++)
+						incoming += contribution[inSources[j]];
+					updated[v] = base + damping * incoming;
+					sum += Math.abs(updated[v] - current[v]);
+				}
+				return sum;
+			});
+			next = rank;
+			rank = updated;
+			iterations++;
+			if (delta < tolerance)
+				break;
+		}
+		return rank;
+	}
+
+	/**
+	 * Grado (entrada + salida) normalizado por n - 1.
+	 */
+	double[] degree() {
+		double[] degree = new double[nodeCount];
+		double scale = nodeCount > 1 ? 1.0 / (nodeCount - 1) : 1.0;
+		forBlocks(block -> {
+			for (int v = block * BLOCK, end = Math.min(nodeCount, v + BLOCK); v < end; v++)
+				degree[v] = (outOffsets[v + 1] - outOffsets[v] + inOffsets[v + 1] - inOffsets[v]) * scale;
+		});
+		return degree;
+	}
+
+	/**
+	 * Intermediación aproximada (Brandes, caminos mínimos sin pesos siguiendo el
+	 * sentido de las aristas) desde 'samples' orígenes al azar, escalada por
+	 * n / samples. Con samples >= n es la exacta.
+	 */
+	double[] betweenness(int samples, long seed) {
+		int n = nodeCount;
+		double[] result = new double[n];
+		if (n == 0 || samples <= 0)
+			return result;
+		int[] origins;
+		if (samples >= n) {
+			origins = IntStream.range(0, n).toArray();
+		} else {
+			// Muestra sin repetición (Fisher-Yates parcial)
+			int[] all = IntStream.range(0, n).toArray();
+			Random random = new Random(seed);
+			for (int i = 0; i < samples; i++) {
+				int j = i + random.nextInt(n - i);
+				int swap = all[i];
+				all[i] = all[j];
+				all[j] = swap;
+			}
+			origins = Arrays.copyOf(all, samples);
+		}
+		// Cada grupo de orígenes acumula en su propio array (y reutiliza los de BFS)
+		int groups = n < PARALLEL_THRESHOLD ? 1
+				: Math.min(origins.length, Runtime.getRuntime().availableProcessors());
+		double[][] partial = new double[groups][];
+		IntStream range = IntStream.range(0, groups);
+		(groups > 1 ? range.parallel() : range).forEach(group -> {
+			double[] accumulated = new double[n];
+			BrandesState state = new BrandesState(n);
+			for (int i = group; i < origins.length; i += groups)
+				state.accumulate(origins[i], accumulated);
+			partial[group] = accumulated;
+		});
+		double scale = (double) n / origins.length;
+		for (int v = 0; v < n; v++) {
+			double sum = 0;
+			for (double[] accumulated : partial)
+				sum += accumulated[v];
+			result[v] = sum * scale;
+		}
+		return result;
+	}
+
+	// Arrays de un recorrido de Brandes, reutilizados entre orígenes
+	private final class BrandesState {
+		final int[] distance;
+		final double[] paths;
+		final double[] dependency;
+		final int[] order;
+
+		BrandesState(int n) {
+			distance = new int[n];
+			paths = new double[n];
+			dependency = new double[n];
+			order = new int[n];
+			Arrays.fill(distance, -1);
+		}
+
+		void accumulate(int origin, double[] accumulated) {
+			// BFS: 'order' hace de cola y queda en orden de distancia
+			int head = 0, tail = 0;
+			order[tail++] = origin;
+			distance[origin] = 0;
+			paths[origin] = 1;
+			while (head < tail) {
+				int v = order[head++];
+				for (int j = outOffsets[v]; j < outOffsets[v + 1]; j++) {
+					int w = outTargets[j];
+					if (distance[w] < 0) {
+						distance[w] = distance[v] + 1;
+						order[tail++] = w;
+					}
+					if (distance[w] == distance[v] + 1)
+						paths[w] += paths[v];
+				}
+			}
+			// Dependencias en orden inverso de distancia
+			for (int i = tail - 1; i >= 0; i--) {
+				int w = order[i];
+				for (int j = outOffsets[w]; j < outOffsets[w + 1]; j++) {
+					int x = outTargets[j];
+					if (distance[x] == distance[w] + 1)
+						dependency[w] += paths[w] / paths[x] * (1 + dependency[x]);
+				}
+				if (w != origin)
+					accumulated[w] += dependency[w];
+			}
+			// Dejar los arrays como al principio (solo lo visitado)
+			for (int i = 0; i < tail; i++) {
+				int v = order[i];
+				distance[v] = -1;
+				paths[v] = 0;
+				dependency[v] = 0;
+			}
+		}
+	}
+
+	private int blocks() {
+		return (nodeCount + BLOCK - 1) / BLOCK;
+	}
+
+	// Suma por bloques: cada bloque en paralelo, el total en orden
+	private double sumBlocks(IntToDoubleFunction block) {
+		double[] partial = new double[blocks()];
+		forBlocks(b -> partial[b] = block.applyAsDouble(b));
+		double sum = 0;
+		for (double value : partial)
+			sum += value;
+		return sum;
+	}
+
+	private void forBlocks(java.util.function.IntConsumer block) {
+		IntStream range = IntStream.range(0, blocks());
+		(nodeCount >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(block);
+	}
+}
@@ -0,0 +1,27 @@
+package com.service.web.app.models.service;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Recibe el grafo mientras se construye (modo streaming de /nlp/relations).
+ *
+ * Primero llegan los nodos y aristas nuevos de cada chunk, seguidos de
+ * onChunkApplied. Al terminar llegan las correcciones: cada nodo final con su
+ * frecuencia e importancia (onNode de nuevo, sustituye al anterior), los nodos y
+ * aristas que desaparecieron por fusión o limpieza y las aristas resultantes de
+ * fusionar relaciones; por último onComplete.
+ */
+public interface GraphEventListener {
+	public void onNode(Node node);
+
+	public void onEdge(Edge edge);
+
+	public void onNodeRemoved(String nodeId);
+
+	public void onEdgeRemoved(String source, String target, String relationship);
+
+	public void onChunkApplied();
+
+	public void onComplete(int nodes, int edges);
+}
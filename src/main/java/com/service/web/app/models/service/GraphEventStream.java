@@ -0,0 +1,98 @@
+package com.service.web.app.models.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Traduce el avance de una extracción a eventos de GraphEventListener.
+ * Solo recuerda las claves de lo ya emitido para poder enviar al final las
+ * correcciones (nodos/aristas eliminados o sustituidos).
+ */
+class GraphEventStream {
+
+	private final GraphEventListener listener;
+	private final Set<String> emittedNodes = new HashSet<>();
+	private final Set<EdgeKey> emittedEdges = new HashSet<>();
+
+	GraphEventStream(GraphEventListener listener) {
+		this.listener = listener;
+	}
+
+	void chunkApplied(KnowledgeGraph graph) {
+		for (Node node : graph.drainAddedNodes()) {
+			if (emittedNodes.add(node.getId())) {
+				listener.onNode(node);
+			}
+		}
+		for (Edge edge : graph.drainAddedEdges()) {
+			if (emittedEdges.add(EdgeKey.of(edge))) {
+				listener.onEdge(edge);
+			}
+		}
+		listener.onChunkApplied();
+	}
+
+	void finish(GraphResult result) {
+		// Nodos finales (frecuencia, importancia, tipo y nombre definitivos)
+		for (Node node : result.getNodes()) {
+			listener.onNode(node);
+			emittedNodes.remove(node.getId());
+		}
+		// Los que quedan se fusionaron o se limpiaron
+		for (String nodeId : emittedNodes) {
+			listener.onNodeRemoved(nodeId);
+		}
+
+		Set<EdgeKey> finalEdges = new HashSet<>();
+		for (Edge edge : result.getEdges()) {
+			EdgeKey key = EdgeKey.of(edge);
+			finalEdges.add(key);
+			if (!emittedEdges.contains(key)) {
+				listener.onEdge(edge);
+			}
+		}
+		for (EdgeKey key : emittedEdges) {
+			if (!finalEdges.contains(key)) {
+				listener.onEdgeRemoved(key.source, key.target, key.relationship);
+			}
+		}
+		listener.onComplete(result.getNodes().size(), result.getEdges().size());
+	}
+
+	// Arista tal y como se emitió (las aristas del grafo pueden cambiar después)
+	private static final class EdgeKey {
+		final String source;
+		final String target;
+		final String relationship;
+
+		private EdgeKey(String source, String target, String relationship) {
+			this.source = source;
+			this.target = target;
+			this.relationship = relationship;
+		}
+
+		static EdgeKey of(Edge edge) {
+			return new EdgeKey(edge.getSource(), edge.getTarget(), edge.getRelationship());
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof EdgeKey))
+				return false;
+			EdgeKey other = (EdgeKey) o;
+			return source.equals(other.source) && target.equals(other.target)
+					&& relationship.equals(other.relationship);
+		}
+
+		@Override
+		public int hashCode() {
+			return (source.hashCode() * 31 + target.hashCode()) * 31 + relationship.hashCode();
+		}
+	}
+}
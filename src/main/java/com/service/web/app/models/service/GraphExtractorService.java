@@ -1,25 +1,47 @@
 package com.service.web.app.models.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import com.service.web.app.models.entity.GraphNode;
 import com.service.web.app.models.entity.GraphResult;
 import com.service.web.app.models.entity.Discurs;
 import com.service.web.app.models.entity.GraphEdge;
-import org.springframework.http.*;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-
-//@Service
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Extractor que anota en servidores CoreNLP remotos (nlp.corenlp-server.*).
+ *
+ * Solo se registra si hay servidores configurados, y no sustituye al
+ * extractor principal (KnowledgeGraphExtractor, @Primary): se inyecta por
+ * nombre. No guarda estado entre llamadas: el grafo, sus índices y el
+ * contador de IDs son de cada llamada (ExtractedGraph), así que una sola
+ * instancia atiende peticiones concurrentes.
+ */
+@Service("remoteExtractor")
+@ConditionalOnProperty("nlp.corenlp-server.urls")
 public class GraphExtractorService implements Extractor {
 
-    private final String CORENLP_URL = "http://localhost:9000";
-    private final RestTemplate restTemplate = new RestTemplate();
-    private int nodeIdCounter = 1;
+    // Trazas por token y por nodo: solo a nivel TRACE, sin formatear si está apagado
+    private static final Logger log = LoggerFactory.getLogger(GraphExtractorService.class);
+
+    private static final String CORENLP_PROPERTIES = "{\"annotators\":\"tokenize,ssplit,mwt,pos,depparse,ner,kbp,natlog,openie\"," +
+            "\"tokenize.language\": \"es\"," +
+            "\"pos.model\": \"edu/stanford/nlp/models/pos-tagger/spanish-ud.tagger\"," +
+            "\"depparse.model\":\"edu/stanford/nlp/models/parser/nndep/UD_Spanish.gz\"," +
+            "\"parse.type\":\"enhancedPlusPlusDependencies\"," +
+            "\"outputFormat\":\"json\"}";
+    // Servidores CoreNLP (round-robin, keep-alive, reintentos)
+    private final CoreNlpServerClient coreNlp;
     // Lista ampliada de stopwords en español
     private static final Set<String> STOPWORDS = Set.of(
             "de", "en", "qué", "es", "son", "ser", "un", "una", "el", "la", "los", "las", "y", "con", "para", "por",
@@ -29,35 +51,119 @@ public class GraphExtractorService implements Extractor {
     private static final Set<String> EXCLUDED_NER = Set.of(
             "NUMBER", "TIME", "MONEY", "PERCENT");
 
+    private static final Map<String, String> KBP_RELATIONS = Map.of(
+            "per:title", "es",
+            "per:employee_of", "trabaja para",
+            "org:top_members_employees", "tiene como miembro",
+            "org:country_of_headquarters", "ubicado en",
+            "per:countries_of_residence", "vive en");
+
+    // Un servidor local, 4 chunks en vuelo, 60 s por intento y 2 reintentos
+    public GraphExtractorService() {
+        this(List.of("http://localhost:9000"), 4, 60_000, 2);
+    }
+
+    /**
+     * @param serverUrls  servidores CoreNLP a repartir en round-robin
+     * @param maxInFlight chunks anotándose a la vez entre todos los servidores (por llamada)
+     * @param timeoutMs   timeout de conexión y de cada intento
+     * @param maxRetries  reintentos por chunk ante errores de red, timeouts o 5xx
+     */
+    @Autowired
+    public GraphExtractorService(@Value("${nlp.corenlp-server.urls}") List<String> serverUrls,
+            @Value("${nlp.corenlp-server.max-in-flight:4}") int maxInFlight,
+            @Value("${nlp.corenlp-server.timeout-ms:60000}") long timeoutMs,
+            @Value("${nlp.corenlp-server.retries:2}") int maxRetries) {
+        this.coreNlp = new CoreNlpServerClient(serverUrls, CORENLP_PROPERTIES, maxInFlight,
+                Duration.ofMillis(timeoutMs), maxRetries);
+    }
+
     @Override
     public String extractTriples(List<String> inputText) {
-        try {
-            Map<String, GraphNode> nodes = new LinkedHashMap<>();
-            Set<GraphEdge> edges = new LinkedHashSet<>();
-            Map<String, Integer> degreeMap = new HashMap<>();
-            Map<String, String> textToNodeId = new HashMap<>();
-            Map<String, Object> result = new HashMap<>();
+        ExtractedGraph graph = extractGraph(inputText, null);
+        Map<String, Object> result = new HashMap<>();
 
-            for (String textDoc : inputText) {
-                for (String text : splitTextIntoChunks(textDoc)) {
-                    Map<String, Object> parsedJson = fetchFromCoreNLP(text);
+        List<GraphNode> nodeList = new ArrayList<>(graph.nodes.values());
+        Set<GraphEdge> edgeList = graph.edges;
 
-                    Map<String, String> flatGroups = groupFlatDependencies(parsedJson);
+        result.put("nodes", nodeList);
+        result.put("edges", edgeList);
 
-                    extractEntities(parsedJson, nodes, textToNodeId, flatGroups);
-                    extractRelations(parsedJson, nodes, edges, degreeMap, textToNodeId, flatGroups);
-                    calculateImportance(nodes, degreeMap);
+        return new Gson().toJson(result);
+    }
+
+    /**
+     * Mismo grafo que extractTriples, como GraphResult y con los documentos de
+     * cada nodo. Los anotadores son los de CORENLP_PROPERTIES: el perfil de
+     * anotadores no aplica a este extractor.
+     */
+    @Override
+    public GraphResult extractTriplesFromDocuments(List<Discurs> documents) {
+        List<String> texts = new ArrayList<>();
+        List<String> docIds = new ArrayList<>();
+        for (Discurs document : documents) {
+            if (document.getText() != null && !document.getText().isBlank()) {
+                texts.add(document.getText());
+                docIds.add(document.getId());
+            }
+        }
+        ExtractedGraph graph = extractGraph(texts, docIds);
+
+        List<Node> nodes = new ArrayList<>(graph.nodes.size());
+        for (GraphNode extracted : graph.nodes.values()) {
+            Set<String> nodeDocs = graph.documentIds.getOrDefault(extracted.getId(), Set.of());
+            Node node = new Node(extracted.getId(), extracted.getText(), extracted.getType(), "");
+            node.setDocumentIds(new HashSet<>(nodeDocs));
+            node.setFrequency(extracted.getFrequency());
+            node.setImportance(extracted.getImportance());
+            nodes.add(node);
+        }
+        List<Edge> edges = new ArrayList<>(graph.edges.size());
+        for (GraphEdge edge : graph.edges) {
+            edges.add(new Edge(edge.getSource(), edge.getTarget(), edge.getrelationship()));
+        }
+        return new GraphResult(nodes, edges);
+    }
+
+    /**
+     * Anota los textos en los servidores y construye el grafo de la llamada.
+     *
+     * @param docIds documento de cada texto (mismo orden), o null si no interesan
+     */
+    private ExtractedGraph extractGraph(List<String> texts, List<String> docIds) {
+        try {
+            ExtractedGraph graph = new ExtractedGraph();
+
+            List<String> chunks = new ArrayList<>();
+            List<String> chunkDocIds = new ArrayList<>();
+            for (int i = 0; i < texts.size(); i++) {
+                for (String chunk : splitTextIntoChunks(texts.get(i))) {
+                    chunks.add(chunk);
+                    chunkDocIds.add(docIds != null ? docIds.get(i) : null);
                 }
             }
 
-            List<GraphNode> nodeList = new ArrayList<>(nodes.values());
-            Set<GraphEdge> edgeList = edges;
+            // Hasta maxInFlight chunks anotándose a la vez en los servidores; las
+            // respuestas se procesan en el orden de los chunks
+            Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>();
+            Iterator<String> pending = chunks.iterator();
+            int processed = 0;
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (pending.hasNext() && inFlight.size() < coreNlp.maxInFlight()) {
+                    inFlight.add(coreNlp.annotate(pending.next()));
+                }
+                // Una sola lectura de la respuesta; las pasadas trabajan sobre sus columnas
+                CoreNlpDocument parsed = CoreNlpDocument.parse(inFlight.poll().join());
+                graph.currentDocId = chunkDocIds.get(processed++);
 
-            result.put("nodes", nodeList);
-            result.put("edges", edgeList);
-            nodeIdCounter = 1; // Reiniciar para la próxima ejecución
+                Map<String, String> flatGroups = groupFlatDependencies(parsed);
 
-            return new Gson().toJson(result);
+                extractEntities(parsed, graph, flatGroups);
+                extractRelations(parsed, graph, flatGroups);
+            }
+            // Una vez al final: solo cuenta el valor con todos los chunks
+            calculateImportance(graph);
+            return graph;
 
         } catch (Exception e) {
             throw new RuntimeException("Error procesando el texto", e);
@@ -86,176 +192,100 @@ public class GraphExtractorService implements Extractor {
         return chunks;
     }
 
-    private Map<String, Object> fetchFromCoreNLP(String text) throws Exception {
-        String properties = "{\"annotators\":\"tokenize,ssplit,mwt,pos,depparse,ner,kbp,natlog,openie\"," +
-                "\"tokenize.language\": \"es\"," +
-                "\"pos.model\": \"edu/stanford/nlp/models/pos-tagger/spanish-ud.tagger\"," +
-                "\"depparse.model\":\"edu/stanford/nlp/models/parser/nndep/UD_Spanish.gz\"," +
-                "\"parse.type\":\"enhancedPlusPlusDependencies\"," +
-                "\"outputFormat\":\"json\"}";
-        String encodedProps = URLEncoder.encode(properties, StandardCharsets.UTF_8);
-        String url = CORENLP_URL + "/?properties=" + encodedProps;
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/plain; charset=UTF-8"));
-        HttpEntity<String> request = new HttpEntity<>(text, headers);
-
-        ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readValue(response.getBody(), Map.class);
-    }
-
-    private void extractEntities(Map<String, Object> parsed, Map<String, GraphNode> nodes,
-            Map<String, String> textToNodeId, Map<String, String> flatGroups) {
-        List<Map<String, Object>> sentences = (List<Map<String, Object>>) parsed.get("sentences");
-
-        for (Map<String, Object> sentence : sentences) {
-            List<Map<String, Object>> tokens = (List<Map<String, Object>>) sentence.get("tokens");
-            Map<Integer, String> indexToLemma = new HashMap<>();
-            for (Map<String, Object> token : tokens) {
-                indexToLemma.put((Integer) token.get("index"), (String) token.get("lemma"));
-            }
-            List<Map<String, Object>> entityMentions = (List<Map<String, Object>>) sentence.get("entitymentions");
-
-            if (entityMentions != null) {
-                for (Map<String, Object> ent : entityMentions) {
-                    String text = (String) ent.get("text");
-                    String type = (String) ent.get("ner");
-                    String lemma = indexToLemma.get(ent.get("headToken"));
-                    if (!EXCLUDED_NER.contains(type)) {
-                        // Añadir nodo con tipo NER real
-                        addNode(text, type, nodes, textToNodeId, null);
-                    }
+    private void extractEntities(CoreNlpDocument parsed, ExtractedGraph graph, Map<String, String> flatGroups) {
+        for (CoreNlpDocument.Sentence sentence : parsed.sentences()) {
+            for (int mention = 0; mention < sentence.mentionCount(); mention++) {
+                String text = sentence.mentionText(mention);
+                String type = sentence.mentionType(mention);
+                if (!EXCLUDED_NER.contains(type)) {
+                    // Añadir nodo con tipo NER real
+                    addNode(text, type, graph, null);
                 }
             }
 
             for (String combined : flatGroups.keySet()) {
                 String lemma = combined.toLowerCase();
                 if (isValidEntity(sentence, combined)) {
-                    addNode(combined, "Concepto", nodes, textToNodeId, lemma);
+                    addNode(combined, "Concepto", graph, lemma);
                 }
             }
         }
     }
 
-    private void extractRelations(Map<String, Object> parsed, Map<String, GraphNode> nodes,
-            Set<GraphEdge> edges, Map<String, Integer> degreeMap,
-            Map<String, String> textToNodeId, Map<String, String> flatGroups) {
-        Map<String, String> kbpMap = Map.of(
-                "per:title", "es",
-                "per:employee_of", "trabaja para",
-                "org:top_members_employees", "tiene como miembro",
-                "org:country_of_headquarters", "ubicado en",
-                "per:countries_of_residence", "vive en");
-
-        List<Map<String, Object>> sentences = (List<Map<String, Object>>) parsed.get("sentences");
-
-        for (Map<String, Object> sentence : sentences) {
-            List<Map<String, Object>> tokens = (List<Map<String, Object>>) sentence.get("tokens");
-            Map<Integer, String> indexToPos = new HashMap<>();
-            Map<Integer, String> indexToLemma = new HashMap<>();
-            for (Map<String, Object> token : tokens) {
-                indexToLemma.put((Integer) token.get("index"), (String) token.get("lemma"));
-                indexToPos.put((Integer) token.get("index"), (String) token.get("pos"));
-            }
-
+    private void extractRelations(CoreNlpDocument parsed, ExtractedGraph graph, Map<String, String> flatGroups) {
+        for (CoreNlpDocument.Sentence sentence : parsed.sentences()) {
             // Procesar OpenIE
-            List<Map<String, Object>> openie = (List<Map<String, Object>>) sentence.get("openie");
-            if (openie != null) {
-                for (Map<String, Object> triple : openie) {
-                    String subject = (String) triple.get("subject");
-                    String object = (String) triple.get("object");
-                    String relation = (String) triple.get("relation");
-
-                    if (isValidRelation(relation, indexToPos)) {
-                        if (isValidTriple(sentence, subject, object)) {
-                            addNodeIfValid(subject, "Concepto", sentence, nodes, textToNodeId);
-                            addNodeIfValid(object, "Concepto", sentence, nodes, textToNodeId);
-
-                            // Obtener lemmas para subject y object
-                            String subjectLemma = obtenerLemmaDeTexto(sentence, subject);
-                            String objectLemma = obtenerLemmaDeTexto(sentence, object);
+            for (int triple = 0; triple < sentence.openieCount(); triple++) {
+                String subject = sentence.openieSubject(triple);
+                String object = sentence.openieObject(triple);
+                String relation = sentence.openieRelation(triple);
 
-                            connect(subjectLemma, objectLemma, relation, nodes, edges, degreeMap, textToNodeId);
-
-                        }
-                    }
+                if (isValidRelation(relation) && isValidTriple(sentence, subject, object)) {
+                    addNodeIfValid(subject, "Concepto", sentence, graph);
+                    addNodeIfValid(object, "Concepto", sentence, graph);
 
+                    // Lemas de sujeto y objeto
+                    connect(sentence.lemmaOf(subject), sentence.lemmaOf(object), relation, graph);
                 }
             }
 
             // Procesar KBP
-            List<Map<String, Object>> kbp = (List<Map<String, Object>>) sentence.get("kbp");
-            if (kbp != null) {
-                for (Map<String, Object> triple : kbp) {
-                    System.out.println(triple);
-                    String subject = (String) triple.get("subject");
-                    String object = (String) triple.get("object");
-                    String relation = kbpMap.getOrDefault((String) triple.get("relation"),
-                            (String) triple.get("relation"));
-
-                    if (isValidTriple(sentence, subject, object)) {
-                        addNodeIfValid(subject, "Concepto", sentence, nodes, textToNodeId);
-                        addNodeIfValid(object, "Concepto", sentence, nodes, textToNodeId);
+            for (int triple = 0; triple < sentence.kbpCount(); triple++) {
+                String subject = sentence.kbpSubject(triple);
+                String object = sentence.kbpObject(triple);
+                String relation = KBP_RELATIONS.getOrDefault(sentence.kbpRelation(triple),
+                        sentence.kbpRelation(triple));
+                log.trace("Triple KBP: {} {} {}", subject, relation, object);
 
-                        // Obtener lemmas para subject y object
-                        String subjectLemma = obtenerLemmaDeTexto(sentence, subject);
-                        String objectLemma = obtenerLemmaDeTexto(sentence, object);
-
-                        connect(subjectLemma, objectLemma, relation, nodes, edges, degreeMap, textToNodeId);
+                if (isValidTriple(sentence, subject, object)) {
+                    addNodeIfValid(subject, "Concepto", sentence, graph);
+                    addNodeIfValid(object, "Concepto", sentence, graph);
 
-                    }
+                    connect(sentence.lemmaOf(subject), sentence.lemmaOf(object), relation, graph);
                 }
             }
 
             // Procesar dependencias
-            extractFromDependencies(sentence, nodes, edges, degreeMap, textToNodeId);
+            extractFromDependencies(sentence, graph);
         }
     }
 
-    private boolean isValidEntity(Map<String, Object> sentence, String text) {
+    private boolean isValidEntity(CoreNlpDocument.Sentence sentence, String text) {
 
         if (text.contains("\n") || STOPWORDS.contains(text.toLowerCase())) {
-            System.out.println(text + "No es valid entity");
+            log.trace("{} no es una entidad válida", text);
             return false;
         }
 
-        List<Map<String, Object>> tokens = (List<Map<String, Object>>) sentence.get("tokens");
         boolean containsWord = false;
-        for (Map<String, Object> token : tokens) {
-            String word = (String) token.get("word");
-            String pos = (String) token.get("pos");
-            String ner = (String) token.get("ner");
-            System.out.println(word + "este es word para" + text);
-            if (text.contains(word)) {
-
+        for (int token = 0; token < sentence.tokenCount(); token++) {
+            String word = sentence.word(token);
+            if (word != null && text.contains(word)) {
                 containsWord = true;
-                if (!isValidPos(pos) || ner.equals("O")) {
+                if (!isValidPos(sentence.pos(token)) || "O".equals(sentence.ner(token))) {
                     return false;
                 }
             }
         }
         // Si no contiene ninguna palabra del texto, no es válido
-        if (!containsWord) {
-            return false;
-        }
-        return true;
+        return containsWord;
     }
 
-    private boolean isValidPos(String pos) {
-        return pos.startsWith("N") || pos.startsWith("PROPN") || pos.startsWith("ADJ");
+    // Tokens sin POS en la respuesta (null) no son válidos
+    static boolean isValidPos(String pos) {
+        return pos != null && (pos.startsWith("N") || pos.startsWith("PROPN") || pos.startsWith("ADJ"));
     }
 
-    private boolean isValidTriple(Map<String, Object> sentence, String subject, String object) {
-        System.out.println(subject + "" + object);
+    private boolean isValidTriple(CoreNlpDocument.Sentence sentence, String subject, String object) {
+        log.trace("Triple candidato: {} -> {}", subject, object);
         return subject != null && object != null && isValidEntity(sentence, subject) && isValidEntity(sentence, object);
     }
 
-    private boolean isValidRelation(String relation, Map<Integer, String> indexToPos) {
+    private boolean isValidRelation(String relation) {
         if (relation == null || relation.isEmpty())
             return false;
         String[] words = relation.split(" ");
-        System.out.println(relation);
+        log.trace("Relación candidata: {}", relation);
         for (String word : words) {
             if (word.length() < 3) {
                 return false;
@@ -264,77 +294,57 @@ public class GraphExtractorService implements Extractor {
         return true;
     }
 
-    private void addNodeIfValid(String text, String type, Map<String, Object> sentence,
-            Map<String, GraphNode> nodes, Map<String, String> textToNodeId) {
+    private void addNodeIfValid(String text, String type, CoreNlpDocument.Sentence sentence,
+            ExtractedGraph graph) {
 
         if (isValidEntity(sentence, text)) {
-            System.err.println(textToNodeId);
-            System.out.println("node valid y valid entity con kbp" + text);
+            log.trace("Entidad válida {}; claves actuales: {}", text, graph.textToNodeId);
             // Evitar crear nodo "Concepto" si ya existe nodo con tipo NER distinto de
             // "Concepto" para el mismo texto
-            boolean existsNER = nodes.values().stream()
-                    .anyMatch(n -> n.getText().equals(text) && !n.getType().equals("Concepto"));
-            if (type.equals("Concepto") && existsNER) {
-                System.out.println("este nodo ya existe" + text);
+            if (type.equals("Concepto") && graph.textsWithNerType.contains(text)) {
+                log.trace("El nodo {} ya existe con tipo NER", text);
                 return;
             }
-            // List<Map<String, Object>> tokens = (List<Map<String, Object>>)
-            // sentence.get("tokens");
-            if (!nodes.containsKey(text)) {
-                String lemma = obtenerLemmaDeTexto(sentence, text);
-                System.out.println(nodes);
-                System.out.println(lemma + "" + text);
-                addNode(text, type, nodes, textToNodeId, lemma);
+            if (!graph.nodes.containsKey(text)) {
+                String lemma = sentence.lemmaOf(text);
+                if (log.isTraceEnabled()) {
+                    log.trace("Nuevo nodo {} (lema {}); nodos actuales: {}", text, lemma, graph.nodes);
+                }
+                addNode(text, type, graph, lemma);
             }
 
         }
     }
 
-    private String obtenerLemmaDeTexto(Map<String, Object> sentence, String text) {
-        List<Map<String, Object>> tokens = (List<Map<String, Object>>) sentence.get("tokens");
-        return tokens.stream()
-                .filter(t -> text.equals(t.get("word")))
-                .findFirst()
-                .map(t -> (String) t.get("lemma"))
-                .orElse(text);
-    }
-
-    private void extractFromDependencies(Map<String, Object> sentence, Map<String, GraphNode> nodes,
-            Set<GraphEdge> edges, Map<String, Integer> degreeMap,
-            Map<String, String> textToNodeId) {
-        List<Map<String, Object>> deps = (List<Map<String, Object>>) sentence.get("enhancedPlusPlusDependencies");
-        Map<String, String> wordToGov = new HashMap<>();
-        Map<String, String> wordToRel = new HashMap<>();
+    private void extractFromDependencies(CoreNlpDocument.Sentence sentence, ExtractedGraph graph) {
         Map<String, String> verbToSubject = new HashMap<>();
         Map<String, String> verbToObject = new HashMap<>();
+        // Dependencias "obj" por verbo, en orden
+        Map<String, List<Integer>> objectsByVerb = new HashMap<>();
 
-        for (Map<String, Object> dep : deps) {
-            String depWord = (String) dep.get("dependentGloss");
-            String govWord = (String) dep.get("governorGloss");
-            String type = (String) dep.get("dep");
+        for (int dep = 0; dep < sentence.dependencyCount(); dep++) {
+            String type = sentence.dependencyType(dep);
+            String govWord = sentence.governorGloss(dep);
+            String depWord = sentence.dependentGloss(dep);
 
             if ("nsubj".equals(type)) {
                 verbToSubject.put(govWord, depWord);
             } else if ("obj".equals(type)) {
                 verbToObject.put(govWord, depWord);
+                objectsByVerb.computeIfAbsent(govWord, verb -> new ArrayList<>()).add(dep);
             }
-
-            wordToGov.put(depWord, govWord);
-            wordToRel.put(depWord, type);
         }
 
-        for (Map<String, Object> dep : deps) {
-            String subject = (String) dep.get("dependentGloss");
-            if ("nsubj".equals(dep.get("dep"))) {
-                String verb = (String) dep.get("governorGloss");
-                for (Map<String, Object> objDep : deps) {
-                    if ("obj".equals(objDep.get("dep")) && objDep.get("governorGloss").equals(verb)) {
-                        String object = (String) objDep.get("dependentGloss");
-                        if (isValidTriple(sentence, subject, object)) {
-                            addNodeIfValid(subject, "Concepto", sentence, nodes, textToNodeId);
-                            addNodeIfValid(object, "Concepto", sentence, nodes, textToNodeId);
-                            connect(subject, object, verb, nodes, edges, degreeMap, textToNodeId);
-                        }
+        for (int dep = 0; dep < sentence.dependencyCount(); dep++) {
+            if ("nsubj".equals(sentence.dependencyType(dep))) {
+                String subject = sentence.dependentGloss(dep);
+                String verb = sentence.governorGloss(dep);
+                for (int objDep : objectsByVerb.getOrDefault(verb, List.of())) {
+                    String object = sentence.dependentGloss(objDep);
+                    if (isValidTriple(sentence, subject, object)) {
+                        addNodeIfValid(subject, "Concepto", sentence, graph);
+                        addNodeIfValid(object, "Concepto", sentence, graph);
+                        connect(subject, object, verb, graph);
                     }
                 }
             }
@@ -344,132 +354,91 @@ public class GraphExtractorService implements Extractor {
             if (verbToObject.containsKey(verb)) {
                 String object = verbToObject.get(verb);
                 if (isValidTriple(sentence, subject, object)) {
-                    addNodeIfValid(subject, "Concepto", sentence, nodes, textToNodeId);
-                    addNodeIfValid(object, "Concepto", sentence, nodes, textToNodeId);
-                    connect(subject, object, verb, nodes, edges, degreeMap, textToNodeId);
+                    addNodeIfValid(subject, "Concepto", sentence, graph);
+                    addNodeIfValid(object, "Concepto", sentence, graph);
+                    connect(subject, object, verb, graph);
                 }
             }
         }
     }
 
-    private void calculateImportance(Map<String, GraphNode> nodes, Map<String, Integer> degreeMap) {
-        for (GraphNode node : nodes.values()) {
-            int degree = degreeMap.getOrDefault(node.getText(), 0);
+    private void calculateImportance(ExtractedGraph graph) {
+        for (GraphNode node : graph.nodes.values()) {
+            int degree = graph.degreeMap.getOrDefault(node.getText(), 0);
             node.setImportance(node.getFrequency() * (1 + degree));
         }
     }
 
-    private void addNode(String text, String type, Map<String, GraphNode> nodes, Map<String, String> textToNodeId,
-            String lemma) {
+    private void addNode(String text, String type, ExtractedGraph graph, String lemma) {
         String normalizedText = lemma != null ? lemma : text.toLowerCase();
-        // Buscar si ya existe nodo con el mismo texto y tipo NER distinto de "Concepto"
-        Optional<String> existingKey = textToNodeId.keySet().stream()
-                .filter(k -> k.startsWith(normalizedText + "_") && !k.endsWith("_Concepto"))
-                .findFirst();
-
-        String uniqueKey;
-        if (existingKey.isPresent()) {
-            // Mantener tipo NER existente para evitar sobrescritura
-            uniqueKey = existingKey.get();
-        } else {
-            uniqueKey = normalizedText + "_" + type;
-        }
-
-        if (!textToNodeId.containsKey(uniqueKey)) {
-            String id = String.valueOf(nodeIdCounter++);
-            GraphNode node = new GraphNode(id, uniqueKey.split("_", 2)[1], text, 1, 0.0);
-            nodes.put(id, node);
-            textToNodeId.put(uniqueKey, id);
+        // Si ya existe nodo con el mismo texto y tipo NER distinto de "Concepto",
+        // se mantiene ese tipo para evitar sobrescritura
+        String nerKey = graph.nerKeyByText.get(normalizedText);
+        String uniqueKey = nerKey != null ? nerKey : normalizedText + "_" + type;
+        String nodeType = nerKey != null ? nerKey.substring(normalizedText.length() + 1) : type;
+
+        String id = graph.textToNodeId.get(uniqueKey);
+        if (id == null) {
+            id = graph.nextNodeId();
+            graph.nodes.put(id, new GraphNode(id, nodeType, text, 1, 0.0));
+            graph.textToNodeId.put(uniqueKey, id);
+            graph.typeByText.putIfAbsent(text.toLowerCase(Locale.ROOT), nodeType);
+            if (!"Concepto".equals(nodeType)) {
+                graph.nerKeyByText.putIfAbsent(normalizedText, uniqueKey);
+                graph.textsWithNerType.add(text);
+            }
         } else {
-            String id = textToNodeId.get(uniqueKey);
-            GraphNode node = nodes.get(id);
+            GraphNode node = graph.nodes.get(id);
             node.setFrequency(node.getFrequency() + 1);
         }
+        if (graph.currentDocId != null) {
+            graph.documentIds.computeIfAbsent(id, key -> new LinkedHashSet<>()).add(graph.currentDocId);
+        }
     }
 
-    private void connect(String fromText, String toText, String relation,
-            Map<String, GraphNode> nodes, Set<GraphEdge> edges,
-            Map<String, Integer> degreeMap, Map<String, String> textToId) {
-        // Buscar claves exactas para fromText y toText con cualquier tipo
-        /*
-         * Optional<String> fromKeyOpt = textToNodeId.keySet().stream()
-         * .filter(k -> k.startsWith(fromText + "_"))
-         * .findFirst();
-         * Optional<String> toKeyOpt = textToNodeId.keySet().stream()
-         * .filter(k -> k.startsWith(toText + "_"))
-         * .findFirst();
-         * 
-         * if (fromKeyOpt.isEmpty() || toKeyOpt.isEmpty()) {
-         * return;
-         * }
-         * 
-         * String fromKey = fromKeyOpt.get();
-         * String toKey = toKeyOpt.get();
-         */
-
-        String fromKey = fromText + "_" + getNodeType(fromText, nodes);
-        String toKey = toText + "_" + getNodeType(toText, nodes);
-        String sourceId = textToId.get(fromKey);
-        String targetId = textToId.get(toKey);
-
-        if (sourceId != null && targetId != null && !sourceId.equals(targetId)) {
-            // Check if the edge already exists to avoid duplicates
-            boolean edgeExists = edges.stream().anyMatch(edge -> edge.getSource().equals(sourceId) &&
-                    edge.getTarget().equals(targetId) && edge.getrelationship().equals(relation)
-
-            );
-            if (!edgeExists) {
-                edges.add(new GraphEdge(sourceId, targetId, relation));
-                degreeMap.put(fromText, degreeMap.getOrDefault(fromText, 0) + 1);
-                degreeMap.put(toText, degreeMap.getOrDefault(toText, 0) + 1);
-            }
+    private void connect(String fromText, String toText, String relation, ExtractedGraph graph) {
+        String sourceId = graph.textToNodeId.get(fromText + "_" + getNodeType(fromText, graph));
+        String targetId = graph.textToNodeId.get(toText + "_" + getNodeType(toText, graph));
+
+        // El LinkedHashSet ya descarta las aristas repetidas (origen, destino, relación)
+        if (sourceId != null && targetId != null && !sourceId.equals(targetId)
+                && graph.edges.add(new GraphEdge(sourceId, targetId, relation))) {
+            graph.degreeMap.merge(fromText, 1, Integer::sum);
+            graph.degreeMap.merge(toText, 1, Integer::sum);
         }
     }
 
-    private String getNodeType(String text, Map<String, GraphNode> nodes) {
-        return nodes.values().stream()
-                .filter(n -> n.getText().equalsIgnoreCase(text))
-                .findFirst()
-                .map(GraphNode::getType)
-                .orElse("Concepto");
+    // Tipo del primer nodo con ese texto (sin distinguir mayúsculas), o "Concepto"
+    private String getNodeType(String text, ExtractedGraph graph) {
+        return graph.typeByText.getOrDefault(text.toLowerCase(Locale.ROOT), "Concepto");
     }
 
-    private Map<String, String> groupFlatDependencies(Map<String, Object> parsed) {
+    private Map<String, String> groupFlatDependencies(CoreNlpDocument parsed) {
         Map<String, String> combinedMap = new HashMap<>();
 
-        List<Map<String, Object>> sentences = (List<Map<String, Object>>) parsed.get("sentences");
-        for (Map<String, Object> sentence : sentences) {
-            List<Map<String, Object>> dependencies = (List<Map<String, Object>>) sentence
-                    .get("enhancedPlusPlusDependencies");
-            Map<Integer, String> indexToWord = new HashMap<>();
-            Map<Integer, String> indexToPos = new HashMap<>();
-            List<Map<String, Object>> tokens = (List<Map<String, Object>>) sentence.get("tokens");
-            for (Map<String, Object> token : tokens) {
-                int index = (Integer) token.get("index");
-                indexToWord.put(index, (String) token.get("word"));
-                indexToPos.put(index, (String) token.get("pos"));
-            }
-
-            Map<Integer, StringBuilder> combinedPhrases = new HashMap<>();
-            for (Map<String, Object> dep : dependencies) {
-                String type = (String) dep.get("dep");
-                Integer govIndex = (Integer) dep.get("governor");
-                Integer depIndex = (Integer) dep.get("dependent");
-                String depPos = indexToPos.get(depIndex);
-                String govPos = indexToPos.get(govIndex);
+        for (CoreNlpDocument.Sentence sentence : parsed.sentences()) {
+            // Frase acumulada por índice del gobernador
+            StringBuilder[] combinedPhrases = new StringBuilder[sentence.tokenCount() + 1];
+            for (int dep = 0; dep < sentence.dependencyCount(); dep++) {
+                String type = sentence.dependencyType(dep);
+                int govIndex = sentence.governor(dep);
+                int depIndex = sentence.dependent(dep);
+                String depPos = sentence.posOfIndex(depIndex);
+                String govPos = sentence.posOfIndex(govIndex);
 
                 if (("flat".equals(type) || "compound".equals(type) || "amod".equals(type)) &&
-                        (depPos.startsWith("N") || govPos.startsWith("N"))) {
-                    String govWord = indexToWord.get(govIndex);
-                    String depWord = indexToWord.get(depIndex);
-                    if (!combinedPhrases.containsKey(govIndex)) {
-                        combinedPhrases.put(govIndex, new StringBuilder(govWord));
+                        (depPos != null && depPos.startsWith("N") || govPos != null && govPos.startsWith("N"))
+                        && govIndex >= 0 && govIndex < combinedPhrases.length) {
+                    if (combinedPhrases[govIndex] == null) {
+                        combinedPhrases[govIndex] = new StringBuilder(String.valueOf(sentence.wordOfIndex(govIndex)));
                     }
-                    combinedPhrases.get(govIndex).append(" ").append(depWord);
+                    combinedPhrases[govIndex].append(" ").append(sentence.wordOfIndex(depIndex));
                 }
             }
 
-            for (StringBuilder phrase : combinedPhrases.values()) {
+            for (StringBuilder phrase : combinedPhrases) {
+                if (phrase == null)
+                    continue;
                 String combined = phrase.toString().trim();
                 if (isValidEntity(sentence, combined)) {
                     combinedMap.put(combined, combined);
@@ -479,9 +448,33 @@ public class GraphExtractorService implements Extractor {
         return combinedMap;
     }
 
-    @Override
-    public GraphResult extractTriplesFromDocuments(List<Discurs> documents) {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'extractTriplesFromDocuments'");
+    /**
+     * Estado de una llamada a extractTriples: el grafo, sus índices (para que
+     * cada alta de nodo o arista cueste O(1) en lugar de recorrer todos los
+     * nodos o aristas) y el contador de IDs, que empieza en 1 en cada llamada.
+     */
+    private static final class ExtractedGraph {
+        private int nodeIdCounter = 1;
+
+        // Nodos por ID, en orden de creación
+        final Map<String, GraphNode> nodes = new LinkedHashMap<>();
+        final Set<GraphEdge> edges = new LinkedHashSet<>();
+        // Aristas por texto de sus extremos (calculateImportance)
+        final Map<String, Integer> degreeMap = new HashMap<>();
+        // "textoNormalizado_tipo" -> ID del nodo
+        final Map<String, String> textToNodeId = new HashMap<>();
+        // Texto normalizado -> clave del primer nodo con tipo NER (no "Concepto")
+        final Map<String, String> nerKeyByText = new HashMap<>();
+        // Textos (exactos) con algún nodo de tipo NER
+        final Set<String> textsWithNerType = new HashSet<>();
+        // Texto en minúsculas -> tipo del primer nodo con ese texto
+        final Map<String, String> typeByText = new HashMap<>();
+        // Documentos de cada nodo (extractTriplesFromDocuments) y el del chunk en curso
+        final Map<String, Set<String>> documentIds = new HashMap<>();
+        String currentDocId;
+
+        String nextNodeId() {
+            return String.valueOf(nodeIdCounter++);
+        }
     }
-}
\ No newline at end of file
+}
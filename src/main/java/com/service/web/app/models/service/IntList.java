@@ -0,0 +1,64 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+
+/**
+ * Lista creciente de int sin cajas (adyacencias, orden de nodos, slots).
+ */
+final class IntList {
+
+	private int[] values;
+	private int size;
+
+	IntList() {
+		this(4);
+	}
+
+	IntList(int capacity) {
+		this.values = new int[Math.max(1, capacity)];
+	}
+
+	void add(int value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, size * 2);
+		values[size++] = value;
+	}
+
+	int get(int index) {
+		return values[index];
+	}
+
+	void set(int index, int value) {
+		values[index] = value;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Quita la primera aparición del valor (sin conservar el orden: el último
+	 * ocupa su hueco).
+	 */
+	boolean removeValue(int value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) {
+				values[i] = values[--size];
+				return true;
+			}
+		}
+		return false;
+	}
+
+	int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
@@ -0,0 +1,378 @@
+package com.service.web.app.models.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Estado del grafo de una única extracción (nodos y aristas).
+ * Se crea una instancia por petición, por lo que no se comparte entre hilos y
+ * varias extracciones pueden ejecutarse en paralelo sin bloquearse.
+ *
+ * Nodos y aristas se guardan en columnas de enteros (NodeStore, EdgeStore)
+ * con las cadenas internadas; los objetos Node y Edge solo se crean al
+ * devolver el grafo o emitir los cambios en streaming.
+ */
+class KnowledgeGraph {
+
+	// Nodos por índice de ID (lema normalizado), en orden de inserción
+	private final NodeStore nodes = new NodeStore();
+	// Aristas únicas (origen, destino, relación) con índices de adyacencia por nodo
+	private final EdgeStore edges = new EdgeStore();
+	private final StringTable relations = new StringTable();
+	// Relaciones de los pares fusionados por mergeSimilarRelations
+	private final RelationSets relationSets = new RelationSets();
+	// Índice de contención sobre los IDs de los nodos (entidades contenedoras)
+	private final NodeContainmentIndex containment = new NodeContainmentIndex();
+
+	// Nodos y aristas nuevos desde la última consulta (solo en modo streaming):
+	// posición del nodo en el orden de inserción y slot de la arista
+	private final boolean trackChanges;
+	private final IntList addedNodePositions = new IntList();
+	private final IntList addedEdgeSlots = new IntList();
+
+	// Lista de stopwords en español para filtrar nodos irrelevantes
+	private static final Set<String> SPANISH_STOPWORDS = Set.of(
+			"el", "la", "los", "las", "un", "una", "unos", "unas", "de", "del", "al", "lo",
+			"y", "e", "o", "u", "que", "cual", "cuyo", "donde", "como", "cuando", "a", "en",
+			"con", "por", "para", "sin", "sobre", "entre", "hacia", "desde", "se", "sus",
+			"tu", "tus", "mi", "mis", "nos", "vos", "su", "aquél", "ésa", "esto", "eso", "aquello");
+
+	KnowledgeGraph() {
+		this(false);
+	}
+
+	KnowledgeGraph(boolean trackChanges) {
+		this.trackChanges = trackChanges;
+	}
+
+	boolean containsNode(String id) {
+		return id != null && nodes.indexOf(id) >= 0;
+	}
+
+	/**
+	 * Registra el documento en un nodo ya existente (sin alterar su frecuencia).
+	 */
+	void addDocumentId(String id, String docId) {
+		int node = nodes.indexOf(id);
+		if (node >= 0) {
+			nodes.addDocument(node, docId);
+		}
+	}
+
+	/**
+	 * Añade o actualiza un nodo.
+	 * Gestiona entidades anidadas: si el nodo es contenido en otro, actualiza el
+	 * nodo padre.
+	 * Usa el ID (lema) para la unicidad. Incrementa frecuencia.
+	 * Prioriza tipos NER sobre 'Concepto'. Actualiza el nombre si el nuevo es más
+	 * largo.
+	 */
+	void addNode(String id, String nodeName, String nodeType, String docId) {
+		if (shouldSkipNode(id, nodeType))
+			return;
+
+		// Buscar entidades contenedoras
+		String parentId = findParentEntity(id);
+		if (parentId != null) {
+			int parent = nodes.indexOf(parentId);
+			nodes.addDocument(parent, docId);
+			nodes.incrementFrequency(parent);
+			return;
+		}
+
+		int node = nodes.intern(id);
+		if (!nodes.contains(node)) {
+			containment.add(id);
+			nodes.create(node, nodeName, nodeType, docId);
+			if (trackChanges)
+				addedNodePositions.add(nodes.orderPosition(node));
+			return;
+		}
+		nodes.incrementFrequency(node);
+		nodes.addDocument(node, docId);
+		// Lógica de actualización de tipo: Priorizar NER sobre Concepto
+		if (!isConceptType(nodeType) && isConceptType(nodes.type(node))) {
+			nodes.setType(node, nodeType); // Actualiza de Concepto a NER específico
+		}
+		// Actualizar nombre si el nuevo es más descriptivo (ej. más largo)
+		String existingName = nodes.name(node);
+		if (nodeName != null && nodeName.length() > existingName.length() || existingName.equals(id)) {
+			if (nodeName != null && (!nodeName.equals(id) || existingName.equals(id))) {
+				nodes.setName(node, nodeName);
+			}
+		}
+	}
+
+	private boolean shouldSkipNode(String id, String type) {
+		if (id == null || id.isBlank() || SPANISH_STOPWORDS.contains(id)) {
+			return true;
+		}
+		if ("NUMBER".equals(type)) {
+			// Permitir números que tengan exactamente 4 dígitos (posibles años)
+			return !(id.matches("\\d{4}"));
+		}
+		return false;
+	}
+
+	// ID existente más largo que contiene al candidato o está contenido en él
+	private String findParentEntity(String candidateId) {
+		return containment.findLongestRelated(candidateId);
+	}
+
+	/**
+	 * Añade una arista. Evita duplicados y auto-referencias.
+	 * Normaliza la relación a minúsculas.
+	 */
+	void addEdge(String sourceId, String targetId, String relationship) {
+		if (sourceId == null || targetId == null || relationship == null ||
+				sourceId.isBlank() || targetId.isBlank() || relationship.isBlank() ||
+				sourceId.equals(targetId)) { // Evitar auto-referencias o vacíos
+			return;
+		}
+		// El EdgeStore se encarga de la unicidad de (origen, destino, relación)
+		int slot = edges.add(nodes.intern(sourceId), nodes.intern(targetId),
+				relations.intern(relationship.toLowerCase().trim()));
+		if (slot >= 0 && trackChanges) {
+			addedEdgeSlots.add(slot);
+		}
+	}
+
+	/**
+	 * Nodos creados desde la última llamada que siguen en el grafo.
+	 */
+	List<Node> drainAddedNodes() {
+		List<Node> added = new ArrayList<>(addedNodePositions.size());
+		for (int i = 0; i < addedNodePositions.size(); i++) {
+			int node = nodes.nodeAt(addedNodePositions.get(i));
+			if (node >= 0)
+				added.add(nodes.toNode(node));
+		}
+		addedNodePositions.clear();
+		return added;
+	}
+
+	/**
+	 * Aristas creadas desde la última llamada (con sus extremos actuales).
+	 */
+	List<Edge> drainAddedEdges() {
+		List<Edge> added = new ArrayList<>(addedEdgeSlots.size());
+		for (int i = 0; i < addedEdgeSlots.size(); i++) {
+			int slot = addedEdgeSlots.get(i);
+			if (edges.isLive(slot))
+				added.add(toEdge(slot));
+		}
+		addedEdgeSlots.clear();
+		return added;
+	}
+
+	// Verifica si un tipo es 'Concepto'
+	private boolean isConceptType(String type) {
+		return "Concepto".equals(type);
+	}
+
+	/**
+	 * Fusiona las menciones de una cadena de correferencia en su representante,
+	 * siempre que la mención ya exista como nodo.
+	 */
+	void mergeCoreferences(String representative, List<String> mentionIds) {
+		for (String id : mentionIds) {
+			if (id != null && nodes.indexOf(id) >= 0)
+				mergeNodes(representative, id);
+		}
+	}
+
+	private void mergeNodes(String mainId, String synonymId) {
+		int main = nodes.indexOf(mainId);
+		int synonym = nodes.indexOf(synonymId);
+
+		// Una mención que normaliza al mismo ID que el representante no se fusiona
+		// consigo misma (antes se eliminaba el nodo)
+		if (main >= 0 && synonym >= 0 && main != synonym) {
+			// Fusionar documentos y frecuencia
+			nodes.mergeDocuments(main, synonym);
+			nodes.setFrequency(main, nodes.frequency(main) + nodes.frequency(synonym));
+
+			// Redirigir aristas: solo las del sinónimo, gracias a los índices de
+			// adyacencia (las que quedan duplicadas o en bucle se descartan)
+			edges.redirect(synonym, main);
+
+			removeNode(synonym);
+		}
+	}
+
+	// Importancia por frecuencia: log(1 + frecuencia). Ver también
+	// calculatePageRankImportance
+	void calculateNodeImportance() {
+		for (int position = 0; position < nodes.orderSize(); position++) {
+			int node = nodes.nodeAt(position);
+			if (node >= 0)
+				nodes.setImportance(node, Math.log1p(nodes.frequency(node))); // log1p = log(1+frecuencia)
+		}
+	}
+
+	/**
+	 * Importancia = PageRank del nodo sobre las aristas vivas (con su
+	 * multiplicidad: dos relaciones entre el mismo par pesan doble), multiplicado
+	 * por el número de nodos vivos para que la media sea 1 y no dependa del tamaño
+	 * del grafo. Los nodos vivos se renumeran 0..size-1: los IDs de nodos
+	 * fusionados por correferencia o eliminados no cuentan como nodos colgantes
+	 * ni reciben teletransporte. Devuelve las iteraciones hechas.
+	 */
+	int calculatePageRankImportance(double damping, int maxIterations, double tolerance) {
+		int[] dense = new int[nodes.idCount()];
+		Arrays.fill(dense, -1);
+		int live = 0;
+		for (int position = 0; position < nodes.orderSize(); position++) {
+			int node = nodes.nodeAt(position);
+			if (node >= 0)
+				dense[node] = live++;
+		}
+		int[] sources = new int[edges.size()];
+		int[] targets = new int[edges.size()];
+		int count = 0;
+		for (int slot = 0; slot < edges.slotCount(); slot++) {
+			if (!edges.isLive(slot))
+				continue;
+			int source = edges.source(slot), target = edges.target(slot);
+			// Aristas con algún extremo que ya no es un nodo vivo no cuentan
+			if (source >= dense.length || target >= dense.length || dense[source] < 0 || dense[target] < 0)
+				continue;
+			sources[count] = dense[source];
+			targets[count++] = dense[target];
+		}
+		GraphCentrality centrality = new GraphCentrality(live, Arrays.copyOf(sources, count),
+				Arrays.copyOf(targets, count));
+		double[] rank = centrality.pageRank(damping, maxIterations, tolerance);
+		for (int position = 0; position < nodes.orderSize(); position++) {
+			int node = nodes.nodeAt(position);
+			if (node >= 0)
+				nodes.setImportance(node, rank[dense[node]] * live);
+		}
+		return centrality.iterations();
+	}
+
+	void cleanIsolatedNodes() {
+		for (int position = 0; position < nodes.orderSize(); position++) {
+			int node = nodes.nodeAt(position);
+			if (node >= 0 && !edges.hasEdges(node) && nodes.frequency(node) < 2)
+				removeNode(node);
+		}
+	}
+
+	private void removeNode(int node) {
+		nodes.remove(node);
+		containment.remove(nodes.id(node));
+	}
+
+	/**
+	 * Une las aristas con el mismo origen y destino en la primera de ellas (en
+	 * orden de slot). Su relación pasa a ser el conjunto de relaciones del par,
+	 * internado en relationSets; el texto "a|b" solo se construye al devolver
+	 * el grafo.
+	 *
+	 * Una pasada por los slots: los pares se agrupan en una tabla hash de long
+	 * (origen << 32 | destino) y las aristas de cada par se encadenan en un
+	 * int[] por slot, sin objetos por arista ni cadenas intermedias.
+	 */
+	void mergeSimilarRelations() {
+		int slots = edges.slotCount();
+		int capacity = Integer.highestOneBit(Math.max(1, edges.size())) * 4;
+		int mask = capacity - 1;
+		long[] pairKeys = new long[capacity];
+		// Posición -> primer slot del par + 1 (0 = libre) y último slot del par
+		int[] pairFirst = new int[capacity];
+		int[] pairLast = new int[capacity];
+		// Slot -> siguiente slot del mismo par + 1 (0 = último)
+		int[] next = new int[slots];
+		boolean repeated = false;
+		for (int slot = 0; slot < slots; slot++) {
+			if (!edges.isLive(slot))
+				continue;
+			long key = (long) edges.source(slot) << 32 | edges.target(slot);
+			int pos = StringTable.mix(Long.hashCode(key)) & mask;
+			while (pairFirst[pos] != 0 && pairKeys[pos] != key)
+				pos = (pos + 1) & mask;
+			if (pairFirst[pos] == 0) {
+				pairKeys[pos] = key;
+				pairFirst[pos] = slot + 1;
+			} else {
+				next[pairLast[pos]] = slot + 1;
+				repeated = true;
+			}
+			pairLast[pos] = slot;
+		}
+		if (!repeated)
+			return;
+
+		// El primer slot de cada par se visita antes que los demás, que se vacían
+		int[] members = new int[8];
+		for (int slot = 0; slot < slots; slot++) {
+			if (next[slot] == 0 || !edges.isLive(slot))
+				continue;
+			int count = addRelation(members, 0, edges.relation(slot));
+			for (int other = next[slot] - 1; other >= 0; other = next[other] - 1) {
+				int needed = count + relationCount(edges.relation(other));
+				if (needed > members.length)
+					members = Arrays.copyOf(members, Math.max(needed, members.length * 2));
+				count = addRelation(members, count, edges.relation(other));
+				edges.remove(other);
+			}
+			int set = relationSets.intern(members, 0, count);
+			edges.replace(slot, edges.source(slot), edges.target(slot), -1 - set);
+		}
+	}
+
+	// Una relación (>= 0) o un conjunto ya fusionado (-1 - índice en relationSets)
+	private int relationCount(int relation) {
+		return relation >= 0 ? 1 : relationSets.memberCount(-1 - relation);
+	}
+
+	// Añade la relación o los miembros del conjunto que no estén ya en members
+	private int addRelation(int[] members, int count, int relation) {
+		if (relation >= 0)
+			return addMember(members, count, relation);
+		int set = -1 - relation;
+		for (int i = 0; i < relationSets.memberCount(set); i++)
+			count = addMember(members, count, relationSets.member(set, i));
+		return count;
+	}
+
+	private static int addMember(int[] members, int count, int relation) {
+		for (int i = 0; i < count; i++) {
+			if (members[i] == relation)
+				return count;
+		}
+		members[count] = relation;
+		return count + 1;
+	}
+
+	private String relationLabel(int relation) {
+		return relation >= 0 ? relations.get(relation) : relationSets.label(-1 - relation, relations);
+	}
+
+	GraphResult toGraphResult() {
+		List<Node> nodeList = new ArrayList<>(nodes.size());
+		for (int position = 0; position < nodes.orderSize(); position++) {
+			int node = nodes.nodeAt(position);
+			if (node >= 0)
+				nodeList.add(nodes.toNode(node));
+		}
+		List<Edge> edgeList = new ArrayList<>(edges.size());
+		for (int slot = 0; slot < edges.slotCount(); slot++) {
+			if (edges.isLive(slot))
+				edgeList.add(toEdge(slot));
+		}
+		return new GraphResult(nodeList, edgeList);
+	}
+
+	private Edge toEdge(int slot) {
+		return new Edge(nodes.id(edges.source(slot)), nodes.id(edges.target(slot)),
+				relationLabel(edges.relation(slot)));
+	}
+}
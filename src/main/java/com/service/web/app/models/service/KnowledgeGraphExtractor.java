@@ -1,25 +1,33 @@
 package com.service.web.app.models.service;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import com.service.web.app.models.entity.Discurs;
-import com.service.web.app.models.entity.Edge;
 import com.service.web.app.models.entity.GraphResult;
-import com.service.web.app.models.entity.Node;
 
 import edu.stanford.nlp.ie.util.RelationTriple;
 import edu.stanford.nlp.ling.CoreAnnotations;
@@ -28,7 +36,6 @@ import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.ling.IndexedWord;
 import edu.stanford.nlp.naturalli.NaturalLogicAnnotations;
 import edu.stanford.nlp.pipeline.Annotation;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.semgraph.SemanticGraph;
 import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations;
 import edu.stanford.nlp.semgraph.SemanticGraphEdge;
@@ -38,16 +45,31 @@ import edu.stanford.nlp.coref.CorefCoreAnnotations;
 import edu.stanford.nlp.coref.data.CorefChain;
 import edu.stanford.nlp.coref.data.CorefChain.CorefMention;
 
+// Principal: GraphExtractorService también es un Extractor si hay servidores remotos
 @Service
+@Primary
 class KnowledgeGraphExtractor implements Extractor {
 
-	// --- Instancia Singleton de CoreNLP y almacenamiento del grafo ---
-	private final StanfordCoreNLP pipeline;
-	// Usamos ConcurrentHashMap para seguridad en hilos (buena práctica en Spring)
-	// Mapa para nodos: Clave = ID del nodo (lema normalizado), Valor = Objeto Node
-	private final Map<String, Node> nodes = new ConcurrentHashMap<>();
-	// Set para aristas: Garantiza unicidad basado en Edge.equals/hashCode
-	private final Set<Edge> edges = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private static final Logger log = LoggerFactory.getLogger(KnowledgeGraphExtractor.class);
+
+	// --- Pool compartido de pipelines de CoreNLP ---
+	// El grafo (nodos/aristas) vive en un KnowledgeGraph propio de cada petición
+	private final PipelinePool pipelinePool;
+	// Extracciones de chunks ya vistos (mismo texto y configuración)
+	private final ChunkCache chunkCache;
+	// Hilos que anotan los chunks de una petición en paralelo
+	private final ExecutorService chunkExecutor;
+	private final int maxBatchesInFlight;
+	// Divide cada documento en chunks de oraciones bajo demanda
+	private final TextChunker chunker;
+	// Junta chunks cortos seguidos en lotes que se anotan con una sola pipeline
+	private final ChunkBatcher batcher;
+	// Timers por fase y contadores de chunks/nodos/aristas (Actuator)
+	private final ExtractionMetrics metrics;
+	// PageRank o frecuencia (nlp.importance.*)
+	private final NodeImportance importance;
+	// Documento cuyas trazas se escriben a INFO (nlp.trace.doc-id, vacío = ninguno)
+	private final String tracedDocId;
 
 	// Mapeo para relaciones KBP (mantenido)
 	private static final Map<String, String> KBP_RELATION_MAP = Map.ofEntries(
@@ -73,162 +95,345 @@ class KnowledgeGraphExtractor implements Extractor {
 			"nmod", "asociado a",
 			"acl:relcl", "que");
 
-	public KnowledgeGraphExtractor() {
-		// --- Configuración de CoreNLP ---
-		Properties props = new Properties();
-
-		// Cargar archivo Spanish.properties desde el classpath
-		try (InputStream input = KnowledgeGraphExtractor.class.getClassLoader()
-				.getResourceAsStream("StanfordCoreNLP-spanish.properties")) {
-			if (input == null) {
-				throw new IOException("No se encontró el archivo Spanish.properties");
-			}
-			props.load(input); // Carga las propiedades en el objeto props
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
-		// 1. DEFINIR ANOTADORES: Lista explícita de los que usaremos.
-		// Incluye los de las props por defecto + coref + openie.
-		// OMITIMOS 'parse' para MEJOR RENDIMIENTO, ya que nos basamos en 'depparse'.
-		// Incluimos 'mwt' (Multi-Word Tokenizer), importante para español.
-		props.setProperty("annotators", "tokenize,ssplit,mwt,pos,lemma,depparse,ner,kbp,coref,natlog,openie");
-
-		props.setProperty("ner.fine.regexner.ignorecase", "true");
-
-		// OpenIE (Open Information Extraction) - Configurar
-		props.setProperty("openie.resolve_coref", "true"); // Intentar usar coreferencia para mejores triples
-		props.setProperty("openie.ignore_affinity", "false"); // Usar afinidad para filtrar
-		props.setProperty("openie.affinity_probability_cap", "0.6"); // Umbral de confianza
-		props.setProperty("openie.triple.strict", "false");
-		props.setProperty("openie.affinity.threads", "3");
-
-		// Inicializar la pipeline (puede tardar un poco la primera vez)
-		System.out.println("Inicializando pipeline de CoreNLP con configuración personalizada...");
-		this.pipeline = new StanfordCoreNLP(props);
-		System.out.println("Pipeline lista.");
+	KnowledgeGraphExtractor(PipelinePool pipelinePool, ChunkCache chunkCache, TextChunker chunker,
+			ChunkBatcher batcher, @Qualifier("chunkExecutor") ExecutorService chunkExecutor,
+			@Value("${nlp.extraction.threads:4}") int extractionThreads, ExtractionMetrics metrics,
+			NodeImportance importance, @Value("${nlp.trace.doc-id:}") String tracedDocId) {
+		this.pipelinePool = pipelinePool;
+		this.metrics = metrics;
+		this.importance = importance;
+		this.tracedDocId = tracedDocId == null ? "" : tracedDocId.trim();
+		this.chunkCache = chunkCache;
+		this.chunker = chunker;
+		this.batcher = batcher;
+		this.chunkExecutor = chunkExecutor;
+		// Ventana de lotes anotándose por petición: mantiene ocupados los hilos sin
+		// acaparar la cola del executor con documentos enormes
+		this.maxBatchesInFlight = Math.max(1, extractionThreads * 2);
 	}
 
 	/**
 	 * Procesa el texto y extrae el grafo de conocimiento.
-	 * Es synchronized para seguridad si se llama desde múltiples hilos en Spring.
-	 * Limpia el estado interno (nodos/aristas) antes de cada extracción.
+	 * Cada llamada trabaja sobre su propio KnowledgeGraph, por lo que varias
+	 * peticiones pueden extraer en paralelo (limitadas por el pool de pipelines).
 	 * 
 	 * @param text Texto en español a analizar.
 	 * @return GraphResult con listas de nodos y aristas.
 	 */
 	@Override
-	public synchronized GraphResult extractTriplesFromDocuments(List<Discurs> documents) {
-		// 1. Limpiar estado de la extracción anterior
-		nodes.clear();
-		edges.clear();
-		System.out.printf("Iniciando extracción para %d documentos...\n", documents.size());
-
-		// 2. Iterar sobre cada documento
-		for (Discurs doc : documents) {
-			String docId = doc.getId();
-			System.out.printf("Procesando Documento ID: %s\n", doc.getId()); // Asume que Document tiene un id
-			String text = doc.getText(); // Asume que Document tiene el contenido
-
-			if (text == null || text.isBlank()) {
-				System.out.printf("  Documento ID: %s está vacío, saltando.\n", doc.getId());
-				continue;
-			}
-			// - Limpiar Texto ---
+	public GraphResult extractTriplesFromDocuments(List<Discurs> documents) {
+		return extractTriplesFromDocuments(documents, pipelinePool.defaultProfile());
+	}
 
-			// 3. Dividir el texto del documento en chunks
-			List<String> chunks = splitTextIntoChunks(text);
-			System.out.printf("  Dividido en %d chunks.\n", chunks.size());
+	/**
+	 * Igual que extractTriplesFromDocuments, anotando con las pipelines del perfil
+	 * indicado (sin coref ni KBP en los perfiles rápidos).
+	 */
+	@Override
+	public GraphResult extractTriplesFromDocuments(List<Discurs> documents, AnnotatorProfile profile) {
+		return extract(documents, profile, new KnowledgeGraph(), graph -> {
+		});
+	}
 
-			// 4. Procesar cada chunk y acumular resultados
-			for (int i = 0; i < chunks.size(); i++) {
-				System.out.printf("    Procesando chunk %d/%d...\n", i + 1, chunks.size());
-				// Llama al método interno que realmente ejecuta CoreNLP
-				processTextChunk(chunks.get(i), docId);
-			}
-			System.out.printf("  Documento ID: %s procesado.\n", doc.getId());
-		}
+	/**
+	 * Igual que extractTriplesFromDocuments, pero notifica al listener cada nodo y
+	 * arista en cuanto se aplica su chunk y, al final, las correcciones de la
+	 * fusión, la importancia y la limpieza.
+	 */
+	@Override
+	public void streamTriplesFromDocuments(List<Discurs> documents, GraphEventListener listener) {
+		streamTriplesFromDocuments(documents, pipelinePool.defaultProfile(), listener);
+	}
+
+	@Override
+	public void streamTriplesFromDocuments(List<Discurs> documents, AnnotatorProfile profile,
+			GraphEventListener listener) {
+		GraphEventStream stream = new GraphEventStream(listener);
+		GraphResult result = extract(documents, profile, new KnowledgeGraph(true), stream::chunkApplied);
+		stream.finish(result);
+	}
+
+	/**
+	 * Grafo de un único documento tal como queda tras aplicar sus chunks, sin
+	 * importancia, limpieza ni fusión de relaciones: su aportación al grafo del
+	 * corpus (ver CorpusGraph). profile null = perfil por defecto.
+	 */
+	GraphResult extractDocumentGraph(Discurs document, AnnotatorProfile profile) {
+		long start = System.nanoTime();
+		KnowledgeGraph graph = new KnowledgeGraph();
+		applyChunks(List.of(document), profile != null ? profile : pipelinePool.defaultProfile(), graph, g -> {
+		});
+		GraphResult result = graph.toGraphResult();
+		metrics.requestCompleted(System.nanoTime() - start);
+		return result;
+	}
+
+	private GraphResult extract(List<Discurs> documents, AnnotatorProfile profile, KnowledgeGraph graph,
+			Consumer<KnowledgeGraph> onChunkApplied) {
+		// 1. Estado nuevo para esta extracción (el grafo recibido está vacío)
+		log.info("Iniciando extracción para {} documentos (perfil {})", documents.size(), profile.id());
+		long start = System.nanoTime();
+		applyChunks(documents, profile, graph, onChunkApplied);
 
 		// 5. Post-procesamiento final (sobre el grafo acumulado)
-		System.out.println("Calculando importancia de nodos...");
-		calculateNodeImportance();
+		log.debug("Calculando importancia de nodos");
+		long phaseStart = System.nanoTime();
+		importance.calculate(graph);
+		phaseStart = recordPhase(ExtractionMetrics.PHASE_IMPORTANCE, phaseStart);
 
-		cleanIsolatedNodes();
-		mergeSimilarRelations();
+		graph.cleanIsolatedNodes();
+		phaseStart = recordPhase(ExtractionMetrics.PHASE_CLEANUP, phaseStart);
+		graph.mergeSimilarRelations();
+		recordPhase(ExtractionMetrics.PHASE_MERGE_RELATIONS, phaseStart);
 
 		// 6. Devolver el grafo acumulado de todos los documentos
-		System.out.println("Extracción completada.");
-		return new GraphResult(new ArrayList<>(nodes.values()), new ArrayList<>(edges));
+		GraphResult result = graph.toGraphResult();
+		metrics.graphReturned(result.getNodes().size(), result.getEdges().size());
+		metrics.requestCompleted(System.nanoTime() - start);
+		log.info("Extracción completada: {} nodos, {} aristas", result.getNodes().size(), result.getEdges().size());
+		return result;
+	}
+
+	// Anota los chunks de los documentos y los aplica al grafo en orden
+	private void applyChunks(List<Discurs> documents, AnnotatorProfile profile, KnowledgeGraph graph,
+			Consumer<KnowledgeGraph> onChunkApplied) {
+		// 2. Dividir cada documento en chunks, conservando el orden original. Los
+		// chunks se generan a medida que se envían: nunca están todos en memoria
+		// Los chunks cortos seguidos (de uno o varios documentos) van en el mismo lote
+		Iterator<List<PendingChunk>> batches = batcher.batches(pendingChunks(documents), chunk -> chunk.text.length());
+
+		// 3. Anotar los lotes en paralelo (ventana acotada) y aplicar cada resultado
+		// parcial al grafo en el orden original: el grafo es el mismo que en
+		// secuencial porque las decisiones que dependen de él se toman al aplicar.
+		Deque<PendingBatch> inFlight = new ArrayDeque<>();
+		int applied = 0;
+		try {
+			while (true) {
+				while (inFlight.size() < maxBatchesInFlight && batches.hasNext()) {
+					PendingBatch pending = new PendingBatch(batches.next());
+					pending.extractions = chunkExecutor.submit(() -> processBatch(pending.chunks, profile));
+					inFlight.add(pending);
+				}
+				PendingBatch batch = inFlight.poll();
+				if (batch == null)
+					break;
+				List<ChunkExtraction> extractions = awaitChunk(batch.extractions);
+				for (int i = 0; i < extractions.size(); i++) {
+					PendingChunk chunk = batch.chunks.get(i);
+					applied++;
+					log.debug("Aplicando chunk {} (documento {})", applied, chunk.docId);
+					long applyStart = System.nanoTime();
+					extractions.get(i).applyTo(graph, chunk.docId);
+					metrics.recordPhase(ExtractionMetrics.PHASE_APPLY, System.nanoTime() - applyStart);
+					onChunkApplied.accept(graph);
+				}
+			}
+		} finally {
+			// Si algo falla, no dejar lotes anotándose para nadie
+			inFlight.forEach(pending -> pending.extractions.cancel(true));
+		}
 	}
 
-	private List<String> splitTextIntoChunks(String text) {
-		List<String> chunks = new ArrayList<>();
-		// Regex mejorada para manejar espacios después de ., !? y saltos de línea
-		String[] sentences = text.split("(?<=[.!?])\\s+|[\n\r]+");
-		System.out.println(sentences.length);
-		StringBuilder currentChunk = new StringBuilder();
-		// Puedes hacer configurable el tamaño del chunk (ej. 10 oraciones)
-		final int CHUNK_SIZE_SENTENCES = 10;
-		int sentenceCount = 0;
-
-		for (String sentence : sentences) {
-			String trimmedSentence = sentence.trim();
-			String cleanedText = trimmedSentence.replaceAll("[\\n\\r]+", " ").trim();
-			if (!trimmedSentence.isEmpty()) {
-				currentChunk.append(cleanedText).append(" "); // Añade espacio entre oraciones
-				sentenceCount++;
-				if (sentenceCount == CHUNK_SIZE_SENTENCES) {
-					chunks.add(currentChunk.toString().trim());
-					currentChunk.setLength(0); // Reinicia el StringBuilder
-					sentenceCount = 0;
+	// Registra la fase que empezó en start y devuelve el inicio de la siguiente
+	private long recordPhase(String phase, long start) {
+		long now = System.nanoTime();
+		metrics.recordPhase(phase, now - start);
+		return now;
+	}
+
+	private List<ChunkExtraction> awaitChunk(Future<List<ChunkExtraction>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Extracción interrumpida", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error procesando un chunk", e.getCause());
+		}
+	}
+
+	// Chunks de todos los documentos, en orden, generados bajo demanda
+	private Iterator<PendingChunk> pendingChunks(List<Discurs> documents) {
+		Iterator<Discurs> docs = documents.iterator();
+		return new Iterator<PendingChunk>() {
+			private String docId;
+			private Iterator<String> docChunks = Collections.emptyIterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!docChunks.hasNext()) {
+					if (!docs.hasNext())
+						return false;
+					Discurs doc = docs.next();
+					String text = doc.getText(); // Asume que Document tiene el contenido
+					if (text == null || text.isBlank()) {
+						log.debug("Documento {} vacío, se salta", doc.getId());
+						continue;
+					}
+					docId = doc.getId();
+					docChunks = chunker.chunks(text).iterator();
 				}
+				return true;
+			}
+
+			@Override
+			public PendingChunk next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return new PendingChunk(docId, docChunks.next());
+			}
+		};
+	}
+
+	// Chunk pendiente de anotar junto al documento al que pertenece
+	private static class PendingChunk {
+		final String docId;
+		final String text;
+
+		PendingChunk(String docId, String text) {
+			this.docId = docId;
+			this.text = text;
+		}
+	}
+
+	// Lote de chunks enviado a chunkExecutor; las extracciones vuelven en el mismo orden
+	private static class PendingBatch {
+		final List<PendingChunk> chunks;
+		Future<List<ChunkExtraction>> extractions;
+
+		PendingBatch(List<PendingChunk> chunks) {
+			this.chunks = chunks;
+		}
+	}
+
+	/**
+	 * Anota un lote de chunks con una sola pipeline y devuelve sus extracciones
+	 * en el orden del lote, que es como cada una vuelve a su docId. Cada chunk es
+	 * su propia Annotation (nada se mezcla entre documentos); los que están en la
+	 * caché no se anotan. Un chunk que CoreNLP no llegó a terminar dentro del
+	 * lote se anota otra vez por separado, con el mismo resultado que sin lotes.
+	 */
+	private List<ChunkExtraction> processBatch(List<PendingChunk> batch, AnnotatorProfile profile) {
+		if (batch.size() == 1) {
+			PendingChunk chunk = batch.get(0);
+			return List.of(processTextChunk(chunk.text, chunk.docId, profile));
+		}
+		String configuration = pipelinePool.configuration(profile);
+		ChunkExtraction[] extractions = new ChunkExtraction[batch.size()];
+		List<Annotation> documents = new ArrayList<>();
+		List<Integer> positions = new ArrayList<>();
+		for (int i = 0; i < batch.size(); i++) {
+			PendingChunk chunk = batch.get(i);
+			ChunkExtraction cached = chunkCache.get(configuration, chunk.text);
+			metrics.chunkProcessed(cached != null);
+			if (cached != null) {
+				ExtractionTrace.forDocument(log, chunk.docId, tracedDocId)
+						.log("Chunk servido desde la caché ({} caracteres)", chunk.text.length());
+				extractions[i] = cached;
+			} else {
+				documents.add(new Annotation(chunk.text));
+				positions.add(i);
+			}
+		}
+		if (documents.isEmpty())
+			return Arrays.asList(extractions);
+
+		long annotateStart = System.nanoTime();
+		boolean[] annotated = pipelinePool.annotate(profile, documents, batcher.threads());
+		recordPhase(ExtractionMetrics.PHASE_ANNOTATE, annotateStart);
+		for (int j = 0; j < documents.size(); j++) {
+			int position = positions.get(j);
+			PendingChunk chunk = batch.get(position);
+			MDC.put(ExtractionTrace.MDC_DOC_ID, chunk.docId);
+			try {
+				ExtractionTrace trace = ExtractionTrace.forDocument(log, chunk.docId, tracedDocId);
+				extractions[position] = annotated[j]
+						? extractFromAnnotation(documents.get(j), chunk.text, configuration, trace)
+						: annotateChunk(chunk.text, profile, configuration, trace);
+			} finally {
+				MDC.remove(ExtractionTrace.MDC_DOC_ID);
 			}
 		}
+		return Arrays.asList(extractions);
+	}
 
-		// Añadir el último chunk si contiene algo
-		if (currentChunk.length() > 0) {
-			String cleanedText = currentChunk.toString().replaceAll("[\\n\\r]+", " ").trim();
-			chunks.add(currentChunk.toString().trim());
+	/**
+	 * Anota un chunk y registra las operaciones de grafo que produce.
+	 * Se ejecuta en los hilos de chunkExecutor; no toca el grafo de la petición.
+	 * Si el mismo texto ya se procesó con esta configuración, se reutiliza la
+	 * extracción de la caché sin pasar por CoreNLP.
+	 */
+	private ChunkExtraction processTextChunk(String text, String docId, AnnotatorProfile profile) {
+		MDC.put(ExtractionTrace.MDC_DOC_ID, docId);
+		try {
+			return processTextChunk(text, profile, ExtractionTrace.forDocument(log, docId, tracedDocId));
+		} finally {
+			MDC.remove(ExtractionTrace.MDC_DOC_ID);
 		}
-		return chunks;
 	}
 
-	private void processTextChunk(String text, String docId) {
+	private ChunkExtraction processTextChunk(String text, AnnotatorProfile profile, ExtractionTrace trace) {
+		// Cada perfil tiene su propia configuración y, por tanto, sus propias entradas
+		String configuration = pipelinePool.configuration(profile);
+		ChunkExtraction cached = chunkCache.get(configuration, text);
+		metrics.chunkProcessed(cached != null);
+		if (cached != null) {
+			trace.log("Chunk servido desde la caché ({} caracteres)", text.length());
+			return cached;
+		}
+		return annotateChunk(text, profile, configuration, trace);
+	}
+
+	// Anota el chunk por separado (sin mirar la caché) y extrae sus operaciones
+	private ChunkExtraction annotateChunk(String text, AnnotatorProfile profile, String configuration,
+			ExtractionTrace trace) {
 		// 2. Anotar el documento
 		Annotation document = new Annotation(text);
+		long phaseStart = System.nanoTime();
 		try {
-			pipeline.annotate(document);
+			pipelinePool.annotate(profile, document);
+			recordPhase(ExtractionMetrics.PHASE_ANNOTATE, phaseStart);
 			// System.out.println(document.get(CoreAnnotations.MentionsAnnotation.class));
 		} catch (Exception e) {
-			System.err.println("Error durante la anotación de CoreNLP: " + e.getMessage());
+			log.error("Error durante la anotación de CoreNLP", e);
 			// Considera lanzar una excepción personalizada o devolver un grafo vacío
-			return;
+			return new ChunkExtraction();
 		}
+		return extractFromAnnotation(document, text, configuration, trace);
+	}
+
+	// Registra las operaciones de grafo de un chunk ya anotado y lo guarda en la caché
+	private ChunkExtraction extractFromAnnotation(Annotation document, String text, String configuration,
+			ExtractionTrace trace) {
+		ChunkExtraction extraction = new ChunkExtraction();
+		long phaseStart = System.nanoTime();
 
 		// Habilitar resolución de correferencia
 		Map<Integer, CorefChain> corefChains = document.get(CorefCoreAnnotations.CorefChainAnnotation.class);
 		if (corefChains != null) {
-			processCoreferences(corefChains, docId);
+			processCoreferences(corefChains, extraction);
 		}
+		recordPhase(ExtractionMetrics.PHASE_COREF, phaseStart);
 
 		// 3. Iterar sobre las oraciones y extraer información
 		List<CoreMap> sentences = document.get(CoreAnnotations.SentencesAnnotation.class);
 		if (sentences == null) {
-			System.err.println("No se encontraron oraciones en el texto.");
-			return;
+			log.warn("No se encontraron oraciones en el texto");
+			return extraction;
 		}
 
+		// Tiempo de cada fase sumado sobre todas las oraciones del chunk
+		long kbpNanos = 0, openieNanos = 0, dependenciesNanos = 0, conceptsNanos = 0;
 		for (CoreMap sentence : sentences) {
-			// Mapa temporal para esta oración: ID original -> ID combinado (por amod)
-			Map<String, String> localWordIdToCombinedId = new HashMap<>();
+			// Cada oración tiene su propio mapa ID original -> ID combinado (por amod)
+			extraction.startSentence();
 
 			// --- Estrategia de Extracción Combinada ---
 
 			// PASO 1: Identificar Nodos Canónicos desde Mentions
 			List<CoreMap> mentions = sentence.get(CoreAnnotations.MentionsAnnotation.class);
 			if (mentions != null) {
-				System.out.println(mentions);
+				trace.log("Menciones: {}", mentions);
 				for (CoreMap mention : mentions) {
 					String mentionText = mention.get(CoreAnnotations.TextAnnotation.class);
 					String mentionId = normalizeForId(mentionText);
@@ -237,7 +442,7 @@ class KnowledgeGraphExtractor implements Extractor {
 					String nerTag = mention.get(CoreAnnotations.NamedEntityTagAnnotation.class);
 					String nodeType = (nerTag != null && (!nerTag.equals("NUMBER") || !nerTag.equals("O"))) ? nerTag
 							: "MENTION";
-					addNode(mentionId, mentionText, nodeType, docId);
+					extraction.addStep(new ChunkExtraction.AddNode(mentionId, mentionText, nodeType));
 				}
 			}
 
@@ -247,43 +452,61 @@ class KnowledgeGraphExtractor implements Extractor {
 			// tokens
 			// Nota: Esta parte es experimental, KBP basado en reglas puede no dar muchos
 			// resultados generales
+			phaseStart = System.nanoTime();
 			List<RelationTriple> kbpRelations = sentence.get(KBPTriplesAnnotation.class); // Esta clave puede variar
 			if (kbpRelations != null && !kbpRelations.isEmpty()) {
-				System.out.println("KBP Relations found: " + kbpRelations.size()); // Debug
-				System.out.println(kbpRelations);
+				trace.log("Relaciones KBP ({}): {}", kbpRelations.size(), kbpRelations);
 				for (RelationTriple triple : kbpRelations) {
-					processRelationTriple(triple.subject, triple.relationLemmaGloss(), triple.object, "KBP", docId,
-							localWordIdToCombinedId);
+					processRelationTriple(triple.subject, triple.relationLemmaGloss(), triple.object, "KBP",
+							extraction);
 				}
 			}
 
+			long now = System.nanoTime();
+			kbpNanos += now - phaseStart;
+			phaseStart = now;
+
 			// B. Extracción con OpenIE
 			Collection<RelationTriple> openieTriples = sentence
 					.get(NaturalLogicAnnotations.RelationTriplesAnnotation.class);
 			if (openieTriples != null) {
 				for (RelationTriple triple : openieTriples) {
-					System.out.println(triple);
+					trace.log("Triple OpenIE: {}", triple);
 					// Procesa el triple de OpenIE
 					String relationLemma = getSpanLemma(triple.relation);
-					processRelationTriple(triple.subject, relationLemma, triple.object, "OpenIE", docId,
-							localWordIdToCombinedId); // Pasar mapa local
+					processRelationTriple(triple.subject, relationLemma, triple.object, "OpenIE", extraction);
 				}
 			}
 
+			now = System.nanoTime();
+			openieNanos += now - phaseStart;
+			phaseStart = now;
+
 			// C. Extracción basada en Dependencias (Complementaria y Robusta INCLUYE AMOD
 			// COMBINADO Y PATRONES NUEVOS)
 			SemanticGraph dependencies = sentence
 					.get(SemanticGraphCoreAnnotations.EnhancedPlusPlusDependenciesAnnotation.class);
 			if (dependencies != null) {
-				extractRelationsFromDependencies(dependencies, docId, localWordIdToCombinedId);
+				extractRelationsFromDependencies(dependencies, extraction);
 			} else {
-				System.err.println("Advertencia: No se encontró grafo de dependencias para una oración.");
+				log.warn("No se encontró grafo de dependencias para una oración");
 			}
 
+			now = System.nanoTime();
+			dependenciesNanos += now - phaseStart;
+			phaseStart = now;
+
 			// D. Identificar Conceptos Relevantes (Nodos no NER)
-			extractConceptsFallback(sentence, docId);
+			extractConceptsFallback(sentence, extraction);
+			conceptsNanos += System.nanoTime() - phaseStart;
 		}
-
+		metrics.recordPhase(ExtractionMetrics.PHASE_KBP, kbpNanos);
+		metrics.recordPhase(ExtractionMetrics.PHASE_OPENIE, openieNanos);
+		metrics.recordPhase(ExtractionMetrics.PHASE_DEPENDENCIES, dependenciesNanos);
+		metrics.recordPhase(ExtractionMetrics.PHASE_CONCEPTS, conceptsNanos);
+		// Solo se guardan extracciones completas (no las que fallaron al anotar)
+		chunkCache.put(configuration, text, extraction);
+		return extraction;
 	}
 
 	/**
@@ -316,27 +539,17 @@ class KnowledgeGraphExtractor implements Extractor {
 	 * Usa los spans (listas de CoreLabel) para obtener texto, lemas y tipos.
 	 */
 	private void processRelationTriple(List<CoreLabel> subjectSpan, String relationLemma, List<CoreLabel> objectSpan,
-			String sourceMethod, String docId, Map<String, String> localWordIdToCombinedId) {
+			String sourceMethod, ChunkExtraction extraction) {
 		if (subjectSpan == null || subjectSpan.isEmpty() || objectSpan == null || objectSpan.isEmpty()
 				|| relationLemma == null || relationLemma.isBlank()) {
 			return; // Ignorar triples incompletos
 		}
 
-		// 1. Resolver spans a IDs (crea nodo si no existe)
-		String subjOriginalId = resolveSpanToNodeId(subjectSpan, docId);
-		String objOriginalId = resolveSpanToNodeId(objectSpan, docId);
+		// 1. Spans a nodos (se resuelven contra el grafo al aplicar el chunk)
+		ChunkExtraction.SpanRef subject = toSpanRef(subjectSpan);
+		ChunkExtraction.SpanRef object = toSpanRef(objectSpan);
 
-		if (subjOriginalId == null || objOriginalId == null)
-			return;
-
-		// 2. Aplicar mapeo local (amod combinado)
-		String subjFinalId = localWordIdToCombinedId.getOrDefault(subjOriginalId, subjOriginalId);
-		String objFinalId = localWordIdToCombinedId.getOrDefault(objOriginalId, objOriginalId);
-
-		if (subjFinalId.equals(objFinalId))
-			return; // Evitar auto-referencias
-
-		// 3. Limpiar/Traducir la relación
+		// 2. Limpiar/Traducir la relación
 		String finalRelation = relationLemma.toLowerCase().trim();
 		if ("KBP".equals(sourceMethod)) {
 			finalRelation = KBP_RELATION_MAP.getOrDefault(finalRelation, finalRelation);
@@ -345,82 +558,52 @@ class KnowledgeGraphExtractor implements Extractor {
 				finalRelation = "es";
 		}
 
-		// 4. Añadir la arista
-		addEdge(subjFinalId, objFinalId, finalRelation);
+		// 3. Añadir la arista (mapeo amod local y auto-referencias al aplicar)
+		extraction.addStep(new ChunkExtraction.SpanTriple(subject, object, finalRelation));
 	}
 
 	/**
 	 * Extrae ID, nombre y tipo de un span de CoreLabel.
 	 * **CLAVE:** Maneja correctamente entidades NER multi-palabra.
 	 */
-	private String resolveSpanToNodeId(List<CoreLabel> span, String docId) {
-		if (span == null || span.isEmpty())
-			return null;
-
+	private ChunkExtraction.SpanRef toSpanRef(List<CoreLabel> span) {
 		String spanText = getSpanOriginalText(span);
-		String normalizedSpanTextId = normalizeForId(spanText);
-		if (normalizedSpanTextId != null && nodes.containsKey(normalizedSpanTextId)) {
-			nodes.get(normalizedSpanTextId).addDocumentId(docId);
-			return normalizedSpanTextId;
-		}
-		NodeInfo nodeInfo = getNodeInfoFromSpan(span);
-		if (nodeInfo != null) {
-			addNode(nodeInfo.id, nodeInfo.name, nodeInfo.type, docId);
-			return nodeInfo.id;
-		}
-		return null; // nombre
+		return new ChunkExtraction.SpanRef(normalizeForId(spanText), getNodeInfoFromSpan(span));
 	}
 
-	// resolveWordToNodeId (Sin cambios - crea nodo si no existe)
-	private String resolveWordToNodeId(IndexedWord word, String docId) {
+	// Referencia a la palabra: texto, lema y nodo a crear si no existe ninguno
+	private ChunkExtraction.WordRef toWordRef(IndexedWord word) {
 		if (word == null)
 			return null;
-		String wordText = word.originalText();
-		String normalizedWordTextId = normalizeForId(wordText);
-		String lemma = getLemma(word);
-		String normalizedLemmaId = normalizeForId(lemma);
-		if (normalizedWordTextId != null && nodes.containsKey(normalizedWordTextId)) {
-			nodes.get(normalizedWordTextId).addDocumentId(docId);
-			return normalizedWordTextId;
-		}
-		if (normalizedLemmaId != null && nodes.containsKey(normalizedLemmaId)) {
-			nodes.get(normalizedLemmaId).addDocumentId(docId);
-			return normalizedLemmaId;
-		}
-		NodeInfo nodeInfo = getNodeInfoFromWord(word);
-		if (nodeInfo != null) {
-			addNode(nodeInfo.id, nodeInfo.name, nodeInfo.type, docId);
-			return nodeInfo.id;
-		}
-		return null;
+		String normalizedWordTextId = normalizeForId(word.originalText());
+		String normalizedLemmaId = normalizeForId(getLemma(word));
+		return new ChunkExtraction.WordRef(normalizedWordTextId, normalizedLemmaId, getNodeInfoFromWord(word));
 	}
 
 	/**
 	 * Extracción complementaria usando patrones sobre el grafo de dependencias.
 	 */
-	private void extractRelationsFromDependencies(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void extractRelationsFromDependencies(SemanticGraph dependencies, ChunkExtraction extraction) {
 		// --- PASO 4.1: Detectar y Procesar AMOD para combinar nodos ---
-		processAmodCombinations(dependencies, docId, localWordIdToCombinedId);
+		processAmodCombinations(dependencies, extraction);
 
 		// --- PASO 4.2: Extraer Relaciones SVO (Sujeto-Verbo-Objeto) ---
-		extractSvoRelations(dependencies, docId, localWordIdToCombinedId);
+		extractSvoRelations(dependencies, extraction);
 
 		// --- PASO 4.3: Extraer Relaciones NMOD y APPOS ---
-		extractNmodApposRelations(dependencies, docId, localWordIdToCombinedId);
+		extractNmodApposRelations(dependencies, extraction);
 
 		// --- PASO 4.4: Extraer Relaciones Cópula+Complemento ---
-		extractCopulaRelations(dependencies, docId, localWordIdToCombinedId);
+		extractCopulaRelations(dependencies, extraction);
 
 		// --- PASO 4.5: Extraer Relaciones de Cláusulas Relativas (ACL:RELCL) ---
-		extractRelativeClauseRelations(dependencies, docId, localWordIdToCombinedId);
+		extractRelativeClauseRelations(dependencies, extraction);
 
 		// --- Añadir más patrones aquí si es necesario ---
 	}
 
 	// --- NUEVO: Procesar AMOD ---
-	private void processAmodCombinations(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void processAmodCombinations(SemanticGraph dependencies, ChunkExtraction extraction) {
 		for (SemanticGraphEdge edge : dependencies.findAllRelns(GrammaticalRelation.valueOf("amod"))) {
 			IndexedWord govWord = edge.getGovernor(); // El sustantivo
 			IndexedWord depWord = edge.getDependent(); // El adjetivo
@@ -438,22 +621,15 @@ class KnowledgeGraphExtractor implements Extractor {
 			if (combinedId == null || combinedId.isBlank())
 				continue;
 
-			// Crear/actualizar el nodo combinado
-			addNode(combinedId, combinedText, govInfo.type, docId); // Usar tipo del sustantivo
-
-			// Registrar el mapeo para esta oración
-			// Mapear tanto el ID original del sustantivo como el del adjetivo al ID
-			// combinado
-			localWordIdToCombinedId.put(govInfo.id, combinedId);
-			localWordIdToCombinedId.put(depInfo.id, combinedId);
-			// System.out.println("AMOD Combined: " + govInfo.id + " + " + depInfo.id + " ->
-			// " + combinedId); // DEBUG
+			// Crear/actualizar el nodo combinado y registrar el mapeo para esta oración:
+			// tanto el ID original del sustantivo como el del adjetivo apuntan al combinado
+			extraction.addStep(new ChunkExtraction.AmodCombination(combinedId, combinedText, govInfo.type,
+					govInfo.id, depInfo.id));
 		}
 	}
 
 	// --- SVO (con negación) ---
-	private void extractSvoRelations(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void extractSvoRelations(SemanticGraph dependencies, ChunkExtraction extraction) {
 		for (IndexedWord verb : dependencies.getAllNodesByPartOfSpeechPattern("VERB")) {
 			String verbLemma = getLemma(verb);
 			if (verbLemma == null || verbLemma.isBlank())
@@ -480,25 +656,15 @@ class KnowledgeGraphExtractor implements Extractor {
 
 			for (IndexedWord subjWord : subjects) {
 				for (IndexedWord objWord : objects) {
-					String subjOriginalId = resolveWordToNodeId(subjWord, docId);
-					String objOriginalId = resolveWordToNodeId(objWord, docId);
-					if (subjOriginalId == null || objOriginalId == null)
-						continue;
-
-					String subjFinalId = localWordIdToCombinedId.getOrDefault(subjOriginalId, subjOriginalId);
-					String objFinalId = localWordIdToCombinedId.getOrDefault(objOriginalId, objOriginalId);
-
-					if (!subjFinalId.equals(objFinalId)) {
-						addEdge(subjFinalId, objFinalId, relation);
-					}
+					extraction.addStep(
+							new ChunkExtraction.WordRelation(toWordRef(subjWord), toWordRef(objWord), relation));
 				}
 			}
 		}
 	}
 
 	// --- NMOD y APPOS ---
-	private void extractNmodApposRelations(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void extractNmodApposRelations(SemanticGraph dependencies, ChunkExtraction extraction) {
 		for (SemanticGraphEdge edge : dependencies.edgeIterable()) { // Iterar sobre todas las aristas
 			GrammaticalRelation rel = edge.getRelation();
 			String shortRelName = rel.getShortName();
@@ -507,17 +673,6 @@ class KnowledgeGraphExtractor implements Extractor {
 				IndexedWord govWord = edge.getGovernor();
 				IndexedWord depWord = edge.getDependent();
 
-				String govOriginalId = resolveWordToNodeId(govWord, docId);
-				String depOriginalId = resolveWordToNodeId(depWord, docId);
-				if (govOriginalId == null || depOriginalId == null)
-					continue;
-
-				String govFinalId = localWordIdToCombinedId.getOrDefault(govOriginalId, govOriginalId);
-				String depFinalId = localWordIdToCombinedId.getOrDefault(depOriginalId, depOriginalId);
-
-				if (govFinalId.equals(depFinalId))
-					continue;
-
 				String relationLabel = null;
 				if (shortRelName.equals("nmod")) {
 					relationLabel = dependencies.getChildrenWithReln(depWord, GrammaticalRelation.valueOf("case"))
@@ -528,14 +683,14 @@ class KnowledgeGraphExtractor implements Extractor {
 				}
 				// Traducir relación a forma legible si está en el mapa
 				String readableRel = RELATION_TRANSLATIONS.getOrDefault(shortRelName, relationLabel);
-				addEdge(govFinalId, depFinalId, readableRel);
+				extraction.addStep(
+						new ChunkExtraction.WordRelation(toWordRef(govWord), toWordRef(depWord), readableRel));
 			}
 		}
 	}
 
 	// --- NUEVO: Cópula + Complemento ---
-	private void extractCopulaRelations(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void extractCopulaRelations(SemanticGraph dependencies, ChunkExtraction extraction) {
 		for (SemanticGraphEdge edge : dependencies.findAllRelns(GrammaticalRelation.valueOf("cop"))) {
 			IndexedWord verbWord = edge.getGovernor(); // El verbo cópula (ser, estar)
 			IndexedWord complementWord = edge.getDependent(); // El predicado (adjetivo, sustantivo)
@@ -551,24 +706,6 @@ class KnowledgeGraphExtractor implements Extractor {
 			Set<IndexedWord> obliques = dependencies.getChildrenWithReln(complementWord,
 					GrammaticalRelation.valueOf("obl"));
 
-			// Resolver IDs originales
-			String subjOriginalId = resolveWordToNodeId(subjWord, docId);
-			String complementOriginalId = resolveWordToNodeId(complementWord, docId);
-			if (subjOriginalId == null || complementOriginalId == null)
-				continue;
-
-			// Aplicar mapeo local
-			String subjFinalId = localWordIdToCombinedId.getOrDefault(subjOriginalId, subjOriginalId);
-			String complementFinalId = localWordIdToCombinedId.getOrDefault(complementOriginalId, complementOriginalId); // El
-																															// predicado
-																															// también
-																															// puede
-																															// ser
-																															// combinado
-																															// (ej.
-																															// "buen
-																															// presidente")
-
 			// Nueva detección de negación ampliada
 			Set<String> negationWords = Set.of("no", "nunca", "jamás", "tampoco");
 
@@ -585,23 +722,17 @@ class KnowledgeGraphExtractor implements Extractor {
 			String negationPrefix = (isNegatedVerb || isNegatedCompl) ? "no " : "";
 
 			// Crear relación básica Sujeto -[es/está]-> Complemento
+			// (el predicado también puede ser combinado, ej. "buen presidente")
 			String baseRelation = negationPrefix + getLemma(verbWord); // ej "no ser"
 			if (baseRelation.equals("ser") || baseRelation.equals("estar"))
 				baseRelation = "es"; // Simplificar a "es"
 			else if (baseRelation.equals("no ser") || baseRelation.equals("no estar"))
 				baseRelation = "no es"; // Simplificar negado
-			addEdge(subjFinalId, complementFinalId, baseRelation);
+			ChunkExtraction.CopulaRelation copula = new ChunkExtraction.CopulaRelation(toWordRef(subjWord),
+					toWordRef(complementWord), baseRelation);
 
 			// Crear relaciones con los complementos oblicuos
 			for (IndexedWord oblWord : obliques) {
-				String oblOriginalId = resolveWordToNodeId(oblWord, docId);
-				if (oblOriginalId == null)
-					continue;
-				String oblFinalId = localWordIdToCombinedId.getOrDefault(oblOriginalId, oblOriginalId);
-
-				if (subjFinalId.equals(oblFinalId))
-					continue; // Evitar auto-relación
-
 				// Obtener preposición
 				String preposition = dependencies.getChildrenWithReln(oblWord, GrammaticalRelation.valueOf("case"))
 						.stream().map(this::getLemma).filter(l -> l != null && !l.isBlank()).findFirst()
@@ -611,26 +742,23 @@ class KnowledgeGraphExtractor implements Extractor {
 				// Ej: colonialismo -[no es ajeno a]-> subdesarrollo
 				String complexRelation = String.format("%s%s %s", negationPrefix, getLemma(complementWord), preposition)
 						.trim(); // ej: "no ajeno a"
-				addEdge(subjFinalId, oblFinalId, complexRelation);
+				copula.addOblique(toWordRef(oblWord), complexRelation);
 			}
+			extraction.addStep(copula);
 		}
 	}
 
 	// --- NUEVO: Cláusulas Relativas ---
-	private void extractRelativeClauseRelations(SemanticGraph dependencies, String docId,
-			Map<String, String> localWordIdToCombinedId) {
+	private void extractRelativeClauseRelations(SemanticGraph dependencies, ChunkExtraction extraction) {
 		// Buscar relaciones acl:relcl (entidad_modificada <- verbo_relativo)
 		for (SemanticGraphEdge edge : dependencies.findAllRelns(GrammaticalRelation.valueOf("acl:relcl"))) {
 			IndexedWord modifiedEntityWord = edge.getGovernor(); // Ej: pobreza
 			IndexedWord relativeVerbWord = edge.getDependent(); // Ej: sufre
 
-			String modifiedEntityOriginalId = resolveWordToNodeId(modifiedEntityWord, docId);
-			if (modifiedEntityOriginalId == null)
-				continue;
-			String modifiedEntityFinalId = localWordIdToCombinedId.getOrDefault(modifiedEntityOriginalId,
-					modifiedEntityOriginalId);
-
 			String relativeVerbLemma = getLemma(relativeVerbWord);
+			ChunkExtraction.RelativeClauseRelation relativeClause = new ChunkExtraction.RelativeClauseRelation(
+					toWordRef(modifiedEntityWord), relativeVerbLemma);
+			extraction.addStep(relativeClause);
 			if (relativeVerbLemma == null || relativeVerbLemma.isBlank())
 				continue;
 
@@ -640,63 +768,40 @@ class KnowledgeGraphExtractor implements Extractor {
 					GrammaticalRelation.valueOf("nsubj"));
 			Set<IndexedWord> relObjects = dependencies.getChildrenWithReln(relativeVerbWord,
 					GrammaticalRelation.valueOf("obj"));
-			relObjects.addAll(dependencies.getChildrenWithReln(relativeVerbWord, GrammaticalRelation.valueOf("obl"))); // Incluir
-																														// oblicuos
-																														// como
-																														// objetos
-																														// semánticos
+			// Incluir oblicuos como objetos semánticos
+			relObjects.addAll(dependencies.getChildrenWithReln(relativeVerbWord, GrammaticalRelation.valueOf("obl")));
 
 			// Caso 1: La entidad modificada es el SUJETO semántico del verbo relativo
 			// Ej: "el hombre que canta" -> hombre <- canta (nsubj: que -> canta)
 			// Crear relación: entidad_modificada -[verbo_relativo]-> objeto_relativo
+			// Ej: hombre -[canta]-> cancion
 			if (!relSubjects.isEmpty() && relSubjects.iterator().next().lemma().equals("que")) { // Si el sujeto es
 																									// "que" (refiere a
 																									// la entidad)
 				for (IndexedWord relObjWord : relObjects) {
-					String relObjOriginalId = resolveWordToNodeId(relObjWord, docId);
-					if (relObjOriginalId == null)
-						continue;
-					String relObjFinalId = localWordIdToCombinedId.getOrDefault(relObjOriginalId, relObjOriginalId);
-					if (!modifiedEntityFinalId.equals(relObjFinalId)) {
-						addEdge(modifiedEntityFinalId, relObjFinalId, relativeVerbLemma); // Ej: hombre -[canta]->
-																							// cancion
-					}
+					relativeClause.relObjects.add(toWordRef(relObjWord));
 				}
 			}
 
 			// Caso 2: La entidad modificada es el OBJETO semántico del verbo relativo
 			// Ej: "la pobreza que sufre la gente" -> pobreza <- sufre (nsubj: gente ->
 			// sufre, obj: que -> sufre)
-			// Crear relación: sujeto_relativo -[verbo_relativo]-> entidad_modificada
-			// O invertir: entidad_modificada -[es V-ido por]-> sujeto_relativo
+			// Dirección pasiva/descriptiva (más clara que la activa gente -[sufre]->
+			// pobreza): entidad_modificada -[es V por]-> sujeto_relativo
+			// Ej: pobreza -[es sufrida por]-> gente
 			if (!relObjects.isEmpty() && relObjects.iterator().next().lemma().equals("que")) { // Si el objeto es "que"
 																								// (refiere a la
 																								// entidad)
 				for (IndexedWord relSubjWord : relSubjects) {
-					String relSubjOriginalId = resolveWordToNodeId(relSubjWord, docId);
-					if (relSubjOriginalId == null)
-						continue;
-					String relSubjFinalId = localWordIdToCombinedId.getOrDefault(relSubjOriginalId, relSubjOriginalId);
-					if (!relSubjFinalId.equals(modifiedEntityFinalId)) {
-						// Opción A: Dirección activa
-						// addEdge(relSubjFinalId, modifiedEntityFinalId, relativeVerbLemma); // Ej:
-						// gente -[sufre]-> pobreza
-						// Opción B: Dirección pasiva/descriptiva (puede ser más clara)
-						addEdge(modifiedEntityFinalId, relSubjFinalId, "es " + relativeVerbLemma + " por"); // Ej:
-																											// pobreza
-																											// -[es
-																											// sufrida
-																											// por]->
-																											// gente
-					}
+					relativeClause.relSubjects.add(toWordRef(relSubjWord));
 				}
 			}
 		}
 	}
 
 	// --- IDENTIFICACIÓN DE CONCEPTOS (FALLBACK) ---
-	private void extractConceptsFallback(CoreMap sentence, String docId) {
-		// (Implementación sin cambios)
+	private void extractConceptsFallback(CoreMap sentence, ChunkExtraction extraction) {
+		// Solo se añade si el concepto no existe ya en el grafo (se comprueba al aplicar)
 		for (CoreLabel token : sentence.get(CoreAnnotations.TokensAnnotation.class)) {
 			String ner = token.ner();
 			String pos = token.tag();
@@ -706,11 +811,7 @@ class KnowledgeGraphExtractor implements Extractor {
 				String conceptId = normalizeForId(conceptLemma);
 				String conceptText = token.word();
 				String normalizedTextId = normalizeForId(conceptText);
-				if (conceptId != null && !conceptId.isBlank() && !nodes.containsKey(conceptId)) {
-					if (normalizedTextId == null || !nodes.containsKey(normalizedTextId)) {
-						addNode(conceptId, conceptText, "Concepto", docId);
-					}
-				}
+				extraction.addStep(new ChunkExtraction.ConceptFallback(conceptId, normalizedTextId, conceptText));
 			}
 		}
 	}
@@ -799,7 +900,7 @@ class KnowledgeGraphExtractor implements Extractor {
 	 * Identifica sustantivos, adjetivos y verbos relevantes no capturados por NER
 	 * como Conceptos.
 	 */
-	private void extractConcepts(CoreMap sentence, String docId) {
+	private void extractConcepts(CoreMap sentence, String docId, KnowledgeGraph graph) {
 		for (CoreLabel token : sentence.get(CoreAnnotations.TokensAnnotation.class)) {
 			String ner = token.ner();
 			String pos = token.tag(); // Part-of-Speech tag (UD tags)
@@ -818,97 +919,10 @@ class KnowledgeGraphExtractor implements Extractor {
 
 				// Añadir como nodo tipo Concepto solo si no existe ya como entidad NER
 				if (conceptId != null && !conceptLemma.isBlank()) {
-					addNode(conceptId, conceptText, "Concepto", docId);
-				}
-			}
-		}
-	}
-
-	// --- Métodos Auxiliares (Gestión de Nodos/Aristas, Normalización, Tipos) ---
-
-	// Lista de stopwords en español para filtrar nodos irrelevantes
-	private static final Set<String> SPANISH_STOPWORDS = Set.of(
-			"el", "la", "los", "las", "un", "una", "unos", "unas", "de", "del", "al", "lo",
-			"y", "e", "o", "u", "que", "cual", "cuyo", "donde", "como", "cuando", "a", "en",
-			"con", "por", "para", "sin", "sobre", "entre", "hacia", "desde", "se", "sus",
-			"tu", "tus", "mi", "mis", "nos", "vos", "su", "aquél", "ésa", "esto", "eso", "aquello");
-
-	/**
-	 * Añade o actualiza un nodo en el mapa 'nodes'.
-	 * Gestiona entidades anidadas: si el nodo es contenido en otro, actualiza el
-	 * nodo padre.
-	 * Usa el ID (lema) para la unicidad. Incrementa frecuencia.
-	 * Prioriza tipos NER sobre 'Concepto'. Actualiza el nombre si el nuevo es más
-	 * largo.
-	 */
-	private void addNode(String id, String nodeName, String nodeType, String docId) {
-		if (shouldSkipNode(id, nodeType))
-			return;
-
-		// Buscar entidades contenedoras
-		String parentId = findParentEntity(id);
-		if (parentId != null) {
-			nodes.compute(parentId, (key, parent) -> {
-				parent.addDocumentId(docId);
-				parent.incrementFrequency();
-				return parent;
-			});
-			return;
-		}
-
-		nodes.compute(id, (key, existingNode) -> {
-			if (existingNode == null) {
-				return new Node(key, nodeName, nodeType, docId);
-			} else {
-				existingNode.incrementFrequency();
-				existingNode.addDocumentId(docId);
-				// Lógica de actualización de tipo: Priorizar NER sobre Concepto
-				if (!isConceptType(nodeType) && isConceptType(existingNode.getType())) {
-					existingNode.setType(nodeType); // Actualiza de Concepto a NER específico
+					graph.addNode(conceptId, conceptText, "Concepto", docId);
 				}
-				// Actualizar nombre si el nuevo es más descriptivo (ej. más largo)
-				if (nodeName != null && nodeName.length() > existingNode.getName().length()
-						|| existingNode.getName().equals(existingNode.getId())) {
-					if (nodeName != null
-							&& (!nodeName.equals(id) || existingNode.getName().equals(existingNode.getId()))) {
-						existingNode.setName(nodeName);
-					}
-				}
-				return existingNode;
 			}
-		});
-	}
-
-	private boolean shouldSkipNode(String id, String type) {
-		if (id == null || id.isBlank() || SPANISH_STOPWORDS.contains(id)) {
-			return true;
-		}
-		if ("NUMBER".equals(type)) {
-			// Permitir números que tengan exactamente 4 dígitos (posibles años)
-			return !(id.matches("\\d{4}"));
-		}
-		return false;
-	}
-
-	private String findParentEntity(String candidateId) {
-		return nodes.keySet().stream()
-				.filter(existingId -> existingId.contains(candidateId) || candidateId.contains(existingId))
-				.max(java.util.Comparator.comparingInt(String::length))
-				.orElse(null);
-	}
-
-	/**
-	 * Añade una arista al Set 'edges'. Evita duplicados y auto-referencias.
-	 * Normaliza la relación a minúsculas.
-	 */
-	private void addEdge(String sourceId, String targetId, String relationship) {
-		if (sourceId == null || targetId == null || relationship == null ||
-				sourceId.isBlank() || targetId.isBlank() || relationship.isBlank() ||
-				sourceId.equals(targetId)) { // Evitar auto-referencias o vacíos
-			return;
 		}
-		// El Set<Edge> se encarga de la unicidad basado en equals/hashCode de Edge
-		edges.add(new Edge(sourceId, targetId, relationship.toLowerCase().trim()));
 	}
 
 	// Obtiene el lema de un token (o la palabra si no hay lema)
@@ -952,7 +966,7 @@ class KnowledgeGraphExtractor implements Extractor {
 		for (CoreLabel token : tokens) {
 			String ner = token.ner();
 			if (ner != null && !ner.equals("O")) {
-				System.out.println(token);
+				log.trace("Token con NER: {}", token);
 				// Mapear tipos NER si es necesario (ej. ORG -> ORGANIZATION)
 				return mapNerTag(ner);
 			}
@@ -982,83 +996,23 @@ class KnowledgeGraphExtractor implements Extractor {
 		return nerTag;
 	}
 
-	// Verifica si un tipo es 'Concepto'
-	private boolean isConceptType(String type) {
-		return "Concepto".equals(type);
-	}
-
-	// Calcula la importancia de los nodos (ejemplo simple: log(frecuencia))
-	private void calculateNodeImportance() {
-		if (nodes.isEmpty())
-			return;
-		// Podrías usar algoritmos más complejos como PageRank sobre tu grafo si lo
-		// necesitas
-		for (Node node : nodes.values()) {
-			node.setImportance(Math.log1p(node.getFrequency())); // log1p = log(1+frecuencia)
-		}
-	}
-
 	@Override
 	public String extractTriples(List<String> doc) {
 		// TODO Auto-generated method stub
 		throw new UnsupportedOperationException("Unimplemented method 'extractTriples'");
 	}
 
-	private void processCoreferences(Map<Integer, CorefChain> corefChains, String docId) {
+	void processCoreferences(Map<Integer, CorefChain> corefChains, ChunkExtraction extraction) {
 		corefChains.values().forEach(chain -> {
 			List<CorefMention> mentions = chain.getMentionsInTextualOrder();
 			if (mentions.size() > 1) {
 				String representative = normalizeForId(mentions.get(0).mentionSpan);
-				mentions.stream().skip(1)
+				extraction.addCorefGroup(representative, mentions.stream().skip(1)
 						.map(m -> normalizeForId(m.mentionSpan))
-						.filter(id -> nodes.containsKey(id))
-						.forEach(id -> mergeNodes(representative, id));
+						.collect(Collectors.toList()));
 			}
 		});
 	}
 
-	private void mergeNodes(String mainId, String synonymId) {
-		Node main = nodes.get(mainId);
-		Node synonym = nodes.get(synonymId);
-
-		if (main != null && synonym != null) {
-			// Fusionar documentos y frecuencia
-			main.getDocumentIds().addAll(synonym.getDocumentIds());
-			main.setFrequency(main.getFrequency() + synonym.getFrequency());
-
-			// Redirigir aristas
-			edges.forEach(e -> {
-				if (e.getSource().equals(synonymId))
-					e.setSource(mainId);
-				if (e.getTarget().equals(synonymId))
-					e.setTarget(mainId);
-			});
-
-			nodes.remove(synonymId);
-		}
-	}
-
-	private void cleanIsolatedNodes() {
-		Set<String> connectedNodes = edges.stream()
-				.flatMap(e -> Stream.of(e.getSource(), e.getTarget()))
-				.collect(Collectors.toSet());
-
-		nodes.entrySet().removeIf(entry -> !connectedNodes.contains(entry.getKey()) &&
-				entry.getValue().getFrequency() < 2);
-	}
-
-	private void mergeSimilarRelations() {
-		Map<String, Edge> relationMap = new HashMap<>();
-		new ArrayList<>(edges).forEach(e -> {
-			String key = e.getSource() + "-" + e.getTarget();
-			Edge existing = relationMap.get(key);
-			if (existing != null) {
-				existing.setRelationship(existing.getRelationship() + "|" + e.getRelationship());
-				edges.remove(e);
-			} else {
-				relationMap.put(key, e);
-			}
-		});
-	}
 
 }
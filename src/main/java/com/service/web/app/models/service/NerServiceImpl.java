@@ -2,6 +2,7 @@ package com.service.web.app.models.service;
 
 import java.io.StringReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
 import edu.stanford.nlp.ling.CoreLabel;
@@ -33,14 +34,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class NerServiceImpl implements INerService{	
 	
+	// Una pipeline por idioma, creada la primera vez que aparece ese idioma.
+	// StanfordCoreNLP.annotate se puede llamar desde varios hilos a la vez.
+	private final Map<String, StanfordCoreNLP> pipelines = new ConcurrentHashMap<>();
 	
 	@Override
 	public List<Document> entyByText(List<Document> doc) {
 		List<String> entities=new ArrayList<>();
 		for (Document d : doc) {
 			String lang = LenguageDetectorImpl.languageDetector(d.getText());
-	        Properties props = NamedEntityPropertiesImpl.nerProperties(lang);
-	        StanfordCoreNLP pipeline = new StanfordCoreNLP(props);
+	        StanfordCoreNLP pipeline = pipelineFor(lang);
 	        CoreDocument coreDoc = new CoreDocument(d.getText());
 	        pipeline.annotate(coreDoc);
 	        entities = coreDoc.entityMentions().stream()
@@ -54,6 +57,13 @@ public class NerServiceImpl implements INerService{
         return doc;
 
 	}
+
+	private StanfordCoreNLP pipelineFor(String lang) {
+		return pipelines.computeIfAbsent(lang, key -> {
+			Properties props = NamedEntityPropertiesImpl.nerProperties(key);
+			return new StanfordCoreNLP(props);
+		});
+	}
         /*List<String> entityTypes = coreDoc.entityMentions().stream()
                 .filter(x -> x.text().length() > 1)
                 .map(x -> x.entityType())
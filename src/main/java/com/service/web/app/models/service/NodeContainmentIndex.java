@@ -0,0 +1,192 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Índice de contención sobre los IDs de nodo del grafo.
+ *
+ * Responde a la misma pregunta que el antiguo recorrido de findParentEntity:
+ * de todos los IDs que contienen al candidato o están contenidos en él, el más
+ * largo; a igual longitud, el insertado antes (el orden del LinkedHashMap de
+ * nodos).
+ *
+ * - IDs que contienen al candidato: índice invertido de n-gramas de 4
+ * caracteres cuyas listas están ordenadas de mejor a peor (más largo, más
+ * antiguo). Se recorre la lista del n-grama menos frecuente del candidato y el
+ * primer ID que lo contiene es la respuesta.
+ * - IDs contenidos en el candidato: se buscan sus subcadenas, de la más larga a
+ * la más corta, en una tabla por hash polinómico (hash de cada subcadena en
+ * O(1) a partir de los prefijos, sin crear Strings) y solo para longitudes que
+ * tienen algún ID. El coste depende de la longitud del candidato y no del
+ * número de nodos.
+ *
+ * Los candidatos de menos de 4 caracteres no tienen n-gramas: se recorren todos
+ * los IDs en el mismo orden de mejor a peor hasta el primero que los contiene
+ * (casi siempre uno de los primeros).
+ */
+class NodeContainmentIndex {
+
+	private static final int GRAM = 4;
+	private static final long BASE = 1_000_003L;
+
+	// Más largo primero; a igual longitud, el insertado antes
+	private static final Comparator<Entry> RANK = Comparator.comparingInt((Entry e) -> -e.id.length())
+			.thenComparingLong(e -> e.order);
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final NavigableSet<Entry> ranked = new TreeSet<>(RANK);
+	// N-grama -> IDs que lo contienen
+	private final Map<String, NavigableSet<Entry>> postings = new HashMap<>();
+	// Hash del ID -> IDs con ese hash (encadenados por colisión)
+	private final Map<Long, Entry> byHash = new HashMap<>();
+	// Número de IDs de cada longitud
+	private int[] lengthCounts = new int[64];
+	private long nextOrder;
+
+	void add(String id) {
+		if (entries.containsKey(id))
+			return;
+		Entry entry = new Entry(id, nextOrder++);
+		entries.put(id, entry);
+		ranked.add(entry);
+		entry.sameHash = byHash.put(hash(id), entry);
+		if (id.length() >= lengthCounts.length) {
+			lengthCounts = Arrays.copyOf(lengthCounts, Math.max(id.length() + 1, lengthCounts.length * 2));
+		}
+		lengthCounts[id.length()]++;
+		for (String gram : grams(id)) {
+			postings.computeIfAbsent(gram, key -> new TreeSet<>(RANK)).add(entry);
+		}
+	}
+
+	void remove(String id) {
+		Entry entry = entries.remove(id);
+		if (entry == null)
+			return;
+		ranked.remove(entry);
+		unlinkHash(entry);
+		lengthCounts[id.length()]--;
+		for (String gram : grams(id)) {
+			NavigableSet<Entry> ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(entry);
+				if (ids.isEmpty())
+					postings.remove(gram);
+			}
+		}
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * ID más largo que contiene al candidato o está contenido en él (o null).
+	 */
+	String findLongestRelated(String candidateId) {
+		if (entries.isEmpty())
+			return null;
+
+		// 1. IDs que contienen al candidato: siempre de longitud >= candidato, así
+		// que si hay alguno es la respuesta
+		Set<Entry> containing = candidateId.length() < GRAM ? ranked : rarestPosting(candidateId);
+		for (Entry entry : containing) {
+			if (entry.id.length() < candidateId.length())
+				break;
+			if (entry.id.contains(candidateId))
+				return entry.id;
+		}
+
+		// 2. IDs contenidos en el candidato: la primera longitud con coincidencias gana
+		int candidateLength = candidateId.length();
+		long[] prefix = new long[candidateLength + 1];
+		long[] power = new long[candidateLength + 1];
+		power[0] = 1;
+		for (int i = 0; i < candidateLength; i++) {
+			prefix[i + 1] = prefix[i] * BASE + candidateId.charAt(i);
+			power[i + 1] = power[i] * BASE;
+		}
+		for (int length = Math.min(candidateLength - 1, lengthCounts.length - 1); length > 0; length--) {
+			if (lengthCounts[length] == 0)
+				continue;
+			Entry best = null;
+			for (int start = 0; start + length <= candidateLength; start++) {
+				long hash = prefix[start + length] - prefix[start] * power[length];
+				for (Entry entry = byHash.get(hash); entry != null; entry = entry.sameHash) {
+					if (entry.id.length() == length && candidateId.regionMatches(start, entry.id, 0, length)
+							&& (best == null || entry.order < best.order)) {
+						best = entry;
+					}
+				}
+			}
+			if (best != null)
+				return best.id;
+		}
+		return null;
+	}
+
+	private void unlinkHash(Entry entry) {
+		long hash = hash(entry.id);
+		Entry head = byHash.get(hash);
+		if (head == entry) {
+			if (entry.sameHash == null)
+				byHash.remove(hash);
+			else
+				byHash.put(hash, entry.sameHash);
+			return;
+		}
+		for (Entry previous = head; previous != null; previous = previous.sameHash) {
+			if (previous.sameHash == entry) {
+				previous.sameHash = entry.sameHash;
+				return;
+			}
+		}
+	}
+
+	private static long hash(String id) {
+		long hash = 0;
+		for (int i = 0; i < id.length(); i++) {
+			hash = hash * BASE + id.charAt(i);
+		}
+		return hash;
+	}
+
+	private Set<Entry> rarestPosting(String candidateId) {
+		Set<Entry> rarest = null;
+		for (int i = 0; i + GRAM <= candidateId.length(); i++) {
+			Set<Entry> ids = postings.get(candidateId.substring(i, i + GRAM));
+			if (ids == null)
+				return Set.of(); // Ningún ID contiene este n-grama
+			if (rarest == null || ids.size() < rarest.size()) {
+				rarest = ids;
+			}
+		}
+		return rarest;
+	}
+
+	private static Set<String> grams(String id) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM <= id.length(); i++) {
+			grams.add(id.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	private static final class Entry {
+		final String id;
+		final long order;
+		Entry sameHash;
+
+		Entry(String id, long order) {
+			this.id = id;
+			this.order = order;
+		}
+	}
+}
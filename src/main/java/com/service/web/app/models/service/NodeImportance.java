@@ -0,0 +1,54 @@
+package com.service.web.app.models.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cálculo de la importancia de los nodos del grafo de cada extracción
+ * (nlp.importance.*): PageRank sobre las aristas (por defecto) o log(1 +
+ * frecuencia) como antes. PageRank para al llegar a max-iterations o cuando
+ * la diferencia L1 entre dos iteraciones baja de tolerance.
+ */
+@Component
+class NodeImportance {
+
+	private static final Logger log = LoggerFactory.getLogger(NodeImportance.class);
+
+	static final String PAGERANK = "pagerank";
+	static final String FREQUENCY = "frequency";
+
+	private final boolean pageRank;
+	private final double damping;
+	private final int maxIterations;
+	private final double tolerance;
+
+	NodeImportance(@Value("${nlp.importance.algorithm:pagerank}") String algorithm,
+			@Value("${nlp.importance.damping:0.85}") double damping,
+			@Value("${nlp.importance.max-iterations:50}") int maxIterations,
+			@Value("${nlp.importance.tolerance:1e-6}") double tolerance) {
+		if (!PAGERANK.equals(algorithm) && !FREQUENCY.equals(algorithm)) {
+			throw new IllegalArgumentException("nlp.importance.algorithm debe ser pagerank o frequency: " + algorithm);
+		}
+		if (damping <= 0 || damping >= 1) {
+			throw new IllegalArgumentException("nlp.importance.damping debe estar entre 0 y 1");
+		}
+		this.pageRank = PAGERANK.equals(algorithm);
+		this.damping = damping;
+		this.maxIterations = Math.max(1, maxIterations);
+		this.tolerance = tolerance;
+	}
+
+	void calculate(KnowledgeGraph graph) {
+		if (!pageRank) {
+			graph.calculateNodeImportance();
+			return;
+		}
+		int iterations = graph.calculatePageRankImportance(damping, maxIterations, tolerance);
+		if (iterations >= maxIterations)
+			log.debug("PageRank sin converger en {} iteraciones (tolerancia {})", iterations, tolerance);
+		else
+			log.debug("PageRank convergió en {} iteraciones", iterations);
+	}
+}
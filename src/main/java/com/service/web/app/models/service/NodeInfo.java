@@ -1,6 +1,10 @@
 package com.service.web.app.models.service;
 
-class NodeInfo {
+import java.io.Serializable;
+
+class NodeInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     String id;
     String name;
     String type;
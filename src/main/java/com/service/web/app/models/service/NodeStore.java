@@ -0,0 +1,222 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+
+import com.service.web.app.models.entity.Node;
+
+/**
+ * Nodos de un KnowledgeGraph en columnas de tipos primitivos.
+ *
+ * El índice de un nodo es el de su ID en una StringTable propia; también
+ * reciben índice los IDs que solo aparecen como extremo de una arista. Nombre
+ * y tipo son índices de una tabla de cadenas compartida, los documentos son
+ * arrays ordenados de índices de documento y frecuencia e importancia van en
+ * arrays paralelos. Los objetos Node solo se crean al devolver el grafo.
+ *
+ * Se conserva el orden de inserción del antiguo LinkedHashMap: un nodo
+ * eliminado y vuelto a crear pasa al final.
+ */
+class NodeStore {
+
+	private static final int[] NO_DOCUMENTS = new int[0];
+	private static final int ABSENT = -1;
+
+	private final StringTable ids = new StringTable();
+	private final StringTable strings = new StringTable();
+	private final StringTable documentIds = new StringTable();
+
+	private int[] names = new int[16];
+	private int[] types = new int[16];
+	private int[] frequencies = new int[16];
+	private double[] importances = new double[16];
+	private int[][] documents = new int[16][];
+	// Posición del nodo en 'order', o ABSENT si no está en el grafo
+	private int[] orderPositions = new int[16];
+	// Nodos en orden de inserción (ABSENT en los huecos de los eliminados)
+	private final IntList order = new IntList(16);
+	private int size;
+
+	/**
+	 * Índice del ID, asignándole uno si no tenía (no crea el nodo).
+	 */
+	int intern(String id) {
+		int node = ids.intern(id);
+		if (node >= names.length)
+			grow(Math.max(node + 1, names.length * 2));
+		if (documents[node] == null) { // ID nuevo
+			orderPositions[node] = ABSENT;
+			documents[node] = NO_DOCUMENTS;
+		}
+		return node;
+	}
+
+	/**
+	 * Índice del nodo con ese ID, o -1 si no está en el grafo.
+	 */
+	int indexOf(String id) {
+		int node = ids.indexOf(id);
+		return node >= 0 && contains(node) ? node : -1;
+	}
+
+	boolean contains(int node) {
+		return orderPositions[node] != ABSENT;
+	}
+
+	/**
+	 * Crea el nodo (frecuencia 1) al final del orden de inserción.
+	 */
+	void create(int node, String name, String type, String documentId) {
+		names[node] = stringIndex(name);
+		types[node] = stringIndex(type);
+		frequencies[node] = 1;
+		importances[node] = 0.0;
+		documents[node] = NO_DOCUMENTS;
+		addDocument(node, documentId);
+		orderPositions[node] = order.size();
+		order.add(node);
+		size++;
+	}
+
+	void remove(int node) {
+		if (!contains(node))
+			return;
+		order.set(orderPositions[node], ABSENT);
+		orderPositions[node] = ABSENT;
+		documents[node] = NO_DOCUMENTS;
+		size--;
+	}
+
+	int size() {
+		return size;
+	}
+
+	// IDs con índice (nodos del grafo, eliminados y extremos de aristas)
+	int idCount() {
+		return ids.size();
+	}
+
+	// Posiciones del orden de inserción (incluidos los huecos)
+	int orderSize() {
+		return order.size();
+	}
+
+	/**
+	 * Nodo en esa posición del orden de inserción, o -1 si se eliminó.
+	 */
+	int nodeAt(int position) {
+		return order.get(position);
+	}
+
+	int orderPosition(int node) {
+		return orderPositions[node];
+	}
+
+	String id(int node) {
+		return ids.get(node);
+	}
+
+	String name(int node) {
+		return string(names[node]);
+	}
+
+	void setName(int node, String name) {
+		names[node] = stringIndex(name);
+	}
+
+	String type(int node) {
+		return string(types[node]);
+	}
+
+	void setType(int node, String type) {
+		types[node] = stringIndex(type);
+	}
+
+	int frequency(int node) {
+		return frequencies[node];
+	}
+
+	void setFrequency(int node, int frequency) {
+		frequencies[node] = frequency;
+	}
+
+	void incrementFrequency(int node) {
+		frequencies[node]++;
+	}
+
+	void setImportance(int node, double importance) {
+		importances[node] = importance;
+	}
+
+	void addDocument(int node, String documentId) {
+		if (documentId == null)
+			return;
+		int document = documentIds.intern(documentId);
+		int[] current = documents[node];
+		int pos = Arrays.binarySearch(current, document);
+		if (pos >= 0)
+			return;
+		int insertAt = -pos - 1;
+		int[] updated = new int[current.length + 1];
+		System.arraycopy(current, 0, updated, 0, insertAt);
+		updated[insertAt] = document;
+		System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+		documents[node] = updated;
+	}
+
+	/**
+	 * Añade a 'into' los documentos de 'from' (unión de arrays ordenados).
+	 */
+	void mergeDocuments(int into, int from) {
+		int[] a = documents[into];
+		int[] b = documents[from];
+		int[] merged = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length || j < b.length) {
+			if (j == b.length || i < a.length && a[i] < b[j]) {
+				merged[n++] = a[i++];
+			} else if (i == a.length || b[j] < a[i]) {
+				merged[n++] = b[j++];
+			} else {
+				merged[n++] = a[i++];
+				j++;
+			}
+		}
+		documents[into] = n == merged.length ? merged : Arrays.copyOf(merged, n);
+	}
+
+	/**
+	 * Copia del nodo como entidad Node (para la respuesta o el streaming).
+	 */
+	Node toNode(int node) {
+		int[] nodeDocuments = documents[node];
+		Node result = new Node(id(node), name(node), type(node),
+				nodeDocuments.length > 0 ? documentIds.get(nodeDocuments[0]) : "");
+		if (nodeDocuments.length == 0) {
+			result.getDocumentIds().clear();
+		}
+		for (int i = 1; i < nodeDocuments.length; i++) {
+			result.addDocumentId(documentIds.get(nodeDocuments[i]));
+		}
+		result.setFrequency(frequencies[node]);
+		result.setImportance(importances[node]);
+		return result;
+	}
+
+	// Nombre y tipo pueden ser null: se guardan como -1
+	private int stringIndex(String value) {
+		return value == null ? -1 : strings.intern(value);
+	}
+
+	private String string(int index) {
+		return index < 0 ? null : strings.get(index);
+	}
+
+	private void grow(int capacity) {
+		names = Arrays.copyOf(names, capacity);
+		types = Arrays.copyOf(types, capacity);
+		frequencies = Arrays.copyOf(frequencies, capacity);
+		importances = Arrays.copyOf(importances, capacity);
+		documents = Arrays.copyOf(documents, capacity);
+		orderPositions = Arrays.copyOf(orderPositions, capacity);
+	}
+}
@@ -0,0 +1,273 @@
+package com.service.web.app.models.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.AnnotationPipeline;
+import edu.stanford.nlp.pipeline.AnnotatorImplementations;
+import edu.stanford.nlp.pipeline.AnnotatorPool;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+/**
+ * Pool acotado de pipelines de CoreNLP ya inicializadas.
+ * Cada anotación toma una pipeline libre y la devuelve al terminar, de modo que
+ * el número de anotaciones simultáneas queda limitado por el tamaño del pool
+ * (nlp.pipeline.pool-size). Los modelos se cargan una sola vez: CoreNLP
+ * comparte los anotadores entre instancias con las mismas propiedades.
+ *
+ * Hay pool-size pipelines por cada AnnotatorProfile. Los anotadores con la
+ * misma configuración (tokenize, pos, ner...) se comparten entre perfiles a
+ * través de la caché de anotadores de CoreNLP: cada perfil solo carga lo que
+ * cambia. Sin perfil se usa nlp.pipeline.default-profile.
+ *
+ * Cada anotador va envuelto en un TimedAnnotator (métrica nlp.annotator).
+ */
+@Component
+class PipelinePool {
+
+	private static final Logger log = LoggerFactory.getLogger(PipelinePool.class);
+
+	private final Map<AnnotatorProfile, BlockingQueue<StanfordCoreNLP>> idle = new EnumMap<>(AnnotatorProfile.class);
+	private final Map<AnnotatorProfile, String> configurations = new EnumMap<>(AnnotatorProfile.class);
+	private final AnnotatorProfile defaultProfile;
+	private final int poolSize;
+	private final long borrowTimeoutMs;
+
+	PipelinePool(@Value("${nlp.pipeline.pool-size:4}") int poolSize,
+			@Value("${nlp.pipeline.borrow-timeout-ms:600000}") long borrowTimeoutMs,
+			@Value("${nlp.pipeline.default-profile:full}") String defaultProfile, ExtractionMetrics metrics) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("nlp.pipeline.pool-size debe ser al menos 1");
+		}
+		this.poolSize = poolSize;
+		this.borrowTimeoutMs = borrowTimeoutMs;
+		this.defaultProfile = AnnotatorProfile.parse(defaultProfile);
+
+		Properties base = spanishProperties();
+		// Inicializar todas las pipelines al arrancar (puede tardar un poco la primera)
+		log.info("Inicializando {} pipelines de CoreNLP por perfil ({} por defecto)", poolSize,
+				this.defaultProfile.id());
+		for (AnnotatorProfile profile : AnnotatorProfile.values()) {
+			Properties props = profileProperties(base, profile);
+			configurations.put(profile, describe(props));
+			// La caché de anotadores de CoreNLP es global: se registran las propiedades
+			// del perfil y se crean sus pipelines antes de pasar al siguiente
+			AnnotatorPool annotators = new TimedAnnotator.Pool(
+					StanfordCoreNLP.getDefaultAnnotatorPool(props, new AnnotatorImplementations()), metrics);
+			BlockingQueue<StanfordCoreNLP> pipelines = new ArrayBlockingQueue<>(poolSize);
+			for (int i = 0; i < poolSize; i++) {
+				pipelines.add(new StanfordCoreNLP(props, true, annotators));
+			}
+			idle.put(profile, pipelines);
+			log.info("Pipelines del perfil {} listas: {}", profile.id(), profile.annotators());
+		}
+	}
+
+	/**
+	 * Anota el documento con la primera pipeline libre del perfil por defecto.
+	 */
+	void annotate(Annotation document) {
+		annotate(defaultProfile, document);
+	}
+
+	/**
+	 * Anota el documento con la primera pipeline libre del perfil.
+	 * Bloquea hasta que haya una disponible o se agote nlp.pipeline.borrow-timeout-ms.
+	 */
+	void annotate(AnnotatorProfile profile, Annotation document) {
+		BlockingQueue<StanfordCoreNLP> pipelines = idle.get(profile);
+		StanfordCoreNLP pipeline = borrow(pipelines);
+		try {
+			pipeline.annotate(document);
+		} finally {
+			pipelines.add(pipeline);
+		}
+	}
+
+	/**
+	 * Anota un lote de documentos con una sola pipeline libre del perfil, con
+	 * threads hilos de CoreNLP (ver annotateBatch).
+	 * Devuelve qué documentos quedaron anotados, en el orden de la lista: si un
+	 * documento falla, queda a false y es cosa de quien llama volver a anotarlo
+	 * o descartarlo.
+	 */
+	boolean[] annotate(AnnotatorProfile profile, List<Annotation> documents, int threads) {
+		BlockingQueue<StanfordCoreNLP> pipelines = idle.get(profile);
+		StanfordCoreNLP pipeline = borrow(pipelines);
+		try {
+			return annotateBatch(pipeline, documents, threads);
+		} finally {
+			pipelines.add(pipeline);
+		}
+	}
+
+	/**
+	 * Anota el lote con la pipeline. Con un hilo se recorre aquí, documento a
+	 * documento: en CoreNLP 4.4.0 AnnotationPipeline.annotate(Iterable, 1,
+	 * callback) no termina tras su bucle secuencial y vuelve a anotar todo el
+	 * lote con threadAndRun. Con más hilos se usa ese mismo método.
+	 */
+	static boolean[] annotateBatch(AnnotationPipeline pipeline, List<Annotation> documents, int threads) {
+		boolean[] done = new boolean[documents.size()];
+		if (threads <= 1) {
+			for (int i = 0; i < documents.size(); i++) {
+				try {
+					pipeline.annotate(documents.get(i));
+					done[i] = true;
+				} catch (RuntimeException e) {
+					log.warn("Error anotando el documento {} de un lote de {}", i + 1, documents.size(), e);
+				}
+			}
+			return done;
+		}
+		// Por identidad: el hashCode de una Annotation depende de su contenido
+		Map<Annotation, Integer> positions = new IdentityHashMap<>();
+		for (int i = 0; i < documents.size(); i++) {
+			positions.put(documents.get(i), i);
+		}
+		AtomicIntegerArray annotated = new AtomicIntegerArray(documents.size());
+		try {
+			pipeline.annotate(documents, threads, document -> annotated.set(positions.get(document), 1));
+		} catch (RuntimeException e) {
+			log.warn("Error anotando un lote de {} documentos", documents.size(), e);
+		}
+		for (int i = 0; i < done.length; i++) {
+			done[i] = annotated.get(i) == 1;
+		}
+		return done;
+	}
+
+	/**
+	 * Anota los textos, uno a uno, con cada pipeline del perfil (un hilo por
+	 * pipeline). Retiene todas las pipelines del perfil hasta terminar, así que
+	 * cada instancia del pool pasa por los textos. Para el calentamiento (ver
+	 * PipelineWarmup).
+	 */
+	void annotateWithEach(AnnotatorProfile profile, List<String> texts) {
+		BlockingQueue<StanfordCoreNLP> pipelines = idle.get(profile);
+		List<StanfordCoreNLP> borrowed = new ArrayList<>();
+		ExecutorService threads = Executors.newFixedThreadPool(poolSize);
+		try {
+			for (int i = 0; i < poolSize; i++) {
+				borrowed.add(borrow(pipelines));
+			}
+			List<Future<?>> results = new ArrayList<>();
+			for (StanfordCoreNLP pipeline : borrowed) {
+				results.add(threads.submit(() -> texts.forEach(text -> pipeline.annotate(new Annotation(text)))));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpido anotando con las pipelines del perfil " + profile.id(), e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Una pipeline del perfil " + profile.id() + " falló", e.getCause());
+		} finally {
+			threads.shutdownNow();
+			pipelines.addAll(borrowed);
+		}
+	}
+
+	// Pipelines de cada perfil
+	int size() {
+		return poolSize;
+	}
+
+	AnnotatorProfile defaultProfile() {
+		return defaultProfile;
+	}
+
+	/**
+	 * Propiedades de las pipelines del perfil en forma canónica (clave de la caché
+	 * de chunks).
+	 */
+	String configuration(AnnotatorProfile profile) {
+		return configurations.get(profile);
+	}
+
+	private static String describe(Properties props) {
+		StringBuilder description = new StringBuilder();
+		new TreeMap<>(props).forEach((key, value) -> description.append(key).append('=').append(value).append('\n'));
+		return description.toString();
+	}
+
+	private StanfordCoreNLP borrow(BlockingQueue<StanfordCoreNLP> pipelines) {
+		try {
+			StanfordCoreNLP pipeline = pipelines.poll(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+			if (pipeline == null) {
+				throw new IllegalStateException(
+						"No hay pipelines de CoreNLP libres tras " + borrowTimeoutMs + " ms");
+			}
+			return pipeline;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpido esperando una pipeline de CoreNLP", e);
+		}
+	}
+
+	private static Properties spanishProperties() {
+		// --- Configuración de CoreNLP ---
+		Properties props = new Properties();
+
+		// Cargar archivo Spanish.properties desde el classpath
+		try (InputStream input = PipelinePool.class.getClassLoader()
+				.getResourceAsStream("StanfordCoreNLP-spanish.properties")) {
+			if (input == null) {
+				throw new IOException("No se encontró el archivo Spanish.properties");
+			}
+			props.load(input); // Carga las propiedades en el objeto props
+		} catch (IOException e) {
+			log.error("No se pudo cargar la configuración de CoreNLP en español", e);
+		}
+
+		// 1. DEFINIR ANOTADORES: Lista explícita de los que usaremos.
+		// Incluye los de las props por defecto + coref + openie.
+		// OMITIMOS 'parse' para MEJOR RENDIMIENTO, ya que nos basamos en 'depparse'.
+		// Incluimos 'mwt' (Multi-Word Tokenizer), importante para español.
+		props.setProperty("annotators", "tokenize,ssplit,mwt,pos,lemma,depparse,ner,kbp,coref,natlog,openie");
+
+		props.setProperty("ner.fine.regexner.ignorecase", "true");
+
+		// OpenIE (Open Information Extraction) - Configurar
+		props.setProperty("openie.resolve_coref", "true"); // Intentar usar coreferencia para mejores triples
+		props.setProperty("openie.ignore_affinity", "false"); // Usar afinidad para filtrar
+		props.setProperty("openie.affinity_probability_cap", "0.6"); // Umbral de confianza
+		props.setProperty("openie.triple.strict", "false");
+		props.setProperty("openie.affinity.threads", "3");
+		return props;
+	}
+
+	// Propiedades comunes con los anotadores del perfil
+	private static Properties profileProperties(Properties base, AnnotatorProfile profile) {
+		Properties props = new Properties();
+		props.putAll(base);
+		props.setProperty("annotators", profile.annotators());
+		if (!profile.hasCoref()) {
+			// OpenIE exige las cadenas de coref si tiene que resolverlas
+			props.setProperty("openie.resolve_coref", "false");
+		}
+		return props;
+	}
+}
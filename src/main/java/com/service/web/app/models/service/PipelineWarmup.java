@@ -0,0 +1,130 @@
+package com.service.web.app.models.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calentamiento de las pipelines al arrancar y sonda de disponibilidad.
+ *
+ * PipelinePool carga los modelos al crear el bean, pero la primera anotación
+ * de cada perfil sigue pagando el JIT y la inicialización perezosa de openie,
+ * coref y kbp. Cuando la aplicación está lista, un hilo aparte pasa el corpus
+ * de muestra (warmup/muestra-es.txt) por cada una de las pipelines de cada
+ * perfil, todas a la vez.
+ *
+ * Mientras tanto el servidor ya responde, pero este indicador (pipelineWarmup)
+ * está OUT_OF_SERVICE; como forma parte del grupo readiness
+ * (/actuator/health/readiness), el balanceador solo manda tráfico a
+ * instancias calientes. Si el calentamiento falla queda DOWN.
+ *
+ * El tiempo de arranque y el de cada perfil se registran en las métricas
+ * nlp.startup.* (ver ExtractionMetrics).
+ *
+ * Configuración: nlp.warmup.enabled y nlp.warmup.rounds (pasadas del corpus
+ * por perfil).
+ */
+@Component
+class PipelineWarmup implements HealthIndicator {
+
+	private static final Logger log = LoggerFactory.getLogger(PipelineWarmup.class);
+
+	private static final String SAMPLE = "warmup/muestra-es.txt";
+
+	private final PipelinePool pipelinePool;
+	private final ExtractionMetrics metrics;
+	private final boolean enabled;
+	private final int rounds;
+
+	// Estado que lee el indicador desde otros hilos
+	private volatile Health health;
+
+	PipelineWarmup(PipelinePool pipelinePool, ExtractionMetrics metrics,
+			@Value("${nlp.warmup.enabled:true}") boolean enabled, @Value("${nlp.warmup.rounds:2}") int rounds) {
+		this.pipelinePool = pipelinePool;
+		this.metrics = metrics;
+		this.enabled = enabled;
+		this.rounds = Math.max(1, rounds);
+		this.health = enabled ? Health.outOfService().withDetail("warmup", "pendiente").build()
+				: Health.up().withDetail("warmup", "desactivado").build();
+	}
+
+	@Override
+	public Health health() {
+		return health;
+	}
+
+	@EventListener
+	void onReady(ApplicationReadyEvent event) {
+		long startupMs = event.getTimeTaken().toMillis();
+		metrics.startupCompleted(startupMs);
+		log.info("Aplicación lista en {} ms", startupMs);
+		if (!enabled) {
+			return;
+		}
+		Thread warmup = new Thread(this::warmUp, "pipeline-warmup");
+		warmup.setDaemon(true);
+		warmup.start();
+	}
+
+	private void warmUp() {
+		health = Health.outOfService().withDetail("warmup", "en curso").build();
+		long start = System.nanoTime();
+		Map<String, Long> profileMs = new LinkedHashMap<>();
+		try {
+			List<String> sample = sampleCorpus();
+			for (AnnotatorProfile profile : AnnotatorProfile.values()) {
+				long profileStart = System.nanoTime();
+				for (int round = 0; round < rounds; round++) {
+					pipelinePool.annotateWithEach(profile, sample);
+				}
+				long nanos = System.nanoTime() - profileStart;
+				metrics.warmupCompleted(profile.id(), nanos);
+				profileMs.put(profile.id(), TimeUnit.NANOSECONDS.toMillis(nanos));
+				log.info("Perfil {} caliente en {} ms", profile.id(), profileMs.get(profile.id()));
+			}
+			long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			health = Health.up().withDetail("warmup", "completado").withDetail("durationMs", totalMs)
+					.withDetail("profiles", profileMs).build();
+			log.info("Calentamiento completado en {} ms: la instancia acepta tráfico", totalMs);
+		} catch (RuntimeException e) {
+			log.error("Falló el calentamiento de las pipelines de CoreNLP", e);
+			health = Health.down(e).withDetail("warmup", "fallido").withDetail("profiles", profileMs).build();
+		}
+	}
+
+	private static List<String> sampleCorpus() {
+		try (InputStream input = PipelineWarmup.class.getClassLoader().getResourceAsStream(SAMPLE)) {
+			if (input == null) {
+				throw new IllegalStateException("No se encontró " + SAMPLE);
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+			List<String> texts = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) {
+					texts.add(line);
+				}
+			}
+			return texts;
+		} catch (IOException e) {
+			throw new IllegalStateException("No se pudo leer " + SAMPLE, e);
+		}
+	}
+}
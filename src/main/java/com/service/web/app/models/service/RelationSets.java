@@ -0,0 +1,115 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+
+/**
+ * Conjuntos de relaciones internados (las relaciones de un par fusionado por
+ * mergeSimilarRelations): cada secuencia distinta de índices de relación
+ * recibe un entero consecutivo y se guarda una sola vez, en un único int[]
+ * con offsets.
+ *
+ * El texto "a|b|c" solo se construye al pedir label, y se guarda para las
+ * siguientes veces: los pares con las mismas relaciones comparten la cadena.
+ */
+final class RelationSets {
+
+	private int[] members = new int[64];
+	private int used;
+	// Conjunto -> inicio de sus miembros; el fin es el inicio del siguiente
+	private int[] offsets = new int[17];
+	private String[] labels = new String[16];
+	// Posición -> índice + 1 (0 = libre)
+	private int[] table = new int[32];
+	private int size;
+
+	/**
+	 * Índice del conjunto values[from .. from + length), añadiéndolo si no estaba.
+	 */
+	int intern(int[] values, int from, int length) {
+		int mask = table.length - 1;
+		for (int pos = hash(values, from, length) & mask;; pos = (pos + 1) & mask) {
+			int entry = table[pos];
+			if (entry == 0) {
+				add(values, from, length);
+				table[pos] = size;
+				if (size * 2 > table.length)
+					rehash();
+				return size - 1;
+			}
+			if (sameMembers(entry - 1, values, from, length))
+				return entry - 1;
+		}
+	}
+
+	int memberCount(int set) {
+		return offsets[set + 1] - offsets[set];
+	}
+
+	int member(int set, int index) {
+		return members[offsets[set] + index];
+	}
+
+	/**
+	 * Relaciones del conjunto unidas con '|', en el orden en que se añadieron.
+	 */
+	String label(int set, StringTable relations) {
+		String label = labels[set];
+		if (label == null) {
+			StringBuilder joined = new StringBuilder();
+			for (int i = offsets[set]; i < offsets[set + 1]; i++) {
+				if (i > offsets[set])
+					joined.append('|');
+				joined.append(relations.get(members[i]));
+			}
+			label = joined.toString();
+			labels[set] = label;
+		}
+		return label;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void add(int[] values, int from, int length) {
+		if (used + length > members.length)
+			members = Arrays.copyOf(members, Math.max(used + length, members.length * 2));
+		if (size + 2 > offsets.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			labels = Arrays.copyOf(labels, labels.length * 2);
+		}
+		System.arraycopy(values, from, members, used, length);
+		used += length;
+		offsets[++size] = used;
+	}
+
+	private boolean sameMembers(int set, int[] values, int from, int length) {
+		int start = offsets[set];
+		if (offsets[set + 1] - start != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (members[start + i] != values[from + i])
+				return false;
+		}
+		return true;
+	}
+
+	private void rehash() {
+		int[] rehashed = new int[table.length * 2];
+		int mask = rehashed.length - 1;
+		for (int set = 0; set < size; set++) {
+			int pos = hash(members, offsets[set], memberCount(set)) & mask;
+			while (rehashed[pos] != 0)
+				pos = (pos + 1) & mask;
+			rehashed[pos] = set + 1;
+		}
+		table = rehashed;
+	}
+
+	private static int hash(int[] values, int from, int length) {
+		int hash = length;
+		for (int i = from; i < from + length; i++)
+			hash = hash * 31 + values[i];
+		return StringTable.mix(hash);
+	}
+}
@@ -0,0 +1,80 @@
+package com.service.web.app.models.service;
+
+import java.util.Arrays;
+
+/**
+ * Diccionario de cadenas internadas: cada cadena distinta recibe un entero
+ * consecutivo (0, 1, 2...) y se guarda una sola vez.
+ *
+ * Tabla hash de direccionamiento abierto sobre arrays de enteros: no crea un
+ * objeto por entrada como HashMap<String, Integer>. No admite borrados; las
+ * cadenas viven lo mismo que el grafo que las usa.
+ */
+class StringTable {
+
+	private String[] values = new String[16];
+	// Posición -> índice + 1 (0 = libre)
+	private int[] table = new int[32];
+	private int size;
+
+	/**
+	 * Índice de la cadena, añadiéndola si no estaba.
+	 */
+	int intern(String value) {
+		int mask = table.length - 1;
+		for (int pos = mix(value.hashCode()) & mask;; pos = (pos + 1) & mask) {
+			int entry = table[pos];
+			if (entry == 0) {
+				if (size == values.length)
+					values = Arrays.copyOf(values, size * 2);
+				values[size] = value;
+				table[pos] = ++size;
+				if (size * 2 > table.length)
+					rehash();
+				return size - 1;
+			}
+			if (values[entry - 1].equals(value))
+				return entry - 1;
+		}
+	}
+
+	/**
+	 * Índice de la cadena, o -1 si no está.
+	 */
+	int indexOf(String value) {
+		int mask = table.length - 1;
+		for (int pos = mix(value.hashCode()) & mask;; pos = (pos + 1) & mask) {
+			int entry = table[pos];
+			if (entry == 0)
+				return -1;
+			if (values[entry - 1].equals(value))
+				return entry - 1;
+		}
+	}
+
+	String get(int index) {
+		return values[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void rehash() {
+		int[] rehashed = new int[table.length * 2];
+		int mask = rehashed.length - 1;
+		for (int index = 0; index < size; index++) {
+			int pos = mix(values[index].hashCode()) & mask;
+			while (rehashed[pos] != 0)
+				pos = (pos + 1) & mask;
+			rehashed[pos] = index + 1;
+		}
+		table = rehashed;
+	}
+
+	// Reparte los bits altos del hash (String.hashCode agrupa cadenas parecidas)
+	static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,200 @@
+package com.service.web.app.models.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Divide un texto en chunks de oraciones en una sola pasada, sin regex.
+ *
+ * Las oraciones se cortan igual que con el antiguo
+ * split("(?<=[.!?])\\s+|[\n\r]+"): tras '.', '!' o '?' seguido de espacio, y
+ * en cada salto de línea. Cada oración se recorta y un chunk son hasta
+ * maxSentences oraciones unidas por un espacio. Si maxChars es positivo, un
+ * chunk tampoco pasa de maxChars caracteres: se cierra antes de añadir la
+ * oración que lo haría pasar, y una oración que por sí sola no cabe se parte
+ * por el último espacio antes del límite.
+ *
+ * Los chunks se generan bajo demanda a partir de un CharSequence o un
+ * Reader: en memoria solo están la oración y el chunk en curso.
+ *
+ * Configuración: nlp.chunk.max-sentences y nlp.chunk.max-chars (0 = sin límite
+ * de caracteres).
+ */
+@Component
+class TextChunker {
+
+	private final int maxSentences;
+	private final int maxChars;
+
+	TextChunker(@Value("${nlp.chunk.max-sentences:10}") int maxSentences,
+			@Value("${nlp.chunk.max-chars:4000}") int maxChars) {
+		if (maxSentences < 1) {
+			throw new IllegalArgumentException("nlp.chunk.max-sentences debe ser al menos 1");
+		}
+		this.maxSentences = maxSentences;
+		this.maxChars = maxChars;
+	}
+
+	Iterable<String> chunks(CharSequence text) {
+		return () -> new ChunkIterator(new CharSequenceSource(text));
+	}
+
+	Iterable<String> chunks(Reader reader) {
+		return () -> new ChunkIterator(new ReaderSource(reader));
+	}
+
+	// Origen de caracteres: el siguiente, o -1 al terminar
+	private interface CharSource {
+		int next();
+	}
+
+	private static final class CharSequenceSource implements CharSource {
+		private final CharSequence text;
+		private int position;
+
+		CharSequenceSource(CharSequence text) {
+			this.text = text;
+		}
+
+		@Override
+		public int next() {
+			return position < text.length() ? text.charAt(position++) : -1;
+		}
+	}
+
+	private static final class ReaderSource implements CharSource {
+		private final Reader reader;
+		private final char[] buffer = new char[8192];
+		private int position;
+		private int limit;
+
+		ReaderSource(Reader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int next() {
+			if (position == limit) {
+				try {
+					limit = reader.read(buffer);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return -1;
+				}
+			}
+			return buffer[position++];
+		}
+	}
+
+	private final class ChunkIterator implements Iterator<String> {
+		private final CharSource source;
+		private final StringBuilder sentence = new StringBuilder();
+		private final StringBuilder chunk = new StringBuilder();
+		private final ArrayDeque<String> ready = new ArrayDeque<>();
+		private int sentencesInChunk;
+		private int previous = -1;
+		private boolean finished;
+
+		ChunkIterator(CharSource source) {
+			this.source = source;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (ready.isEmpty() && !finished) {
+				int c = source.next();
+				if (c < 0) {
+					endSentence();
+					emitChunk();
+					finished = true;
+				} else if (c == '\n' || c == '\r' || isWhitespace(c) && isTerminator(previous)) {
+					endSentence();
+				} else {
+					sentence.append((char) c);
+				}
+				previous = c;
+			}
+			return !ready.isEmpty();
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return ready.poll();
+		}
+
+		private void endSentence() {
+			int start = 0;
+			int end = sentence.length();
+			while (start < end && sentence.charAt(start) <= ' ')
+				start++;
+			while (end > start && sentence.charAt(end - 1) <= ' ')
+				end--;
+			if (start < end) {
+				addSentence(start, end);
+			}
+			sentence.setLength(0);
+		}
+
+		private void addSentence(int start, int end) {
+			if (maxChars > 0) {
+				if (sentencesInChunk > 0 && chunk.length() + 1 + (end - start) > maxChars) {
+					emitChunk();
+				}
+				// Oración más larga que el presupuesto: trozos de hasta maxChars
+				while (end - start > maxChars) {
+					int cut = start + maxChars;
+					int space = cut;
+					while (space > start && sentence.charAt(space) != ' ')
+						space--;
+					if (space > start)
+						cut = space;
+					chunk.append(sentence, start, cut);
+					sentencesInChunk++;
+					emitChunk();
+					start = cut;
+					while (start < end && sentence.charAt(start) <= ' ')
+						start++;
+				}
+			}
+			if (sentencesInChunk > 0)
+				chunk.append(' ');
+			chunk.append(sentence, start, end);
+			if (++sentencesInChunk == maxSentences) {
+				emitChunk();
+			}
+		}
+
+		private void emitChunk() {
+			if (sentencesInChunk > 0) {
+				int end = chunk.length();
+				while (end > 0 && chunk.charAt(end - 1) <= ' ')
+					end--;
+				ready.add(chunk.substring(0, end));
+			}
+			chunk.setLength(0);
+			sentencesInChunk = 0;
+		}
+	}
+
+	private static boolean isTerminator(int c) {
+		return c == '.' || c == '!' || c == '?';
+	}
+
+	// Los mismos caracteres que \s en java.util.regex
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+}
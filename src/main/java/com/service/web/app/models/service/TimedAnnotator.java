@@ -0,0 +1,78 @@
+package com.service.web.app.models.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.nlp.ling.CoreAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.AnnotatorPool;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Anotador de CoreNLP que mide cada llamada a annotate con un Timer.
+ * Delega en el anotador real, que sigue siendo el compartido por CoreNLP.
+ */
+class TimedAnnotator implements Annotator {
+
+	private final Annotator delegate;
+	private final Timer timer;
+
+	TimedAnnotator(Annotator delegate, Timer timer) {
+		this.delegate = delegate;
+		this.timer = timer;
+	}
+
+	@Override
+	public void annotate(Annotation annotation) {
+		long start = System.nanoTime();
+		try {
+			delegate.annotate(annotation);
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public void unmount() {
+		delegate.unmount();
+	}
+
+	@Override
+	public Set<Class<? extends CoreAnnotation>> requirementsSatisfied() {
+		return delegate.requirementsSatisfied();
+	}
+
+	@Override
+	public Set<Class<? extends CoreAnnotation>> requires() {
+		return delegate.requires();
+	}
+
+	@Override
+	public Collection<String> exactRequirements() {
+		return delegate.exactRequirements();
+	}
+
+	/**
+	 * Pool de anotadores que envuelve cada anotador del pool original de CoreNLP
+	 * en un TimedAnnotator con su propio timer (por nombre: tokenize, ner, ...).
+	 */
+	static class Pool extends AnnotatorPool {
+
+		private final AnnotatorPool delegate;
+		private final ExtractionMetrics metrics;
+
+		Pool(AnnotatorPool delegate, ExtractionMetrics metrics) {
+			this.delegate = delegate;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public synchronized Annotator get(String name) {
+			Annotator annotator = delegate.get(name);
+			return annotator == null ? null : new TimedAnnotator(annotator, metrics.annotator(name));
+		}
+	}
+}
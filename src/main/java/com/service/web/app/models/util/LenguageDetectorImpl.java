@@ -1,17 +1,26 @@
 package com.service.web.app.models.util;
 
 import org.apache.tika.langdetect.optimaize.OptimaizeLangDetector;
+import org.apache.tika.language.detect.LanguageDetector;
 
 
 public class LenguageDetectorImpl {
 
-	
-	public static String languageDetector(String text) {
-		OptimaizeLangDetector lang = (OptimaizeLangDetector) new OptimaizeLangDetector().loadModels();
-        lang.addText(text);
-        String langString = lang.detect().getLanguage();
-        return langString;
+	// Los modelos se cargan una sola vez, en el primer uso
+	private static class Holder {
+		static final LanguageDetector DETECTOR = new OptimaizeLangDetector().loadModels();
+	}
 
+	/**
+	 * Detecta el idioma del texto con un detector compartido.
+	 * El detector acumula texto entre llamadas, por eso la detección se serializa.
+	 */
+	public static String languageDetector(String text) {
+		LanguageDetector lang = Holder.DETECTOR;
+		synchronized (lang) {
+			String langString = lang.detect(text).getLanguage();
+			return langString;
+		}
 	}
 
 }
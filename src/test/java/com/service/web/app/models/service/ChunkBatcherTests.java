@@ -0,0 +1,34 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ChunkBatcherTests {
+
+	@Test
+	void packsShortChunksAndKeepsLongOnesAlone() {
+		ChunkBatcher batcher = new ChunkBatcher(3, 10, 1);
+		List<String> chunks = List.of("aa", "bb", "cc", "dd", "eeeeeeeeeeee", "ff", "ggggggg", "hhhh");
+		assertEquals(List.of(List.of("aa", "bb", "cc"), List.of("dd"), List.of("eeeeeeeeeeee"),
+				List.of("ff", "ggggggg"), List.of("hhhh")), collect(batcher.batches(chunks.iterator(), String::length)));
+	}
+
+	@Test
+	void oneChunkPerBatchWhenDisabled() {
+		ChunkBatcher batcher = new ChunkBatcher(1, 10, 1);
+		assertEquals(List.of(List.of("a"), List.of("b")),
+				collect(batcher.batches(List.of("a", "b").iterator(), String::length)));
+		assertEquals(List.of(), collect(batcher.batches(List.<String>of().iterator(), String::length)));
+	}
+
+	private static List<List<String>> collect(Iterator<List<String>> batches) {
+		List<List<String>> result = new ArrayList<>();
+		batches.forEachRemaining(result::add);
+		return result;
+	}
+}
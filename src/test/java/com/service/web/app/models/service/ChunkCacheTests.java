@@ -0,0 +1,128 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.service.web.app.models.entity.CacheStats;
+
+class ChunkCacheTests {
+
+	@TempDir
+	Path diskDir;
+
+	@Test
+	void evictsLeastRecentlyUsedAndFallsBackToDisk() {
+		ChunkCache cache = new ChunkCache(2, diskDir.toString(), 100);
+		cache.put("config", "uno", extraction("uno"));
+		cache.put("config", "dos", extraction("dos"));
+		assertNotNull(cache.get("config", "uno")); // 'dos' pasa a ser el menos usado
+		cache.put("config", "tres", extraction("tres"));
+
+		assertNotNull(cache.get("config", "dos")); // desalojado de memoria, leído de disco
+		assertNull(cache.get("otra config", "uno"));
+
+		CacheStats stats = cache.stats();
+		assertEquals(1, stats.getMemoryHits());
+		assertEquals(1, stats.getDiskHits());
+		assertEquals(1, stats.getMisses());
+		assertEquals(2, stats.getSize());
+	}
+
+	@Test
+	void diskTierSurvivesRestartAndReplaysTheSameGraph() {
+		new ChunkCache(10, diskDir.toString(), 100).put("config", "texto", extraction("pueblo"));
+
+		ChunkExtraction restored = new ChunkCache(10, diskDir.toString(), 100).get("config", "texto");
+		assertNotNull(restored);
+		KnowledgeGraph graph = new KnowledgeGraph();
+		restored.applyTo(graph, "doc-1");
+		assertEquals(List.of("pueblo", "cuba"),
+				graph.toGraphResult().getNodes().stream().map(node -> node.getId()).toList());
+		assertEquals(1, graph.toGraphResult().getEdges().size());
+	}
+
+	@Test
+	void diskTierKeepsOnlyTheMostRecentlyUsedFiles() throws IOException {
+		// Sin memoria: todo get va a disco
+		ChunkCache cache = new ChunkCache(0, diskDir.toString(), 2);
+		cache.put("config", "uno", extraction("uno"));
+		cache.put("config", "dos", extraction("dos"));
+		assertNotNull(cache.get("config", "uno")); // 'dos' pasa a ser el menos usado
+		cache.put("config", "tres", extraction("tres"));
+
+		assertNull(cache.get("config", "dos"));
+		assertNotNull(cache.get("config", "uno"));
+		assertNotNull(cache.get("config", "tres"));
+		assertEquals(2, cache.diskSize());
+		assertEquals(2, binFiles());
+
+		// Al arrancar con un límite menor, el primer put recorta lo que sobra
+		ChunkCache restarted = new ChunkCache(0, diskDir.toString(), 1);
+		assertEquals(2, restarted.diskSize());
+		restarted.put("config", "cuatro", extraction("cuatro"));
+		assertEquals(1, restarted.diskSize());
+		assertEquals(1, binFiles());
+		assertNotNull(restarted.get("config", "cuatro"));
+	}
+
+	@Test
+	void diskTierRejectsClassesOutsideTheAllowList() throws Exception {
+		new ChunkCache(10, diskDir.toString(), 100).put("config", "texto", extraction("pueblo"));
+		Path file;
+		try (Stream<Path> files = Files.walk(diskDir)) {
+			file = files.filter(path -> path.toString().endsWith(".bin")).findFirst().orElseThrow();
+		}
+		// Otra clase serializable en el mismo fichero: no se llega a deserializar
+		try (OutputStream output = Files.newOutputStream(file);
+				ObjectOutputStream objects = new ObjectOutputStream(output)) {
+			objects.writeObject(new Gadget());
+		}
+
+		ChunkCache restarted = new ChunkCache(10, diskDir.toString(), 100);
+		assertNull(restarted.get("config", "texto"));
+		assertFalse(Gadget.deserialized);
+		assertEquals(1, restarted.stats().getMisses());
+	}
+
+	// Marca si su readObject llegó a ejecutarse
+	private static class Gadget implements Serializable {
+		private static final long serialVersionUID = 1L;
+		static volatile boolean deserialized;
+
+		private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+			input.defaultReadObject();
+			deserialized = true;
+		}
+	}
+
+	private long binFiles() throws IOException {
+		try (Stream<Path> files = Files.walk(diskDir)) {
+			return files.filter(path -> path.toString().endsWith(".bin")).count();
+		}
+	}
+
+	private static ChunkExtraction extraction(String id) {
+		ChunkExtraction extraction = new ChunkExtraction();
+		extraction.addCorefGroup(id, List.of(id + " mismo"));
+		extraction.startSentence();
+		extraction.addStep(new ChunkExtraction.AddNode(id, id, "Concepto"));
+		extraction.addStep(new ChunkExtraction.WordRelation(new ChunkExtraction.WordRef(id, id, null),
+				new ChunkExtraction.WordRef("cuba", "cuba", new NodeInfo("cuba", "Cuba", "COUNTRY")), "habitar"));
+		return extraction;
+	}
+}
@@ -0,0 +1,66 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CoreNlpDocumentTests {
+
+	// Respuesta recortada del servidor, con campos que no se usan (incluso anidados)
+	private static final String RESPONSE = "{\"sentences\":[{\"index\":0,"
+			+ "\"basicDependencies\":[{\"dep\":\"ROOT\",\"governor\":0,\"dependent\":2}],"
+			+ "\"enhancedPlusPlusDependencies\":["
+			+ "{\"dep\":\"ROOT\",\"governor\":0,\"governorGloss\":\"ROOT\",\"dependent\":2,\"dependentGloss\":\"gobernó\"},"
+			+ "{\"dep\":\"nsubj\",\"governor\":2,\"governorGloss\":\"gobernó\",\"dependent\":1,\"dependentGloss\":\"Fidel\"},"
+			+ "{\"dep\":\"obj\",\"governor\":2,\"governorGloss\":\"gobernó\",\"dependent\":3,\"dependentGloss\":\"Cuba\"}],"
+			+ "\"openie\":[{\"subject\":\"Fidel\",\"subjectSpan\":[0,1],\"relation\":\"gobernó\",\"object\":\"Cuba\"}],"
+			+ "\"kbp\":[{\"subject\":\"Fidel\",\"relation\":\"per:countries_of_residence\",\"object\":\"Cuba\"}],"
+			+ "\"entitymentions\":[{\"docTokenBegin\":0,\"text\":\"Fidel\",\"ner\":\"PERSON\",\"nerConfidences\":{\"PERSON\":0.9}}],"
+			+ "\"tokens\":["
+			+ "{\"index\":1,\"word\":\"Fidel\",\"lemma\":\"fidel\",\"pos\":\"PROPN\",\"ner\":\"PERSON\",\"before\":\"\"},"
+			+ "{\"index\":2,\"word\":\"gobernó\",\"lemma\":\"gobernar\",\"pos\":\"VERB\",\"ner\":\"O\"},"
+			+ "{\"index\":3,\"word\":\"Cuba\",\"lemma\":\"cuba\",\"pos\":\"PROPN\",\"ner\":\"COUNTRY\"}]}],"
+			+ "\"corefs\":{}}";
+
+	@Test
+	void readsTokensDependenciesAndTriplesInOnePass() throws Exception {
+		CoreNlpDocument document = CoreNlpDocument.parse(RESPONSE.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(1, document.sentences().size());
+		CoreNlpDocument.Sentence sentence = document.sentences().get(0);
+		assertEquals(3, sentence.tokenCount());
+		assertEquals("gobernar", sentence.lemma(1));
+		assertEquals("COUNTRY", sentence.ner(2));
+		assertEquals("PROPN", sentence.posOfIndex(3));
+		assertNull(sentence.posOfIndex(0));
+		assertEquals("cuba", sentence.lemmaOf("Cuba"));
+		assertEquals("Cuba Libre", sentence.lemmaOf("Cuba Libre"));
+
+		assertEquals(3, sentence.dependencyCount());
+		assertEquals("nsubj", sentence.dependencyType(1));
+		assertEquals(2, sentence.governor(1));
+		assertEquals("Fidel", sentence.dependentGloss(1));
+
+		assertEquals(1, sentence.openieCount());
+		assertEquals("gobernó", sentence.openieRelation(0));
+		assertEquals("per:countries_of_residence", sentence.kbpRelation(0));
+		assertEquals("PERSON", sentence.mentionType(0));
+	}
+
+	@Test
+	void tokenWithoutPosIsNotAValidNodeToken() throws Exception {
+		String response = "{\"sentences\":[{\"tokens\":[{\"index\":1,\"word\":\"Cuba\",\"ner\":\"COUNTRY\"},"
+				+ "{\"index\":2,\"word\":\"libre\",\"pos\":\"ADJ\"}]}]}";
+		CoreNlpDocument.Sentence sentence = CoreNlpDocument.parse(response.getBytes(StandardCharsets.UTF_8))
+				.sentences().get(0);
+
+		assertNull(sentence.pos(0));
+		assertFalse(GraphExtractorService.isValidPos(sentence.pos(0)));
+		assertTrue(GraphExtractorService.isValidPos(sentence.pos(1)));
+	}
+}
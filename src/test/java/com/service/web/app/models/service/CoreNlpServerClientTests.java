@@ -0,0 +1,73 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+class CoreNlpServerClientTests {
+
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void spreadsChunksOverServersAndRetriesOnAnother() throws Exception {
+		AtomicInteger busyCalls = new AtomicInteger();
+		// "busy" responde 503 a la primera petición, como un servidor con la cola llena
+		String busy = server("busy", 503, busyCalls);
+		String ok = server("ok", 0, new AtomicInteger());
+		CoreNlpServerClient client = new CoreNlpServerClient(List.of(busy, ok + "/"), "{\"annotators\":\"tokenize\"}",
+				4, Duration.ofSeconds(5), 2);
+
+		// 1.º a busy (503) y su reintento a ok; 2.º a busy, ya sin error
+		assertEquals("ok:uno", new String(client.annotate("uno").join(), StandardCharsets.UTF_8));
+		assertEquals("busy:dos", new String(client.annotate("dos").join(), StandardCharsets.UTF_8));
+		assertEquals(2, busyCalls.get());
+	}
+
+	@Test
+	void doesNotRetryClientErrors() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		String broken = server("broken", 400, calls);
+		CoreNlpServerClient client = new CoreNlpServerClient(List.of(broken), "{}", 1, Duration.ofSeconds(5), 3);
+
+		CompletionException failure = assertThrows(CompletionException.class, () -> client.annotate("x").join());
+		assertTrue(failure.getCause() instanceof IOException);
+		assertEquals(1, calls.get());
+	}
+
+	// Servidor que responde "nombre:texto"; errorStatus (si no es 0) en la 1.ª petición
+	private String server(String name, int errorStatus, AtomicInteger calls) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			boolean fail = calls.incrementAndGet() == 1 && errorStatus != 0;
+			byte[] body = (name + ":" + text).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(fail ? errorStatus : 200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		servers.add(server);
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+}
@@ -0,0 +1,173 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+class CorpusGraphTests {
+
+	@Test
+	void mergesRelationsAndHidesIsolatedNodes() {
+		CorpusGraph corpus = new CorpusGraph();
+		corpus.addDocument("d1", graph(List.of(node("fidel", "Fidel", "Concepto", 1),
+				node("cuba", "Cuba", "LOCATION", 1), node("isla", "isla", "Concepto", 1)),
+				List.of(new Edge("fidel", "cuba", "gobierna"))));
+		corpus.addDocument("d2", graph(List.of(node("fidel", "Fidel Castro", "PERSON", 2)),
+				List.of(new Edge("fidel", "cuba", "lidera"))));
+
+		GraphResult result = corpus.toGraphResult();
+		assertEquals(List.of("fidel", "cuba"), ids(result));
+		Node fidel = result.getNodes().get(0);
+		assertEquals("Fidel Castro", fidel.getName());
+		assertEquals("PERSON", fidel.getType());
+		assertEquals(3, fidel.getFrequency());
+		assertEquals(Math.log1p(3), fidel.getImportance());
+		assertEquals("gobierna|lidera", result.getEdges().get(0).getRelationship());
+
+		assertTrue(corpus.removeDocument("d2"));
+		assertFalse(corpus.removeDocument("d2"));
+		fidel = corpus.toGraphResult().getNodes().get(0);
+		assertEquals("Fidel", fidel.getName());
+		assertEquals("Concepto", fidel.getType());
+		assertEquals("gobierna", corpus.toGraphResult().getEdges().get(0).getRelationship());
+	}
+
+	@Test
+	void removingDocumentsMatchesRebuildingWithoutThem() {
+		List<GraphResult> documents = randomDocuments(new Random(3));
+
+		CorpusGraph incremental = new CorpusGraph();
+		for (int d = 0; d < documents.size(); d++)
+			incremental.addDocument("d" + d, documents.get(d));
+		CorpusGraph rebuilt = new CorpusGraph();
+		for (int d = 0; d < documents.size(); d++) {
+			if (d % 3 == 0)
+				incremental.removeDocument("d" + d);
+			else
+				rebuilt.addDocument("d" + d, documents.get(d));
+		}
+
+		assertEquals(describe(rebuilt.toGraphResult()), describe(incremental.toGraphResult()));
+		assertEquals(rebuilt.nodeCount(), incremental.nodeCount());
+		assertEquals(rebuilt.edgeCount(), incremental.edgeCount());
+	}
+
+	@Test
+	void indexesAnswerLikeScanningTheGraph() {
+		CorpusGraph corpus = randomCorpus(new Random(5));
+		GraphResult graph = corpus.toGraphResult();
+
+		List<String> expectedTop = graph.getNodes().stream()
+				.sorted(Comparator.comparingInt(Node::getFrequency).reversed().thenComparing(Node::getId)).limit(5)
+				.map(Node::getId).collect(Collectors.toList());
+		assertEquals(expectedTop, ids(new GraphResult(corpus.topNodes(5), List.of())));
+
+		assertEquals(graph.getNodes().stream().filter(node -> "PERSON".equals(node.getType())).map(Node::getId)
+				.sorted().collect(Collectors.toList()),
+				ids(new GraphResult(corpus.nodesByType("PERSON", 1000), List.of())).stream().sorted()
+						.collect(Collectors.toList()));
+
+		Set<String> withR1 = graph.getEdges().stream()
+				.filter(edge -> Arrays.asList(edge.getRelationship().split("\\|")).contains("r1"))
+				.map(edge -> edge.getSource() + ">" + edge.getTarget()).collect(Collectors.toSet());
+		assertEquals(withR1, corpus.edgesByRelationship("r1", 1000).stream()
+				.map(edge -> edge.getSource() + ">" + edge.getTarget()).collect(Collectors.toSet()));
+
+		// Un salto: el nodo y sus vecinos directos, con las aristas entre ellos
+		String start = expectedTop.get(0);
+		GraphResult around = corpus.neighbourhood(start, 1, 1000);
+		Set<String> neighbours = new TreeSet<>();
+		neighbours.add(start);
+		for (Edge edge : graph.getEdges()) {
+			if (edge.getSource().equals(start))
+				neighbours.add(edge.getTarget());
+			if (edge.getTarget().equals(start))
+				neighbours.add(edge.getSource());
+		}
+		long expectedEdges = graph.getEdges().stream()
+				.filter(edge -> neighbours.contains(edge.getSource()) && neighbours.contains(edge.getTarget())).count();
+		assertEquals(expectedEdges, around.getEdges().size());
+		assertTrue(around.getNodes().stream().allMatch(node -> neighbours.contains(node.getId())));
+	}
+
+	private static List<GraphResult> randomDocuments(Random random) {
+		List<GraphResult> documents = new ArrayList<>();
+		for (int d = 0; d < 40; d++) {
+			List<Node> nodes = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				int id = random.nextInt(30);
+				if (nodes.stream().noneMatch(n -> n.getId().equals("n" + id)))
+					nodes.add(node("n" + id, "N" + id + "x".repeat(random.nextInt(3)),
+							random.nextBoolean() ? "Concepto" : "PERSON", 1 + random.nextInt(2)));
+			}
+			List<Edge> edges = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				int source = random.nextInt(30), target = random.nextInt(30);
+				if (source != target)
+					edges.add(new Edge("n" + source, "n" + target, "r" + random.nextInt(3)));
+			}
+			documents.add(graph(nodes, edges));
+		}
+		return documents;
+	}
+
+	// Corpus con altas, bajas y sustituciones de documentos
+	private static CorpusGraph randomCorpus(Random random) {
+		List<GraphResult> documents = randomDocuments(random);
+		CorpusGraph corpus = new CorpusGraph();
+		for (int d = 0; d < documents.size(); d++) {
+			corpus.addDocument("d" + random.nextInt(25), documents.get(d));
+			if (random.nextInt(4) == 0)
+				corpus.removeDocument("d" + random.nextInt(25));
+		}
+		return corpus;
+	}
+
+	private static Node node(String id, String name, String type, int frequency) {
+		Node node = new Node(id, name, type, "ignorado");
+		node.setFrequency(frequency);
+		return node;
+	}
+
+	private static GraphResult graph(List<Node> nodes, List<Edge> edges) {
+		return new GraphResult(nodes, edges);
+	}
+
+	private static List<String> ids(GraphResult result) {
+		List<String> ids = new ArrayList<>();
+		result.getNodes().forEach(node -> ids.add(node.getId()));
+		return ids;
+	}
+
+	// Contenido del grafo sin depender del orden (tampoco el de las relaciones
+	// fusionadas de cada par)
+	private static Map<String, String> describe(GraphResult result) {
+		Map<String, String> description = new TreeMap<>();
+		for (Node node : result.getNodes()) {
+			description.put("node " + node.getId(), node.getName() + " " + node.getType() + " " + node.getFrequency()
+					+ " " + new TreeSet<>(node.getDocumentIds()));
+		}
+		for (Edge edge : result.getEdges()) {
+			description.put("edge " + edge.getSource() + " " + edge.getTarget(),
+					new TreeSet<>(Arrays.asList(edge.getRelationship().split("\\|"))).toString());
+		}
+		return description;
+	}
+}
@@ -0,0 +1,95 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+class CorpusStoreTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void reloadsAddsAndRemovesAcrossSegments() {
+		// Segmentos de 1 KB: los registros se reparten en varios ficheros
+		CorpusStore store = new CorpusStore(dir.toString(), 1024, false);
+		CorpusGraph corpus = new CorpusGraph();
+		for (int d = 0; d < 30; d++) {
+			GraphResult graph = document(d);
+			store.appendAdd("d" + d, graph);
+			corpus.addDocument("d" + d, graph);
+			if (d % 4 == 0) {
+				store.appendRemove("d" + (d / 2));
+				corpus.removeDocument("d" + (d / 2));
+			}
+		}
+		store.close();
+
+		assertEquals(json(corpus), json(reload(dir)));
+	}
+
+	@Test
+	void dropsTruncatedTailAndCompacts() throws IOException {
+		CorpusStore store = new CorpusStore(dir.toString(), 1 << 20, false);
+		CorpusGraph corpus = new CorpusGraph();
+		for (int d = 0; d < 10; d++) {
+			store.appendAdd("d" + d, document(d));
+			corpus.addDocument("d" + d, document(d));
+		}
+		store.close();
+		// Caída a mitad del registro siguiente
+		Path segment = segments(dir).get(0);
+		Files.write(segment, new byte[] { 1, 0, 0, 0, 50, 7 }, StandardOpenOption.APPEND);
+
+		CorpusStore reopened = new CorpusStore(dir.toString(), 1 << 20, false);
+		CorpusGraph loaded = new CorpusGraph();
+		assertEquals(10, reopened.load(loaded::addDocument, loaded::removeDocument));
+		assertEquals(json(corpus), json(loaded));
+
+		reopened.compact(loaded);
+		reopened.appendRemove("d3");
+		corpus.removeDocument("d3");
+		reopened.close();
+		assertEquals(1, segments(dir).size());
+		assertEquals(json(corpus), json(reload(dir)));
+	}
+
+	private static CorpusGraph reload(Path dir) {
+		CorpusStore store = new CorpusStore(dir.toString(), 1 << 20, false);
+		CorpusGraph corpus = new CorpusGraph();
+		store.load(corpus::addDocument, corpus::removeDocument);
+		store.close();
+		return corpus;
+	}
+
+	private static GraphResult document(int d) {
+		Node node = new Node("n" + d % 7, "Nodo " + d, d % 2 == 0 ? "PERSON" : "Concepto", "d" + d);
+		node.setFrequency(1 + d % 3);
+		Node shared = new Node("revolución", "Revolución", null, "d" + d);
+		return new GraphResult(List.of(node, shared), List.of(new Edge("n" + d % 7, "revolución", "r" + d % 3)));
+	}
+
+	private static String json(CorpusGraph corpus) {
+		return new Gson().toJson(corpus.toGraphResult());
+	}
+
+	private static List<Path> segments(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+}
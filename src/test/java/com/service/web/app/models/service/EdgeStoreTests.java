@@ -0,0 +1,82 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EdgeStoreTests {
+
+	private static final int CASTRO = 0, CUBA = 1, FIDEL = 2, REVOLUCION = 3;
+	private static final int GOBIERNA = 0, LIDERA = 1, ALIAS = 2;
+
+	@Test
+	void redirectKeepsOrderAndDropsDuplicatesAndLoops() {
+		EdgeStore store = new EdgeStore();
+		store.add(CASTRO, CUBA, GOBIERNA);
+		store.add(FIDEL, CUBA, GOBIERNA);
+		store.add(FIDEL, REVOLUCION, LIDERA);
+		store.add(CASTRO, FIDEL, ALIAS);
+
+		store.redirect(FIDEL, CASTRO);
+
+		assertEquals(List.of(List.of(CASTRO, CUBA, GOBIERNA), List.of(CASTRO, REVOLUCION, LIDERA)), live(store));
+		assertFalse(store.hasEdges(FIDEL));
+		assertEquals(-1, store.add(CASTRO, REVOLUCION, LIDERA));
+	}
+
+	@Test
+	void redirectedEdgesAreFoundByValue() {
+		EdgeStore store = new EdgeStore();
+		store.add(0, 1, 0);
+		store.redirect(1, 2);
+
+		// Con la arista modificada dentro de un HashSet este duplicado entraba
+		assertEquals(-1, store.add(0, 2, 0));
+		assertEquals(1, store.size());
+		store.redirect(2, 3);
+		assertTrue(store.hasEdges(3));
+		assertFalse(store.hasEdges(2));
+		assertEquals(List.of(List.of(0, 3, 0)), live(store));
+	}
+
+	@Test
+	void lookupsSurviveRandomRemovals() {
+		// Los borrados desplazan entradas de la tabla hash: todo lo vivo debe seguir
+		// encontrándose en su slot
+		Random random = new Random(7);
+		EdgeStore store = new EdgeStore();
+		for (int i = 0; i < 20000; i++) {
+			int source = random.nextInt(200), target = random.nextInt(200), relation = random.nextInt(5);
+			if (random.nextInt(3) == 0) {
+				int slot = store.find(source, target, relation);
+				if (slot >= 0)
+					store.remove(slot);
+			} else if (source != target) {
+				store.add(source, target, relation);
+			}
+		}
+		int live = 0;
+		for (int slot = 0; slot < store.slotCount(); slot++) {
+			if (store.isLive(slot)) {
+				live++;
+				assertEquals(slot, store.find(store.source(slot), store.target(slot), store.relation(slot)));
+			}
+		}
+		assertEquals(live, store.size());
+	}
+
+	private static List<List<Integer>> live(EdgeStore store) {
+		List<List<Integer>> edges = new ArrayList<>();
+		for (int slot = 0; slot < store.slotCount(); slot++) {
+			if (store.isLive(slot))
+				edges.add(List.of(store.source(slot), store.target(slot), store.relation(slot)));
+		}
+		return edges;
+	}
+}
@@ -0,0 +1,157 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.service.web.app.controllers.NerController;
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.ExtractionJob;
+import com.service.web.app.models.entity.GraphResult;
+
+class ExtractionJobServiceTests {
+
+	// Un hilo y un hueco en la cola: el tercer trabajo ya no cabe
+	private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+	private final BlockingExtractor extractor = new BlockingExtractor();
+
+	@AfterEach
+	void tearDown() {
+		extractor.release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void jobsGoFromQueuedToDoneAndFullQueueIsRejected() throws InterruptedException {
+		ExtractionJobServiceImpl service = new ExtractionJobServiceImpl(extractor, executor, 60);
+
+		ExtractionJob running = service.submit(documents("uno"));
+		assertTrue(extractor.started.await(5, TimeUnit.SECONDS));
+		ExtractionJob queued = service.submit(documents("dos"));
+		assertEquals(ExtractionJob.Status.RUNNING, running.getStatus());
+		assertEquals(ExtractionJob.Status.QUEUED, queued.getStatus());
+
+		assertThrows(RejectedExecutionException.class, () -> service.submit(documents("tres")));
+		assertEquals(1, executor.getQueue().size());
+
+		extractor.release.countDown();
+		ExtractionJob done = awaitFinished(service, queued.getId());
+		assertEquals(ExtractionJob.Status.DONE, done.getStatus());
+		assertSame(extractor.result, done.getResult());
+		assertEquals(ExtractionJob.Status.DONE, awaitFinished(service, running.getId()).getStatus());
+	}
+
+	@Test
+	void failedExtractionLeavesTheJobFailedWithItsMessage() throws InterruptedException {
+		ExtractionJobServiceImpl service = new ExtractionJobServiceImpl(extractor, executor, 60);
+		extractor.release.countDown();
+
+		ExtractionJob job = awaitFinished(service, service.submit(documents(BlockingExtractor.FAILS)).getId());
+		assertEquals(ExtractionJob.Status.FAILED, job.getStatus());
+		assertEquals("documento inválido", job.getError());
+		assertNull(job.getResult());
+	}
+
+	@Test
+	void finishedJobIsEvictedAfterRetention() throws InterruptedException {
+		// Retención 0: el trabajo se descarta en cuanto termina
+		ExtractionJobServiceImpl service = new ExtractionJobServiceImpl(extractor, executor, 0);
+		ExtractionJob job = service.submit(documents("uno"));
+		assertSame(job, service.get(job.getId()));
+
+		extractor.release.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(job.isFinished());
+		Thread.sleep(5);
+		assertNull(service.get(job.getId()));
+	}
+
+	@Test
+	void controllerAnswers429WithRetryAfterWhenTheQueueIsFull() throws Exception {
+		NerController controller = new NerController();
+		Field jobs = NerController.class.getDeclaredField("jobs");
+		jobs.setAccessible(true);
+		jobs.set(controller, new ExtractionJobServiceImpl(extractor, executor, 60));
+
+		ResponseEntity<String> accepted = controller.submitJob(documents("uno"), null);
+		assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+		assertNotNull(accepted.getHeaders().getLocation());
+		assertTrue(extractor.started.await(5, TimeUnit.SECONDS));
+		assertEquals(HttpStatus.ACCEPTED, controller.submitJob(documents("dos"), null).getStatusCode());
+
+		ResponseEntity<String> rejected = controller.submitJob(documents("tres"), null);
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+		assertEquals("30", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	private static ExtractionJob awaitFinished(ExtractionJobService service, String id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		ExtractionJob job = service.get(id);
+		while (job != null && !job.isFinished() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			job = service.get(id);
+		}
+		assertNotNull(job);
+		assertTrue(job.isFinished());
+		return job;
+	}
+
+	private static List<Discurs> documents(String text) {
+		Discurs doc = new Discurs();
+		doc.setId("doc-" + text);
+		doc.setLang("es");
+		doc.setText(text);
+		return List.of(doc);
+	}
+
+	// Bloquea cada extracción hasta release; falla con el texto FAILS
+	private static class BlockingExtractor implements Extractor {
+
+		static final String FAILS = "falla";
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final GraphResult result = new GraphResult(List.of(), List.of());
+
+		@Override
+		public String extractTriples(List<String> doc) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public GraphResult extractTriplesFromDocuments(List<Discurs> documents) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			if (FAILS.equals(documents.get(0).getText())) {
+				throw new IllegalArgumentException("documento inválido");
+			}
+			return result;
+		}
+	}
+}
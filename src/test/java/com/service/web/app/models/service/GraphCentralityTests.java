@@ -0,0 +1,78 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GraphCentralityTests {
+
+	@Test
+	void pageRankMatchesReferenceOnLargeGraph() {
+		// Por encima del umbral, para que se calcule en paralelo
+		int n = GraphCentrality.PARALLEL_THRESHOLD * 2;
+		Random random = new Random(7);
+		int[] sources = new int[n * 3];
+		int[] targets = new int[n * 3];
+		for (int e = 0; e < sources.length; e++) {
+			// Los nodos múltiplos de 10 no tienen aristas de salida
+			do {
+				sources[e] = random.nextInt(n);
+			} while (sources[e] % 10 == 0);
+			targets[e] = random.nextInt(n);
+		}
+
+		GraphCentrality centrality = new GraphCentrality(n, sources, targets);
+		double[] rank = centrality.pageRank(0.85, 100, 1e-10);
+		assertTrue(centrality.iterations() < 100);
+		assertEquals(1.0, Arrays.stream(rank).sum(), 1e-9);
+		assertArrayEquals(reference(n, sources, targets, 0.85, 100), rank, 1e-9);
+		assertArrayEquals(rank, centrality.pageRank(0.85, 100, 1e-10));
+	}
+
+	@Test
+	void hubGetsHighestPageRankAndBetweenness() {
+		// 1..4 -> 0 -> 5 -> 6
+		int[] sources = { 1, 2, 3, 4, 0, 5 };
+		int[] targets = { 0, 0, 0, 0, 5, 6 };
+		GraphCentrality centrality = new GraphCentrality(7, sources, targets);
+
+		double[] rank = centrality.pageRank(0.85, 100, 1e-12);
+		for (int v = 1; v <= 4; v++)
+			assertTrue(rank[0] > rank[v]);
+
+		// Exacta (tantas muestras como nodos): 0 está en los 4 caminos x -> 5 y
+		// en los 4 x -> 6; 5 en los 5 caminos que llegan a 6
+		double[] betweenness = centrality.betweenness(7, 1);
+		assertEquals(8.0, betweenness[0], 1e-12);
+		assertEquals(5.0, betweenness[5], 1e-12);
+		assertEquals(0.0, betweenness[1], 1e-12);
+
+		assertEquals(5.0 / 6, centrality.degree()[0], 1e-12);
+	}
+
+	// PageRank directo, sin CSR ni bloques
+	private static double[] reference(int n, int[] sources, int[] targets, double damping, int iterations) {
+		int[] outDegree = new int[n];
+		for (int source : sources)
+			outDegree[source]++;
+		double[] rank = new double[n];
+		Arrays.fill(rank, 1.0 / n);
+		for (int it = 0; it < iterations; it++) {
+			double dangling = 0;
+			for (int v = 0; v < n; v++)
+				if (outDegree[v] == 0)
+					dangling += rank[v];
+			double[] next = new double[n];
+			Arrays.fill(next, (1 - damping) / n + damping * dangling / n);
+			for (int e = 0; e < sources.length; e++)
+				next[targets[e]] += damping * rank[sources[e]] / outDegree[sources[e]];
+			rank = next;
+		}
+		return rank;
+	}
+}
@@ -0,0 +1,94 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+
+class GraphEventStreamTests {
+
+	@Test
+	void replayingEventsGivesFinalGraph() {
+		ClientGraph client = new ClientGraph();
+		GraphEventStream stream = new GraphEventStream(client);
+		KnowledgeGraph graph = new KnowledgeGraph(true);
+
+		// Chunk 1
+		graph.addNode("fidel castro", "Fidel Castro", "PERSON", "doc-1");
+		graph.addNode("cuba", "Cuba", "COUNTRY", "doc-1");
+		graph.addNode("pueblo", "pueblo", "Concepto", "doc-1");
+		graph.addNode("aislado", "aislado", "Concepto", "doc-1");
+		graph.addEdge("fidel castro", "cuba", "gobernar");
+		graph.addEdge("fidel castro", "pueblo", "hablar");
+		stream.chunkApplied(graph);
+
+		// Chunk 2: la correferencia fusiona 'el comandante' en 'fidel castro'
+		graph.addNode("el comandante", "el comandante", "PERSON", "doc-2");
+		graph.addEdge("el comandante", "pueblo", "defender");
+		graph.addEdge("fidel castro", "cuba", "dirigir");
+		stream.chunkApplied(graph);
+		graph.mergeCoreferences("fidel castro", List.of("el comandante"));
+		stream.chunkApplied(graph);
+
+		graph.calculateNodeImportance();
+		graph.cleanIsolatedNodes();
+		graph.mergeSimilarRelations();
+		GraphResult result = graph.toGraphResult();
+		stream.finish(result);
+
+		assertEquals(result.getNodes().stream().map(Node::getId).collect(Collectors.toSet()), client.nodes.keySet());
+		result.getNodes().forEach(node -> assertEquals(node.getImportance(), client.nodes.get(node.getId()).getImportance()));
+		assertEquals(result.getEdges().stream().map(ClientGraph::key).collect(Collectors.toSet()), client.edges);
+		assertEquals(result.getNodes().size(), client.completedNodes);
+	}
+
+	// Cliente que aplica los eventos como lo haría el front
+	private static class ClientGraph implements GraphEventListener {
+		final Map<String, Node> nodes = new HashMap<>();
+		final Set<String> edges = new HashSet<>();
+		int completedNodes = -1;
+
+		static String key(Edge edge) {
+			return edge.getSource() + "|" + edge.getTarget() + "|" + edge.getRelationship();
+		}
+
+		@Override
+		public void onNode(Node node) {
+			nodes.put(node.getId(), node);
+		}
+
+		@Override
+		public void onEdge(Edge edge) {
+			edges.add(key(edge));
+		}
+
+		@Override
+		public void onNodeRemoved(String nodeId) {
+			nodes.remove(nodeId);
+		}
+
+		@Override
+		public void onEdgeRemoved(String source, String target, String relationship) {
+			edges.remove(key(new Edge(source, target, relationship)));
+		}
+
+		@Override
+		public void onChunkApplied() {
+		}
+
+		@Override
+		public void onComplete(int nodes, int edges) {
+			completedNodes = nodes;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.service.web.app.models.entity.Discurs;
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.GraphResult;
+import com.service.web.app.models.entity.Node;
+import com.sun.net.httpserver.HttpServer;
+
+class GraphExtractorServiceTests {
+
+	// Misma respuesta para cualquier chunk: fidel (PERSON) gobernó cuba (COUNTRY)
+	private static final String RESPONSE = "{\"sentences\":[{\"index\":0,\"enhancedPlusPlusDependencies\":["
+			+ "{\"dep\":\"nsubj\",\"governor\":2,\"governorGloss\":\"gobernó\",\"dependent\":1,\"dependentGloss\":\"fidel\"},"
+			+ "{\"dep\":\"obj\",\"governor\":2,\"governorGloss\":\"gobernó\",\"dependent\":3,\"dependentGloss\":\"cuba\"}],"
+			+ "\"openie\":[],\"kbp\":[],\"entitymentions\":[{\"text\":\"fidel\",\"ner\":\"PERSON\"},"
+			+ "{\"text\":\"cuba\",\"ner\":\"COUNTRY\"}],\"tokens\":["
+			+ "{\"index\":1,\"word\":\"fidel\",\"lemma\":\"fidel\",\"pos\":\"PROPN\",\"ner\":\"PERSON\"},"
+			+ "{\"index\":2,\"word\":\"gobernó\",\"lemma\":\"gobernar\",\"pos\":\"VERB\",\"ner\":\"O\"},"
+			+ "{\"index\":3,\"word\":\"cuba\",\"lemma\":\"cuba\",\"pos\":\"PROPN\",\"ner\":\"COUNTRY\"}]}]}";
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private String url;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		serverThreads = Executors.newFixedThreadPool(4);
+		server.setExecutor(serverThreads);
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallsGetTheSameGraphAsASingleCall() throws Exception {
+		GraphExtractorService extractor = new GraphExtractorService(List.of(url), 4, 5000, 0);
+		List<String> documents = List.of("Fidel gobernó Cuba. ".repeat(25), "Fidel gobernó Cuba.");
+		String expected = extractor.extractTriples(documents);
+		assertTrue(expected.contains("{\"source\":\"1\",\"target\":\"2\",\"relationship\":\"gobernó\"}"), expected);
+
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			Callable<String> call = () -> extractor.extractTriples(documents);
+			for (int i = 0; i < 32; i++)
+				results.add(callers.submit(call));
+			for (Future<String> result : results)
+				assertEquals(expected, result.get());
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void documentsAndStreamingGoThroughTheRemoteGraph() {
+		GraphExtractorService extractor = new GraphExtractorService(List.of(url), 4, 5000, 0);
+		List<Discurs> documents = List.of(document("doc-1", "Fidel gobernó Cuba."),
+				document("doc-2", "Fidel gobernó Cuba."));
+
+		GraphResult result = extractor.extractTriplesFromDocuments(documents, AnnotatorProfile.FAST);
+		assertEquals(2, result.getNodes().size());
+		assertEquals(Set.of("doc-1", "doc-2"), result.getNodes().get(0).getDocumentIds());
+		assertEquals("gobernó", result.getEdges().get(0).getRelationship());
+
+		List<String> events = new ArrayList<>();
+		extractor.streamTriplesFromDocuments(documents, new GraphEventListener() {
+			@Override
+			public void onNode(Node node) {
+				events.add("node " + node.getId());
+			}
+
+			@Override
+			public void onEdge(Edge edge) {
+				events.add("edge " + edge.getSource() + "->" + edge.getTarget());
+			}
+
+			@Override
+			public void onNodeRemoved(String nodeId) {
+				events.add("removed " + nodeId);
+			}
+
+			@Override
+			public void onEdgeRemoved(String source, String target, String relationship) {
+				events.add("removed " + source + "->" + target);
+			}
+
+			@Override
+			public void onChunkApplied() {
+				events.add("chunk");
+			}
+
+			@Override
+			public void onComplete(int nodes, int edges) {
+				events.add("complete " + nodes + " " + edges);
+			}
+		});
+		assertEquals(List.of("node 1", "node 2", "edge 1->2", "complete 2 1"), events);
+	}
+
+	private static Discurs document(String id, String text) {
+		Discurs document = new Discurs();
+		document.setId(id);
+		document.setText(text);
+		return document;
+	}
+}
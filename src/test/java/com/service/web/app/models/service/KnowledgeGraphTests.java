@@ -0,0 +1,109 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.service.web.app.models.entity.Edge;
+import com.service.web.app.models.entity.Node;
+
+class KnowledgeGraphTests {
+
+	@Test
+	void mergeSimilarRelationsJoinsRelationsOfEachPairInOrder() {
+		KnowledgeGraph graph = randomGraph(new Random(9), 200, 1500);
+		// Lo esperado: primera arista de cada par, con las relaciones en orden de slot
+		Map<String, String> expected = new LinkedHashMap<>();
+		for (Edge edge : graph.toGraphResult().getEdges()) {
+			expected.merge(edge.getSource() + "->" + edge.getTarget(), edge.getRelationship(),
+					(merged, relationship) -> merged + "|" + relationship);
+		}
+
+		graph.mergeSimilarRelations();
+		assertEquals(expected, describe(graph));
+
+		// Una relación nueva en un par ya fusionado se añade al final, sin repetir
+		Edge first = graph.toGraphResult().getEdges().get(0);
+		String firstRelation = first.getRelationship().split("\\|")[0];
+		graph.addEdge(first.getSource(), first.getTarget(), "nueva");
+		graph.addEdge(first.getSource(), first.getTarget(), firstRelation);
+		graph.mergeSimilarRelations();
+		expected.put(first.getSource() + "->" + first.getTarget(), first.getRelationship() + "|nueva");
+		assertEquals(expected, describe(graph));
+	}
+
+	@Test
+	void pageRankIgnoresNodesMergedByCoreference() {
+		// lider es correferente de fidel: sus aristas pasan a fidel y el nodo se va
+		KnowledgeGraph merged = graphOf("fidel", "raul", "cuba", "habana", "lider");
+		merged.addEdge("fidel", "cuba", "gobernar");
+		merged.addEdge("lider", "habana", "vivir");
+		merged.addEdge("cuba", "habana", "capital");
+		merged.addEdge("raul", "cuba", "gobernar");
+		merged.mergeCoreferences("fidel", List.of("lider"));
+		merged.calculatePageRankImportance(0.85, 100, 1e-12);
+
+		KnowledgeGraph direct = graphOf("fidel", "raul", "cuba", "habana");
+		direct.addEdge("fidel", "cuba", "gobernar");
+		direct.addEdge("fidel", "habana", "vivir");
+		direct.addEdge("cuba", "habana", "capital");
+		direct.addEdge("raul", "cuba", "gobernar");
+		direct.calculatePageRankImportance(0.85, 100, 1e-12);
+
+		Map<String, Double> expected = importances(direct);
+		Map<String, Double> actual = importances(merged);
+		assertEquals(expected.keySet(), actual.keySet());
+		double sum = 0;
+		for (Map.Entry<String, Double> entry : actual.entrySet()) {
+			assertEquals(expected.get(entry.getKey()), entry.getValue(), 1e-9, entry.getKey());
+			sum += entry.getValue();
+		}
+		// Media 1 sobre los nodos vivos
+		assertEquals(4.0, sum, 1e-9);
+	}
+
+	private static KnowledgeGraph graphOf(String... ids) {
+		KnowledgeGraph graph = new KnowledgeGraph();
+		for (String id : ids)
+			graph.addNode(id, id, "Concepto", "doc-1");
+		return graph;
+	}
+
+	private static Map<String, Double> importances(KnowledgeGraph graph) {
+		Map<String, Double> importances = new LinkedHashMap<>();
+		for (Node node : graph.toGraphResult().getNodes())
+			importances.put(node.getName(), node.getImportance());
+		return importances;
+	}
+
+	private static Map<String, String> describe(KnowledgeGraph graph) {
+		Map<String, String> description = new LinkedHashMap<>();
+		for (Edge edge : graph.toGraphResult().getEdges())
+			description.put(edge.getSource() + "->" + edge.getTarget(), edge.getRelationship());
+		return description;
+	}
+
+	private static final String[] RELATIONS = { "es", "tiene", "defender", "gobernar", "de" };
+
+	// IDs de ancho fijo para que ninguno contenga a otro; muchas aristas por par
+	private static KnowledgeGraph randomGraph(Random random, int nodes, int edges) {
+		KnowledgeGraph graph = new KnowledgeGraph();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < nodes; i++) {
+			String id = String.format("n%05d", i);
+			ids.add(id);
+			graph.addNode(id, id, "Concepto", "doc-1");
+		}
+		for (int e = 0; e < edges; e++) {
+			graph.addEdge(ids.get(random.nextInt(nodes / 4)), ids.get(random.nextInt(nodes / 4)),
+					RELATIONS[random.nextInt(RELATIONS.length)]);
+		}
+		return graph;
+	}
+}
@@ -0,0 +1,59 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class NodeContainmentIndexTests {
+
+	private static final String[] WORDS = { "pueblo", "pueblos", "america", "america latina", "latina", "ee",
+			"paz", "guerra", "guerra fria", "fria", "revolucion", "revolucion cubana", "cuba", "cubana", "estado",
+			"estados unidos", "unidos", "nacion", "naciones unidas", "al", "ra", "a", "io", "ion" };
+
+	@Test
+	void returnsSameParentAsLinearScan() {
+		Random random = new Random(42);
+		Set<String> ids = new LinkedHashSet<>();
+		NodeContainmentIndex index = new NodeContainmentIndex();
+
+		for (int i = 0; i < 5000; i++) {
+			String candidate = randomId(random);
+			assertEquals(scan(ids, candidate), index.findLongestRelated(candidate), candidate);
+
+			if (random.nextInt(4) == 0 && !ids.isEmpty()) {
+				// Igual que mergeNodes: quitar un nodo y a veces volver a añadirlo al final
+				String removed = new ArrayList<>(ids).get(random.nextInt(ids.size()));
+				ids.remove(removed);
+				index.remove(removed);
+			} else {
+				ids.add(candidate);
+				index.add(candidate);
+			}
+		}
+		assertEquals(ids.size(), index.size());
+	}
+
+	// Implementación original de findParentEntity
+	private static String scan(Set<String> ids, String candidateId) {
+		return ids.stream()
+				.filter(existingId -> existingId.contains(candidateId) || candidateId.contains(existingId))
+				.max(Comparator.comparingInt(String::length))
+				.orElse(null);
+	}
+
+	private static String randomId(Random random) {
+		StringBuilder id = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+		int extra = random.nextInt(3);
+		for (int i = 0; i < extra; i++) {
+			id.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return id.toString();
+	}
+}
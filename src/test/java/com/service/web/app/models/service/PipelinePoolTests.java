@@ -0,0 +1,85 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import edu.stanford.nlp.ling.CoreAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.AnnotationPipeline;
+import edu.stanford.nlp.pipeline.Annotator;
+
+class PipelinePoolTests {
+
+	@Test
+	void annotatesEachDocumentOnceWithOneThread() {
+		assertAnnotatedOnce(1);
+	}
+
+	@Test
+	void annotatesEachDocumentOnceWithSeveralThreads() {
+		assertAnnotatedOnce(3);
+	}
+
+	@Test
+	void marksOnlyTheFailedDocument() {
+		AnnotationPipeline pipeline = new AnnotationPipeline();
+		pipeline.addAnnotator(new CountingAnnotator(new ConcurrentHashMap<>(), "malo"));
+		boolean[] done = PipelinePool.annotateBatch(pipeline, documents("uno", "malo", "tres"), 1);
+		assertArrayEquals(new boolean[] { true, false, true }, done);
+	}
+
+	private static void assertAnnotatedOnce(int threads) {
+		Map<String, Integer> calls = new ConcurrentHashMap<>();
+		AnnotationPipeline pipeline = new AnnotationPipeline();
+		pipeline.addAnnotator(new CountingAnnotator(calls, null));
+		boolean[] done = PipelinePool.annotateBatch(pipeline, documents("uno", "dos", "tres", "cuatro"), threads);
+		assertArrayEquals(new boolean[] { true, true, true, true }, done);
+		assertEquals(Map.of("uno", 1, "dos", 1, "tres", 1, "cuatro", 1), calls);
+	}
+
+	private static List<Annotation> documents(String... texts) {
+		List<Annotation> documents = new ArrayList<>();
+		for (String text : texts)
+			documents.add(new Annotation(text));
+		return documents;
+	}
+
+	// Cuenta cuántas veces se anota cada texto; falla con el texto indicado
+	private static final class CountingAnnotator implements Annotator {
+		private final Map<String, Integer> calls;
+		private final String failOn;
+
+		CountingAnnotator(Map<String, Integer> calls, String failOn) {
+			this.calls = calls;
+			this.failOn = failOn;
+		}
+
+		@Override
+		public void annotate(Annotation annotation) {
+			String text = annotation.get(CoreAnnotations.TextAnnotation.class);
+			if (text.equals(failOn))
+				throw new IllegalStateException("fallo en " + text);
+			calls.merge(text, 1, Integer::sum);
+		}
+
+		@Override
+		public Set<Class<? extends CoreAnnotation>> requirementsSatisfied() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Set<Class<? extends CoreAnnotation>> requires() {
+			return Collections.emptySet();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.service.web.app.models.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TextChunkerTests {
+
+	@Test
+	void matchesRegexSplitWithoutCharBudget() {
+		// Misma salida que el antiguo split("(?<=[.!?])\\s+|[\n\r]+") + trim
+		Random random = new Random(13);
+		String alphabet = "ab .!?\n\r\t";
+		TextChunker chunker = new TextChunker(3, 0);
+		for (int round = 0; round < 500; round++) {
+			StringBuilder text = new StringBuilder();
+			int length = random.nextInt(200);
+			for (int i = 0; i < length; i++)
+				text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			List<String> expected = regexChunks(text.toString(), 3);
+			assertEquals(expected, collect(chunker.chunks(text)), text.toString());
+			assertEquals(expected, collect(chunker.chunks(new StringReader(text.toString()))), text.toString());
+		}
+	}
+
+	@Test
+	void respectsCharBudget() {
+		TextChunker chunker = new TextChunker(10, 20);
+		List<String> chunks = collect(
+				chunker.chunks("Fidel habla. Raúl escucha.\nLa revolución sigue adelante sin descanso alguno."));
+		assertEquals(List.of("Fidel habla.", "Raúl escucha.", "La revolución sigue", "adelante sin", "descanso alguno."),
+				chunks);
+		for (String chunk : chunks)
+			assertTrue(chunk.length() <= 20, chunk);
+	}
+
+	private static List<String> collect(Iterable<String> chunks) {
+		List<String> result = new ArrayList<>();
+		chunks.forEach(result::add);
+		return result;
+	}
+
+	private static List<String> regexChunks(String text, int size) {
+		List<String> chunks = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		int count = 0;
+		for (String sentence : text.split("(?<=[.!?])\\s+|[\n\r]+")) {
+			String trimmed = sentence.trim();
+			if (!trimmed.isEmpty()) {
+				current.append(trimmed).append(' ');
+				if (++count == size) {
+					chunks.add(current.toString().trim());
+					current.setLength(0);
+					count = 0;
+				}
+			}
+		}
+		if (current.length() > 0)
+			chunks.add(current.toString().trim());
+		return chunks;
+	}
+}